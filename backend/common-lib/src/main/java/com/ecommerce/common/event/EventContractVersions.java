@@ -10,8 +10,10 @@ public final class EventContractVersions {
     private static final Map<String, String> TOPIC_VERSIONS = Map.ofEntries(
             Map.entry("order-created", "v1"),
             Map.entry("order-cancelled", "v1"),
+            Map.entry("order-status-changed", "v1"),
             Map.entry("inventory-reserved", "v1"),
             Map.entry("inventory-failed", "v1"),
+            Map.entry("stock-changed", "v1"),
             Map.entry("payment-success", "v1"),
             Map.entry("payment-failed", "v1"),
             Map.entry("refund-requested", "v1"),
@@ -0,0 +1,27 @@
+package com.ecommerce.common.http;
+
+import java.time.Duration;
+
+/**
+ * Tuning for a pooled inter-service HTTP client.
+ *
+ * @param connectTimeout           TCP connect timeout
+ * @param responseTimeout          socket read timeout while waiting for a response
+ * @param connectionRequestTimeout how long a caller waits to lease a connection from an exhausted pool
+ * @param maxTotal                 connections across all routes
+ * @param maxPerRoute              connections to one host:port
+ * @param keepAlive                upper bound on how long an idle connection is reused; kept below
+ *                                 the server's keep-alive timeout so we never write to a socket it closed
+ * @param idleEviction             idle connections older than this are closed by a background evictor
+ * @param validateAfterInactivity  connections idle longer than this are checked before reuse
+ */
+public record HttpClientPoolSettings(
+        Duration connectTimeout,
+        Duration responseTimeout,
+        Duration connectionRequestTimeout,
+        int maxTotal,
+        int maxPerRoute,
+        Duration keepAlive,
+        Duration idleEviction,
+        Duration validateAfterInactivity) {
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.common.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Builds keep-alive, connection-pooled request factories for calls between services, so a checkout
+ * reuses an open connection instead of paying a TCP handshake per call. Pool gauges are published as
+ * {@code httpcomponents.httpclient.pool.*} and lease waits as
+ * {@code httpcomponents.httpclient.pool.acquire}, all tagged {@code httpclient=<name>}.
+ *
+ * <p>Register the returned factory as a bean so its client and evictor thread are closed on shutdown.
+ */
+public final class PooledHttpClientFactory {
+
+    private PooledHttpClientFactory() {
+    }
+
+    public static HttpComponentsClientHttpRequestFactory create(
+            String name,
+            HttpClientPoolSettings settings,
+            MeterRegistry meterRegistry) {
+        Timer acquireTimer = Timer.builder("httpcomponents.httpclient.pool.acquire")
+                .description("Time spent waiting to lease a pooled connection")
+                .tag("httpclient", name)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        PoolingHttpClientConnectionManager connectionManager = new TimedConnectionManager(acquireTimer);
+        connectionManager.setMaxTotal(settings.maxTotal());
+        connectionManager.setDefaultMaxPerRoute(settings.maxPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(toTimeout(settings.connectTimeout()))
+                .setSocketTimeout(toTimeout(settings.responseTimeout()))
+                .setValidateAfterInactivity(toTimeValue(settings.validateAfterInactivity()))
+                .build());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name, List.<Tag>of())
+                .bindTo(meterRegistry);
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(toTimeout(settings.connectionRequestTimeout()))
+                        .setResponseTimeout(toTimeout(settings.responseTimeout()))
+                        .build())
+                .setKeepAliveStrategy(cappedKeepAlive(toTimeValue(settings.keepAlive())))
+                .evictExpiredConnections()
+                .evictIdleConnections(toTimeValue(settings.idleEviction()))
+                .build();
+        return new HttpComponentsClientHttpRequestFactory(httpClient);
+    }
+
+    // Honours a shorter Keep-Alive header from the server, otherwise reuses for at most keepAlive.
+    private static ConnectionKeepAliveStrategy cappedKeepAlive(TimeValue keepAlive) {
+        return (response, context) -> {
+            TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return TimeValue.isPositive(advertised) && advertised.compareTo(keepAlive) < 0 ? advertised : keepAlive;
+        };
+    }
+
+    private static Timeout toTimeout(Duration duration) {
+        return Timeout.ofMilliseconds(duration.toMillis());
+    }
+
+    private static TimeValue toTimeValue(Duration duration) {
+        return TimeValue.ofMilliseconds(duration.toMillis());
+    }
+
+    private static final class TimedConnectionManager extends PoolingHttpClientConnectionManager {
+        private final Timer acquireTimer;
+
+        private TimedConnectionManager(Timer acquireTimer) {
+            this.acquireTimer = acquireTimer;
+        }
+
+        @Override
+        public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+            LeaseRequest leaseRequest = super.lease(id, route, requestTimeout, state);
+            return new LeaseRequest() {
+                @Override
+                public ConnectionEndpoint get(Timeout timeout)
+                        throws InterruptedException, ExecutionException, TimeoutException {
+                    long startedAt = System.nanoTime();
+                    try {
+                        return leaseRequest.get(timeout);
+                    } finally {
+                        acquireTimer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return leaseRequest.cancel();
+                }
+            };
+        }
+    }
+}
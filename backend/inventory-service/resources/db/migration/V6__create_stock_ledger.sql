@@ -0,0 +1,31 @@
+CREATE TABLE stock_movements (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    movement_type VARCHAR(20) NOT NULL, -- OPENING, ADD, SET, RESERVE, RELEASE, CONFIRM
+    available_delta INTEGER NOT NULL,
+    reserved_delta INTEGER NOT NULL,
+    order_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_stock_movements_product_id_id ON stock_movements(product_id, id);
+CREATE INDEX idx_stock_movements_created_at ON stock_movements(created_at);
+
+CREATE TABLE stock_snapshots (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    available_stock INTEGER NOT NULL,
+    reserved_stock INTEGER NOT NULL,
+    last_movement_id BIGINT NOT NULL,
+    as_of TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_stock_snapshots_product_movement ON stock_snapshots(product_id, last_movement_id DESC);
+CREATE INDEX idx_stock_snapshots_product_as_of ON stock_snapshots(product_id, as_of DESC);
+CREATE INDEX idx_stock_snapshots_last_movement_id ON stock_snapshots(last_movement_id);
+
+-- Opening balances so ledger totals match the counters that existed before the ledger.
+INSERT INTO stock_movements (product_id, movement_type, available_delta, reserved_delta)
+SELECT product_id, 'OPENING', available_stock, reserved_stock
+FROM inventory;
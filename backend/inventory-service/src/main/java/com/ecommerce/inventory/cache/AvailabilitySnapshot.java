@@ -0,0 +1,131 @@
+package com.ecommerce.inventory.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory view of available stock per product, used to serve storefront batch lookups
+ * without touching the rows that reservations lock. Entries are loaded on demand and
+ * evicted when a stock-changed event (or a local commit) reports a new value. A value loaded
+ * from the database is only kept if its product was not evicted while the load was running,
+ * since the load may have read the row before the change that caused the eviction.
+ */
+@Component
+public class AvailabilitySnapshot {
+
+    private static final int MISSING = Integer.MIN_VALUE;
+    private static final int EVICTION_STRIPES = 4096;
+
+    private final LongIntHashMap availableByProductId;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Sequence number of the latest eviction in each stripe of product ids; guarded by the lock.
+    private final long[] lastEvictionByStripe = new long[EVICTION_STRIPES];
+    private long evictions;
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+
+    public AvailabilitySnapshot(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.availability-snapshot.max-entries:100000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.availableByProductId = new LongIntHashMap(Math.min(maxEntries, 1024), MISSING);
+        this.hits = Counter.builder("inventory.availability.snapshot.lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("inventory.availability.snapshot.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("inventory.availability.snapshot.size", this, AvailabilitySnapshot::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copies cached values for the requested products into {@code target} and returns the
+     * ids that still have to be loaded from the database.
+     */
+    public List<Long> lookup(Collection<Long> productIds, Map<Long, Integer> target) {
+        List<Long> missingIds = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Long productId : productIds) {
+                int available = availableByProductId.get(productId);
+                if (available == MISSING) {
+                    missingIds.add(productId);
+                } else {
+                    target.put(productId, available);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.increment(productIds.size() - missingIds.size());
+        misses.increment(missingIds.size());
+        return missingIds;
+    }
+
+    /**
+     * Call before reading values from the database, and hand the result to {@link #putAll}.
+     */
+    public long beginLoad() {
+        lock.readLock().lock();
+        try {
+            return evictions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Caches values read by a load that started at {@code loadStartedAt}, skipping products that
+     * may have been evicted since: those are read from the database again on the next lookup.
+     */
+    public void putAll(Map<Long, Integer> availableStock, long loadStartedAt) {
+        lock.writeLock().lock();
+        try {
+            if (availableByProductId.size() + availableStock.size() > maxEntries) {
+                availableByProductId.clear();
+            }
+            availableStock.forEach((productId, available) -> {
+                if (lastEvictionByStripe[stripe(productId)] <= loadStartedAt) {
+                    availableByProductId.put(productId, available);
+                }
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void evict(long productId) {
+        lock.writeLock().lock();
+        try {
+            availableByProductId.remove(productId);
+            lastEvictionByStripe[stripe(productId)] = ++evictions;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return availableByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static int stripe(long productId) {
+        return Long.hashCode(productId) & (EVICTION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,156 @@
+package com.ecommerce.inventory.cache;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing long -> int map with linear probing. Avoids boxing product ids and stock
+ * values on the hot read path. Not thread-safe; callers guard access externally.
+ */
+final class LongIntHashMap {
+
+    private static final long EMPTY_KEY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private final int missingValue;
+    private long[] keys;
+    private int[] values;
+    private boolean hasZeroKey;
+    private int zeroValue;
+    private int size;
+    private int mask;
+
+    LongIntHashMap(int expectedSize, int missingValue) {
+        this.missingValue = missingValue;
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    int get(long key) {
+        if (key == EMPTY_KEY) {
+            return hasZeroKey ? zeroValue : missingValue;
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                return missingValue;
+            }
+            if (current == key) {
+                return values[index];
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    void put(long key, int value) {
+        if (key == EMPTY_KEY) {
+            if (!hasZeroKey) {
+                size++;
+            }
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > keys.length * LOAD_FACTOR) {
+                    rehash(keys.length << 1);
+                }
+                return;
+            }
+            if (current == key) {
+                values[index] = value;
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    void remove(long key) {
+        if (key == EMPTY_KEY) {
+            if (hasZeroKey) {
+                hasZeroKey = false;
+                size--;
+            }
+            return;
+        }
+        int index = indexFor(key);
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                return;
+            }
+            if (current == key) {
+                size--;
+                shiftKeysBack(index);
+                return;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY_KEY);
+        hasZeroKey = false;
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones.
+    private void shiftKeysBack(int slot) {
+        int gap = slot;
+        int index = (gap + 1) & mask;
+        while (true) {
+            long current = keys[index];
+            if (current == EMPTY_KEY) {
+                keys[gap] = EMPTY_KEY;
+                return;
+            }
+            int home = indexFor(current);
+            boolean movable = gap <= index
+                    ? home <= gap || home > index
+                    : home <= gap && home > index;
+            if (movable) {
+                keys[gap] = current;
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY_KEY) {
+                int index = indexFor(key);
+                while (keys[index] != EMPTY_KEY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    private int indexFor(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.inventory.contention;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code GET /actuator/lockcontention}: the most contended products in the current window.
+ */
+@Component
+@Endpoint(id = "lockcontention")
+public class LockContentionEndpoint {
+
+    @Autowired
+    private LockContentionProfiler lockContentionProfiler;
+
+    @ReadOperation
+    public List<ProductContention> topContended() {
+        return lockContentionProfiler.topContended();
+    }
+}
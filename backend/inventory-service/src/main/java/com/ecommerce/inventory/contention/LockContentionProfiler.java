@@ -0,0 +1,234 @@
+package com.ecommerce.inventory.contention;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Records row-lock wait and hold time per product over a rolling window (the current and the
+ * previous bucket) and keeps the top-K most contended products. Per-product figures are served
+ * by the {@code lockcontention} actuator endpoint; Micrometer only sees fixed rank slots so
+ * metric cardinality stays at K no matter how many products are touched.
+ */
+@Component
+public class LockContentionProfiler {
+
+    private final int topK;
+    private final int maxTrackedProducts;
+    private final LongSupplier nanoClock;
+    private final Timer lockWait;
+    private final Timer lockHold;
+    private final Counter untracked;
+    private final AtomicReferenceArray<ProductContention> ranking;
+    private final AtomicLongArray rankedProductIds;
+
+    private volatile Map<Long, Stats> current = new ConcurrentHashMap<>();
+    private volatile Map<Long, Stats> previous = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LockContentionProfiler(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.contention.top-k:10}") int topK,
+            @Value("${inventory.contention.max-tracked-products:10000}") int maxTrackedProducts) {
+        this(meterRegistry, topK, maxTrackedProducts, System::nanoTime);
+    }
+
+    LockContentionProfiler(MeterRegistry meterRegistry, int topK, int maxTrackedProducts, LongSupplier nanoClock) {
+        this.topK = topK;
+        this.maxTrackedProducts = maxTrackedProducts;
+        this.nanoClock = nanoClock;
+        this.lockWait = Timer.builder("inventory.lock.wait")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.lockHold = Timer.builder("inventory.lock.hold")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.untracked = Counter.builder("inventory.lock.contention.untracked")
+                .register(meterRegistry);
+        this.ranking = new AtomicReferenceArray<>(topK);
+        this.rankedProductIds = new AtomicLongArray(topK);
+
+        for (int i = 0; i < topK; i++) {
+            int slot = i;
+            String rank = String.valueOf(i + 1);
+            Gauge.builder("inventory.lock.contention.top.product", rankedProductIds, ids -> ids.get(slot))
+                    .tag("rank", rank)
+                    .register(meterRegistry);
+            Gauge.builder("inventory.lock.contention.top.wait", ranking, r -> waitSeconds(r.get(slot)))
+                    .tag("rank", rank)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Runs a locking load and records how long it waited for the row lock. Hold time is
+     * recorded when the surrounding transaction completes and releases the lock.
+     */
+    public <T> T timeLockedLoad(long productId, Supplier<T> lockedLoad) {
+        long start = nanoClock.getAsLong();
+        T result = lockedLoad.get();
+        recordAcquired(List.of(productId), start, nanoClock.getAsLong());
+        return result;
+    }
+
+    /**
+     * Runs the flush that sends an optimistic mutation's versioned UPDATEs, which is where their
+     * row locks are taken, and records its duration as the lock wait of every product it touched:
+     * the UPDATEs go out as one batch, so the wait cannot be split between rows. Hold time is
+     * recorded as for a locked load.
+     */
+    public void timeOptimisticFlush(Collection<Long> productIds, Runnable flush) {
+        long start = nanoClock.getAsLong();
+        flush.run();
+        recordAcquired(new LinkedHashSet<>(productIds), start, nanoClock.getAsLong());
+    }
+
+    public void recordOptimisticConflict(Iterable<Long> productIds) {
+        for (Long productId : productIds) {
+            Stats stats = statsFor(productId);
+            if (stats != null) {
+                stats.conflicts.increment();
+            }
+        }
+    }
+
+    /**
+     * Most contended products in the rolling window, ordered by total lock wait and then by
+     * optimistic conflicts.
+     */
+    public List<ProductContention> topContended() {
+        Map<Long, ProductContention> merged = new HashMap<>();
+        merge(previous, merged);
+        merge(current, merged);
+
+        Comparator<ProductContention> byContention = Comparator
+                .comparingDouble(ProductContention::totalWaitMs)
+                .thenComparingLong(ProductContention::optimisticConflicts);
+        PriorityQueue<ProductContention> heap = new PriorityQueue<>(topK + 1, byContention);
+        for (ProductContention candidate : merged.values()) {
+            heap.offer(candidate);
+            if (heap.size() > topK) {
+                heap.poll();
+            }
+        }
+
+        List<ProductContention> top = new ArrayList<>(heap);
+        top.sort(byContention.reversed());
+        return top;
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.contention.window-ms:60000}")
+    public void rotateWindow() {
+        previous = current;
+        current = new ConcurrentHashMap<>();
+        refreshRanking();
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.contention.ranking-refresh-ms:10000}")
+    public void refreshRanking() {
+        List<ProductContention> top = topContended();
+        for (int i = 0; i < topK; i++) {
+            ProductContention entry = i < top.size() ? top.get(i) : null;
+            ranking.set(i, entry);
+            rankedProductIds.set(i, entry != null ? entry.productId() : 0L);
+        }
+    }
+
+    private void recordAcquired(Collection<Long> productIds, long start, long acquiredAt) {
+        long waitNanos = acquiredAt - start;
+        lockWait.record(waitNanos, TimeUnit.NANOSECONDS);
+        for (Long productId : productIds) {
+            Stats stats = statsFor(productId);
+            if (stats != null) {
+                stats.acquisitions.increment();
+                stats.waitNanos.add(waitNanos);
+                stats.maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+            }
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    long holdNanos = nanoClock.getAsLong() - acquiredAt;
+                    lockHold.record(holdNanos, TimeUnit.NANOSECONDS);
+                    productIds.forEach(productId -> recordHold(productId, holdNanos));
+                }
+            });
+        }
+    }
+
+    private void recordHold(long productId, long holdNanos) {
+        Stats stats = statsFor(productId);
+        if (stats != null) {
+            stats.holdNanos.add(holdNanos);
+            stats.maxHoldNanos.accumulateAndGet(holdNanos, Math::max);
+        }
+    }
+
+    private Stats statsFor(long productId) {
+        Map<Long, Stats> window = current;
+        Stats stats = window.get(productId);
+        if (stats != null) {
+            return stats;
+        }
+        if (window.size() >= maxTrackedProducts) {
+            untracked.increment();
+            return null;
+        }
+        return window.computeIfAbsent(productId, id -> new Stats());
+    }
+
+    private void merge(Map<Long, Stats> window, Map<Long, ProductContention> target) {
+        window.forEach((productId, stats) -> target.merge(productId, stats.toContention(productId), ProductContention::plus));
+    }
+
+    private static double waitSeconds(ProductContention contention) {
+        return contention != null ? contention.totalWaitMs() / 1000.0 : 0.0;
+    }
+
+    private static final class Stats {
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder holdNanos = new LongAdder();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong maxHoldNanos = new AtomicLong();
+
+        private ProductContention toContention(long productId) {
+            return new ProductContention(
+                    productId,
+                    acquisitions.sum(),
+                    conflicts.sum(),
+                    waitNanos.sum() / 1_000_000.0,
+                    maxWaitNanos.get() / 1_000_000.0,
+                    holdNanos.sum() / 1_000_000.0,
+                    maxHoldNanos.get() / 1_000_000.0);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.ecommerce.inventory.contention;
+
+public record ProductContention(
+        long productId,
+        long lockAcquisitions,
+        long optimisticConflicts,
+        double totalWaitMs,
+        double maxWaitMs,
+        double totalHoldMs,
+        double maxHoldMs) {
+
+    ProductContention plus(ProductContention other) {
+        return new ProductContention(
+                productId,
+                lockAcquisitions + other.lockAcquisitions,
+                optimisticConflicts + other.optimisticConflicts,
+                totalWaitMs + other.totalWaitMs,
+                Math.max(maxWaitMs, other.maxWaitMs),
+                totalHoldMs + other.totalHoldMs,
+                Math.max(maxHoldMs, other.maxHoldMs));
+    }
+}
@@ -1,16 +1,28 @@
 package com.ecommerce.inventory.controller;
 
+import com.ecommerce.inventory.dto.BulkStockImportResponse;
 import com.ecommerce.inventory.dto.ReservationRequest;
+import com.ecommerce.inventory.dto.StockBalanceResponse;
+import com.ecommerce.inventory.dto.StockImportMode;
 import com.ecommerce.inventory.dto.StockRequest;
+import com.ecommerce.inventory.service.BulkStockImportService;
 import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.StockLedgerService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +34,12 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private BulkStockImportService bulkStockImportService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
     @PostMapping("/add")
     public ResponseEntity<Void> addStock(@Valid @RequestBody StockRequest request) {
         inventoryService.addStock(request);
@@ -34,6 +52,15 @@ public class InventoryController {
         return ResponseEntity.ok().build();
     }
 
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<BulkStockImportResponse> bulkImport(
+            @RequestParam(defaultValue = "SET") StockImportMode mode,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        boolean ndjson = contentType.contains("ndjson");
+        return ResponseEntity.ok(bulkStockImportService.importStock(body, ndjson, mode));
+    }
+
     @PostMapping("/reserve")
     public ResponseEntity<Void> reserveStock(@Valid @RequestBody ReservationRequest request) {
         inventoryService.reserveStock(request);
@@ -56,4 +83,27 @@ public class InventoryController {
     public ResponseEntity<Map<Long, Integer>> getBatchStock(@RequestBody @NotEmpty List<@Positive Long> productIds) {
         return ResponseEntity.ok(inventoryService.getBatchStock(productIds));
     }
+
+    @GetMapping(value = "/{productId}/movements", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> getMovements(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        StreamingResponseBody body = out -> stockLedgerService.streamMovements(productId, from, to, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    @GetMapping("/{productId}/balance")
+    public ResponseEntity<StockBalanceResponse> getBalance(
+            @PathVariable Long productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(stockLedgerService.balanceAt(productId, at));
+    }
+
+    @PostMapping("/{productId}/rebuild")
+    public ResponseEntity<StockBalanceResponse> rebuildFromLedger(@PathVariable Long productId) {
+        return ResponseEntity.ok(inventoryService.rebuildFromLedger(productId));
+    }
 }
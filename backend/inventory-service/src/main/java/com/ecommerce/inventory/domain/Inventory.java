@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class Inventory {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_id_seq")
+    @SequenceGenerator(name = "inventory_id_seq", sequenceName = "inventory_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "product_id", nullable = false, unique = true)
@@ -32,6 +33,10 @@ public class Inventory {
     @Column(name = "last_updated")
     private LocalDateTime lastUpdated;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     @PreUpdate
     protected void onUpdate() {
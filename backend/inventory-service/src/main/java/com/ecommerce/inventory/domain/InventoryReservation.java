@@ -17,7 +17,8 @@ import java.time.LocalDateTime;
 public class InventoryReservation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_reservations_id_seq")
+    @SequenceGenerator(name = "inventory_reservations_id_seq", sequenceName = "inventory_reservations_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", nullable = false)
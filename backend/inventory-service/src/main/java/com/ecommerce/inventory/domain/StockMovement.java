@@ -0,0 +1,45 @@
+package com.ecommerce.inventory.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_movements")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "movement_type", nullable = false)
+    private String movementType; // OPENING, ADD, SET, RESERVE, RELEASE, CONFIRM
+
+    @Column(name = "available_delta", nullable = false)
+    private Integer availableDelta;
+
+    @Column(name = "reserved_delta", nullable = false)
+    private Integer reservedDelta;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
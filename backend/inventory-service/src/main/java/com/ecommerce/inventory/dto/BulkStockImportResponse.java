@@ -0,0 +1,10 @@
+package com.ecommerce.inventory.dto;
+
+import java.util.List;
+
+public record BulkStockImportResponse(
+        long totalRows,
+        long appliedRows,
+        long failedRows,
+        List<StockImportRowError> errors) {
+}
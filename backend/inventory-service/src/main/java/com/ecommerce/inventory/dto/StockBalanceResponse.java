@@ -0,0 +1,10 @@
+package com.ecommerce.inventory.dto;
+
+import java.time.LocalDateTime;
+
+public record StockBalanceResponse(
+        Long productId,
+        int availableStock,
+        int reservedStock,
+        LocalDateTime asOf) {
+}
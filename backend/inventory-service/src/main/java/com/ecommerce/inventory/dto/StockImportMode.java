@@ -0,0 +1,6 @@
+package com.ecommerce.inventory.dto;
+
+public enum StockImportMode {
+    SET,
+    ADD
+}
@@ -0,0 +1,4 @@
+package com.ecommerce.inventory.dto;
+
+public record StockImportRowError(long line, String message) {
+}
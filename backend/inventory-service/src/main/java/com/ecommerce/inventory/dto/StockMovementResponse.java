@@ -0,0 +1,13 @@
+package com.ecommerce.inventory.dto;
+
+import java.time.LocalDateTime;
+
+public record StockMovementResponse(
+        Long id,
+        Long productId,
+        String movementType,
+        int availableDelta,
+        int reservedDelta,
+        Long orderId,
+        LocalDateTime createdAt) {
+}
@@ -25,6 +25,10 @@ public class InventoryConsumer {
     public void handleOrderCreated(OrderCreatedEvent event) {
         String eventKey = "order-created:" + event.orderId();
         if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
+            // The order service re-sends order-created while it has not heard back; answer it again.
+            if (inventoryService.isReserved(event.orderId())) {
+                inventoryProducer.publishInventoryReserved(event.orderId(), event.totalAmount());
+            }
             return;
         }
         logger.info("Inventory service received order-created for order {}", event.orderId());
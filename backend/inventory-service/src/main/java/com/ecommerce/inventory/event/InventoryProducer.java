@@ -14,6 +14,7 @@ public class InventoryProducer {
 
     private static final String TOPIC_INVENTORY_RESERVED = "inventory-reserved";
     private static final String TOPIC_INVENTORY_FAILED = "inventory-failed";
+    private static final String TOPIC_STOCK_CHANGED = "stock-changed";
 
     public void publishInventoryReserved(Long orderId, BigDecimal totalAmount) {
         InventoryReservedEvent event = new InventoryReservedEvent(orderId, totalAmount);
@@ -32,4 +33,13 @@ public class InventoryProducer {
                 TOPIC_INVENTORY_FAILED,
                 event);
     }
+
+    public void publishStockChanged(Long productId, Integer availableStock) {
+        StockChangedEvent event = new StockChangedEvent(productId, availableStock);
+        outboxService.enqueue(
+                TOPIC_STOCK_CHANGED,
+                Objects.requireNonNull(productId.toString()),
+                TOPIC_STOCK_CHANGED,
+                event);
+    }
 }
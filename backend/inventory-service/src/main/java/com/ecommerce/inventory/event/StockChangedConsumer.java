@@ -0,0 +1,29 @@
+package com.ecommerce.inventory.event;
+
+import com.ecommerce.inventory.cache.AvailabilitySnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.stereotype.Component;
+
+@Component
+public class StockChangedConsumer {
+
+    @Autowired
+    private AvailabilitySnapshot availabilitySnapshot;
+
+    // Every instance keeps its own snapshot, so each one reads every partition, without a consumer
+    // group. It starts from the end: the snapshot starts empty, so earlier changes do not matter.
+    @KafkaListener(
+            topicPartitions = @TopicPartition(
+                    topic = "stock-changed",
+                    partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0", relativeToCurrent = "true")),
+            containerFactory = "availabilitySnapshotContainerFactory")
+    public void handleStockChanged(StockChangedEvent event) {
+        if (event.productId() == null) {
+            return;
+        }
+        availabilitySnapshot.evict(event.productId());
+    }
+}
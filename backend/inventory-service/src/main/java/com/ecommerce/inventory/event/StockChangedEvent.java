@@ -0,0 +1,3 @@
+package com.ecommerce.inventory.event;
+
+public record StockChangedEvent(Long productId, Integer availableStock) {}
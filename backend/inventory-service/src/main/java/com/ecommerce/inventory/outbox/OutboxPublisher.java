@@ -3,6 +3,7 @@ package com.ecommerce.inventory.outbox;
 import com.ecommerce.common.event.EventContractVersions;
 import com.ecommerce.inventory.event.InventoryFailedEvent;
 import com.ecommerce.inventory.event.InventoryReservedEvent;
+import com.ecommerce.inventory.event.StockChangedEvent;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.TraceContext;
@@ -123,6 +124,7 @@ public class OutboxPublisher {
         return switch (eventType) {
             case "inventory-reserved" -> objectMapper.readValue(payload, InventoryReservedEvent.class);
             case "inventory-failed" -> objectMapper.readValue(payload, InventoryFailedEvent.class);
+            case "stock-changed" -> objectMapper.readValue(payload, StockChangedEvent.class);
             default -> throw new IllegalArgumentException("Unknown event type: " + eventType);
         };
     }
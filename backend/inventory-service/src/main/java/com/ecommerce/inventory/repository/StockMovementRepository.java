@@ -0,0 +1,9 @@
+package com.ecommerce.inventory.repository;
+
+import com.ecommerce.inventory.domain.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.inventory.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Chooses optimistic or pessimistic locking per product. Every product starts optimistic; one
+ * whose recent optimistic attempts conflict too often is switched to {@code SELECT ... FOR UPDATE}
+ * for a hold period and then given another optimistic chance.
+ */
+@Component
+public class AdaptiveLockPolicy {
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveLockPolicy.class);
+
+    private final Map<Long, ProductStats> statsByProductId = new ConcurrentHashMap<>();
+    private final double conflictRateThreshold;
+    private final int minSamples;
+    private final long pessimisticHoldNanos;
+    private final int maxTrackedProducts;
+    private final LongSupplier nanoClock;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter switchesToPessimistic;
+    private final Counter switchesToOptimistic;
+
+    @Autowired
+    public AdaptiveLockPolicy(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.locking.conflict-rate-threshold:0.2}") double conflictRateThreshold,
+            @Value("${inventory.locking.min-samples:20}") int minSamples,
+            @Value("${inventory.locking.pessimistic-hold-ms:300000}") long pessimisticHoldMs,
+            @Value("${inventory.locking.max-tracked-products:10000}") int maxTrackedProducts) {
+        this(meterRegistry, conflictRateThreshold, minSamples, pessimisticHoldMs, maxTrackedProducts, System::nanoTime);
+    }
+
+    AdaptiveLockPolicy(
+            MeterRegistry meterRegistry,
+            double conflictRateThreshold,
+            int minSamples,
+            long pessimisticHoldMs,
+            int maxTrackedProducts,
+            LongSupplier nanoClock) {
+        this.conflictRateThreshold = conflictRateThreshold;
+        this.minSamples = minSamples;
+        this.pessimisticHoldNanos = pessimisticHoldMs * 1_000_000L;
+        this.maxTrackedProducts = maxTrackedProducts;
+        this.nanoClock = nanoClock;
+        this.conflicts = Counter.builder("inventory.lock.optimistic.conflicts")
+                .register(meterRegistry);
+        this.retries = Counter.builder("inventory.lock.optimistic.retries")
+                .register(meterRegistry);
+        this.switchesToPessimistic = Counter.builder("inventory.lock.mode.switches")
+                .tag("to", "pessimistic")
+                .register(meterRegistry);
+        this.switchesToOptimistic = Counter.builder("inventory.lock.mode.switches")
+                .tag("to", "optimistic")
+                .register(meterRegistry);
+        Gauge.builder("inventory.lock.pessimistic.products", this, AdaptiveLockPolicy::pessimisticCount)
+                .register(meterRegistry);
+    }
+
+    public boolean isPessimistic(long productId) {
+        ProductStats stats = statsByProductId.get(productId);
+        if (stats == null) {
+            return false;
+        }
+        synchronized (stats) {
+            if (stats.pessimisticUntil == 0) {
+                return false;
+            }
+            if (nanoClock.getAsLong() - stats.pessimisticUntil < 0) {
+                return true;
+            }
+            stats.pessimisticUntil = 0;
+            stats.attempts = 0;
+            stats.conflicts = 0;
+        }
+        switchesToOptimistic.increment();
+        logger.info("Inventory locking for product {} switched back to optimistic", productId);
+        return false;
+    }
+
+    /**
+     * Records the outcome of an optimistic attempt that touched {@code productIds}. A conflict is
+     * attributed to every product in the attempt since the failing row is not reported reliably.
+     */
+    public void recordOptimisticAttempt(Collection<Long> productIds, boolean conflicted) {
+        if (conflicted) {
+            conflicts.increment();
+        }
+        for (Long productId : productIds) {
+            ProductStats stats = statsFor(productId, conflicted);
+            if (stats == null) {
+                continue;
+            }
+            boolean switched = false;
+            synchronized (stats) {
+                if (stats.pessimisticUntil != 0) {
+                    continue;
+                }
+                stats.attempts++;
+                if (conflicted) {
+                    stats.conflicts++;
+                }
+                if (stats.attempts >= minSamples
+                        && (double) stats.conflicts / stats.attempts >= conflictRateThreshold) {
+                    // Never store 0 here: it marks the optimistic state.
+                    stats.pessimisticUntil = (nanoClock.getAsLong() + pessimisticHoldNanos) | 1L;
+                    switched = true;
+                } else if (stats.attempts >= minSamples * 4) {
+                    // Halve the window so old traffic fades out.
+                    stats.attempts /= 2;
+                    stats.conflicts /= 2;
+                }
+            }
+            if (switched) {
+                switchesToPessimistic.increment();
+                logger.warn("Inventory locking for product {} switched to pessimistic after repeated conflicts", productId);
+            }
+        }
+    }
+
+    public void recordRetry() {
+        retries.increment();
+    }
+
+    int pessimisticCount() {
+        int count = 0;
+        for (ProductStats stats : statsByProductId.values()) {
+            synchronized (stats) {
+                if (stats.pessimisticUntil != 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private ProductStats statsFor(Long productId, boolean conflicted) {
+        ProductStats stats = statsByProductId.get(productId);
+        if (stats != null) {
+            return stats;
+        }
+        // Only conflicting products are worth tracking; the conflict-free majority of the catalog stays untracked.
+        if (!conflicted) {
+            return null;
+        }
+        if (statsByProductId.size() >= maxTrackedProducts) {
+            statsByProductId.values().removeIf(candidate -> {
+                synchronized (candidate) {
+                    return candidate.pessimisticUntil == 0;
+                }
+            });
+        }
+        return statsByProductId.computeIfAbsent(productId, id -> new ProductStats());
+    }
+
+    private static final class ProductStats {
+        private int attempts;
+        private int conflicts;
+        private long pessimisticUntil;
+    }
+}
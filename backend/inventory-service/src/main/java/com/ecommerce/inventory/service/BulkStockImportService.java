@@ -0,0 +1,290 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.cache.AvailabilitySnapshot;
+import com.ecommerce.inventory.dto.BulkStockImportResponse;
+import com.ecommerce.inventory.dto.StockImportMode;
+import com.ecommerce.inventory.dto.StockImportRowError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies warehouse stock feeds (CSV or NDJSON) in chunks. Each chunk is sorted by product id,
+ * collapsed to one row per product, copied into a session-local staging table and merged into
+ * {@code inventory} with a single upsert that also writes the matching ledger and stock-changed outbox rows.
+ */
+@Service
+public class BulkStockImportService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkStockImportService.class);
+
+    static final String CHUNK_UNAVAILABLE = "Chunk rejected: database temporarily unavailable, resubmit these rows";
+    static final String CHUNK_OUT_OF_RANGE = "Chunk rejected: resulting stock is out of range";
+    static final String CHUNK_FAILED = "Chunk rejected: internal error";
+
+    private static final String CREATE_STAGING_TABLE = """
+            CREATE TEMP TABLE IF NOT EXISTS inventory_import_staging (
+                product_id BIGINT NOT NULL,
+                quantity INTEGER NOT NULL
+            ) ON COMMIT DELETE ROWS
+            """;
+
+    private static final String COPY_INTO_STAGING =
+            "COPY inventory_import_staging (product_id, quantity) FROM STDIN WITH (FORMAT csv)";
+
+    // Locks existing rows up front so the merge below reads committed pre-import values for the ledger.
+    private static final String LOCK_EXISTING_ROWS = """
+            SELECT product_id
+            FROM inventory
+            WHERE product_id IN (SELECT product_id FROM inventory_import_staging)
+            ORDER BY product_id
+            FOR UPDATE
+            """;
+
+    private static final String MERGE_TEMPLATE = """
+            WITH previous AS (
+                SELECT s.product_id, COALESCE(i.available_stock, 0) AS available_stock
+                FROM inventory_import_staging s
+                LEFT JOIN inventory i ON i.product_id = s.product_id
+            ),
+            merged AS (
+                INSERT INTO inventory (product_id, available_stock, reserved_stock, last_updated)
+                SELECT product_id, quantity, 0, CURRENT_TIMESTAMP
+                FROM inventory_import_staging
+                ORDER BY product_id
+                ON CONFLICT (product_id) DO UPDATE
+                    SET available_stock = %s,
+                        version = inventory.version + 1,
+                        last_updated = EXCLUDED.last_updated
+                RETURNING product_id, available_stock
+            ),
+            movements AS (
+                INSERT INTO stock_movements (product_id, movement_type, available_delta, reserved_delta, created_at)
+                SELECT merged.product_id,
+                       '%s',
+                       merged.available_stock - previous.available_stock,
+                       0,
+                       CURRENT_TIMESTAMP
+                FROM merged
+                JOIN previous ON previous.product_id = merged.product_id
+            )
+            INSERT INTO outbox_events (event_key, topic, aggregate_key, event_type, payload, status, attempt_count,
+                                       created_at, updated_at, trace_id, parent_span_id, trace_sampled)
+            SELECT 'stock-changed:' || product_id || ':' || gen_random_uuid(),
+                   'stock-changed',
+                   product_id::text,
+                   'stock-changed',
+                   json_build_object('productId', product_id, 'availableStock', available_stock)::text,
+                   'PENDING',
+                   0,
+                   CURRENT_TIMESTAMP,
+                   CURRENT_TIMESTAMP,
+                   CAST(? AS VARCHAR),
+                   CAST(? AS VARCHAR),
+                   CAST(? AS BOOLEAN)
+            FROM merged
+            """;
+
+    private static final String MERGE_SET = MERGE_TEMPLATE.formatted("EXCLUDED.available_stock", "SET");
+    private static final String MERGE_ADD = MERGE_TEMPLATE.formatted(
+            "inventory.available_stock + EXCLUDED.available_stock", "ADD");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AvailabilitySnapshot availabilitySnapshot;
+
+    @Autowired
+    private Tracer tracer;
+
+    @Value("${inventory.bulk-import.chunk-size:5000}")
+    private int chunkSize;
+
+    public BulkStockImportResponse importStock(InputStream body, boolean ndjson, StockImportMode mode)
+            throws IOException {
+        List<StockImportRowError> errors = new ArrayList<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long totalRows = 0;
+        long appliedRows = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (!ndjson && lineNumber == 1 && isCsvHeader(line))) {
+                    continue;
+                }
+                totalRows++;
+                try {
+                    chunk.add(ndjson ? parseNdjson(line, lineNumber) : parseCsv(line, lineNumber));
+                } catch (IllegalArgumentException ex) {
+                    errors.add(new StockImportRowError(lineNumber, ex.getMessage()));
+                    continue;
+                }
+                if (chunk.size() >= chunkSize) {
+                    appliedRows += applyChunk(chunk, mode, errors);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            appliedRows += applyChunk(chunk, mode, errors);
+        }
+
+        logger.info("Bulk stock import finished. mode={}, rows={}, applied={}, failed={}",
+                mode, totalRows, appliedRows, errors.size());
+        return new BulkStockImportResponse(totalRows, appliedRows, errors.size(), errors);
+    }
+
+    private long applyChunk(List<ImportRow> chunk, StockImportMode mode, List<StockImportRowError> errors) {
+        // Sorted by product id so row locks are taken in the same order reservations use.
+        Map<Long, Integer> quantities = new TreeMap<>();
+        try {
+            for (ImportRow row : chunk) {
+                if (mode == StockImportMode.ADD) {
+                    quantities.merge(row.productId(), row.quantity(), Math::addExact);
+                } else {
+                    quantities.put(row.productId(), row.quantity());
+                }
+            }
+
+            // The outbox rows carry the import's trace context, as OutboxService.enqueue would set it.
+            Span currentSpan = tracer.currentSpan();
+            TraceContext traceContext = currentSpan != null ? currentSpan.context() : null;
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (Statement statement = connection.createStatement();
+                     PreparedStatement merge = connection.prepareStatement(
+                             mode == StockImportMode.ADD ? MERGE_ADD : MERGE_SET)) {
+                    statement.execute(CREATE_STAGING_TABLE);
+                    connection.unwrap(PGConnection.class)
+                            .getCopyAPI()
+                            .copyIn(COPY_INTO_STAGING, new StringReader(toCsv(quantities)));
+                    statement.execute(LOCK_EXISTING_ROWS);
+                    merge.setObject(1, traceContext != null ? traceContext.traceId() : null, Types.VARCHAR);
+                    merge.setObject(2, traceContext != null ? traceContext.spanId() : null, Types.VARCHAR);
+                    merge.setObject(3, traceContext != null ? traceContext.sampled() : null, Types.BOOLEAN);
+                    merge.executeUpdate();
+                } catch (IOException ex) {
+                    throw new IllegalStateException("Failed to stream chunk into staging table", ex);
+                }
+                return null;
+            }));
+        } catch (RuntimeException ex) {
+            logger.warn("Bulk stock import chunk rejected. firstLine={}, rows={}",
+                    chunk.get(0).line(), chunk.size(), ex);
+            String message = chunkError(ex);
+            chunk.forEach(row -> errors.add(new StockImportRowError(row.line(), message)));
+            return 0;
+        }
+
+        quantities.keySet().forEach(availabilitySnapshot::evict);
+        return chunk.size();
+    }
+
+    private ImportRow parseCsv(String line, long lineNumber) {
+        String[] columns = line.split(",", -1);
+        if (columns.length != 2) {
+            throw new IllegalArgumentException("Expected 2 columns (productId,quantity) but found " + columns.length);
+        }
+        return validate(lineNumber, parseNumber(columns[0].trim(), "productId"), parseNumber(columns[1].trim(), "quantity"));
+    }
+
+    private ImportRow parseNdjson(String line, long lineNumber) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalArgumentException("Malformed JSON");
+        }
+        JsonNode productId = node.get("productId");
+        JsonNode quantity = node.get("quantity");
+        if (productId == null || !productId.canConvertToLong()) {
+            throw new IllegalArgumentException("productId: must be an integer");
+        }
+        if (quantity == null || !quantity.canConvertToLong()) {
+            throw new IllegalArgumentException("quantity: must be an integer");
+        }
+        return validate(lineNumber, productId.asLong(), quantity.asLong());
+    }
+
+    private ImportRow validate(long lineNumber, long productId, long quantity) {
+        if (productId <= 0) {
+            throw new IllegalArgumentException("productId: must be greater than 0");
+        }
+        if (quantity < 0 || quantity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("quantity: must be between 0 and " + Integer.MAX_VALUE);
+        }
+        return new ImportRow(lineNumber, productId, (int) quantity);
+    }
+
+    private long parseNumber(String value, String field) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(field + ": must be an integer");
+        }
+    }
+
+    private boolean isCsvHeader(String line) {
+        return line.trim().toLowerCase().startsWith("productid");
+    }
+
+    private String toCsv(Map<Long, Integer> quantities) {
+        StringBuilder csv = new StringBuilder(quantities.size() * 16);
+        quantities.forEach((productId, quantity) -> csv.append(productId).append(',').append(quantity).append('\n'));
+        return csv.toString();
+    }
+
+    // The cause is logged, never reported: driver messages can carry SQL, hosts and constraint names.
+    private String chunkError(RuntimeException ex) {
+        if (ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException) {
+            return CHUNK_UNAVAILABLE;
+        }
+        if (ex instanceof ArithmeticException || ex instanceof DataIntegrityViolationException) {
+            return CHUNK_OUT_OF_RANGE;
+        }
+        return CHUNK_FAILED;
+    }
+
+    private record ImportRow(long line, long productId, int quantity) {
+    }
+}
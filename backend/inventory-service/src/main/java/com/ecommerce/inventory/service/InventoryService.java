@@ -2,18 +2,32 @@ package com.ecommerce.inventory.service;
 
 import com.ecommerce.common.exception.InsufficientStockException;
 import com.ecommerce.common.exception.InventoryNotFoundException;
+import com.ecommerce.inventory.cache.AvailabilitySnapshot;
+import com.ecommerce.inventory.contention.LockContentionProfiler;
 import com.ecommerce.inventory.domain.Inventory;
 import com.ecommerce.inventory.domain.InventoryReservation;
 import com.ecommerce.inventory.dto.ReservationRequest;
+import com.ecommerce.inventory.dto.StockBalanceResponse;
 import com.ecommerce.inventory.dto.StockRequest;
+import com.ecommerce.inventory.event.InventoryProducer;
 import com.ecommerce.inventory.repository.InventoryRepository;
 import com.ecommerce.inventory.repository.InventoryReservationRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 
 @Service
 public class InventoryService {
@@ -24,38 +38,206 @@ public class InventoryService {
     @Autowired
     private InventoryReservationRepository reservationRepository;
 
-    @Transactional
+    @Autowired
+    private InventoryProducer inventoryProducer;
+
+    @Autowired
+    private AvailabilitySnapshot availabilitySnapshot;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private AdaptiveLockPolicy lockPolicy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LockContentionProfiler lockContentionProfiler;
+
+    @Value("${inventory.locking.max-attempts:3}")
+    private int maxLockAttempts;
+
     public void addStock(StockRequest request) {
-        Inventory inventory = inventoryRepository.findByProductIdLocked(request.productId())
-                .orElse(Inventory.builder()
-                        .productId(request.productId())
-                        .availableStock(0)
-                        .reservedStock(0)
-                        .build());
+        executeStockMutation(touched -> {
+            Inventory inventory = loadForUpdate(request.productId(), touched)
+                    .orElse(Inventory.builder()
+                            .productId(request.productId())
+                            .availableStock(0)
+                            .reservedStock(0)
+                            .build());
 
-        inventory.setAvailableStock(inventory.getAvailableStock() + request.quantity());
-        inventoryRepository.save(inventory);
+            inventory.setAvailableStock(inventory.getAvailableStock() + request.quantity());
+            inventoryRepository.save(inventory);
+            stockLedgerService.record(request.productId(), "ADD", request.quantity(), 0, null);
+            publishStockChanged(inventory);
+            return null;
+        });
     }
 
-    @Transactional
     public void setStock(StockRequest request) {
-        Inventory inventory = inventoryRepository.findByProductIdLocked(request.productId())
-                .orElse(Inventory.builder()
-                        .productId(request.productId())
-                        .availableStock(0)
-                        .reservedStock(0)
-                        .build());
+        executeStockMutation(touched -> {
+            Inventory inventory = loadForUpdate(request.productId(), touched)
+                    .orElse(Inventory.builder()
+                            .productId(request.productId())
+                            .availableStock(0)
+                            .reservedStock(0)
+                            .build());
 
-        inventory.setAvailableStock(request.quantity());
-        inventoryRepository.save(inventory);
+            int previousAvailable = inventory.getAvailableStock();
+            inventory.setAvailableStock(request.quantity());
+            inventoryRepository.save(inventory);
+            stockLedgerService.record(request.productId(), "SET", request.quantity() - previousAvailable, 0, null);
+            publishStockChanged(inventory);
+            return null;
+        });
     }
 
-    @Transactional
     public void reserveStock(ReservationRequest request) {
-        // Pessimistic Lock to prevent overselling
-        Inventory inventory = inventoryRepository.findByProductIdLocked(request.productId())
+        executeStockMutation(touched -> {
+            applyReservation(request, touched);
+            return null;
+        });
+    }
+
+    public void confirmReservation(Long orderId) {
+        executeStockMutation(touched -> {
+            reservationRepository.findByOrderId(orderId).forEach(reservation -> {
+                if ("RESERVED".equals(reservation.getStatus())) {
+                    reservation.setStatus("CONFIRMED");
+                    reservationRepository.save(reservation);
+
+                    // Stock is already moved from available to reserved.
+                    // Confirming just finalizes the reservation state.
+                    // We might want to decrease reservedStock here if "Confirmed" means "Shipped",
+                    // but usually "Confirmed" means "Paid" and still holding stock.
+                    // For this logic: Confirmed means Permanently Reserved (Sold).
+                    Inventory inventory = loadForUpdate(reservation.getProductId(), touched)
+                            .orElseThrow();
+                    inventory.setReservedStock(inventory.getReservedStock() - reservation.getQuantity());
+                    // Technically stock is gone now, or we keep tracking 'Sold' stock if needed.
+                    // Reducing reservedStock implies it leaves the warehouse view we care about.
+                    // But wait, if we reduce reservedStock, the stock vanishes from DB counts.
+                    // That is correct for "shipped/sold" items.
+                    inventoryRepository.save(inventory);
+                    stockLedgerService.record(
+                            reservation.getProductId(), "CONFIRM", 0, -reservation.getQuantity(), orderId);
+                }
+            });
+            return null;
+        });
+    }
+
+    public void releaseReservation(Long orderId) {
+        executeStockMutation(touched -> {
+            reservationRepository.findByOrderId(orderId).forEach(reservation -> {
+                if ("RESERVED".equals(reservation.getStatus())) {
+                    reservation.setStatus("CANCELLED");
+                    reservationRepository.save(reservation);
+
+                    Inventory inventory = loadForUpdate(reservation.getProductId(), touched)
+                            .orElseThrow();
+
+                    inventory.setAvailableStock(inventory.getAvailableStock() + reservation.getQuantity());
+                    inventory.setReservedStock(inventory.getReservedStock() - reservation.getQuantity());
+                    inventoryRepository.save(inventory);
+                    stockLedgerService.record(reservation.getProductId(), "RELEASE",
+                            reservation.getQuantity(), -reservation.getQuantity(), orderId);
+                    publishStockChanged(inventory);
+                }
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Resets a product's counters to the balance recorded in the stock ledger.
+     */
+    @Transactional
+    public StockBalanceResponse rebuildFromLedger(Long productId) {
+        Inventory inventory = lockContentionProfiler
+                .timeLockedLoad(productId, () -> inventoryRepository.findByProductIdLocked(productId))
+                .orElseThrow(() -> new InventoryNotFoundException(productId));
+
+        StockBalanceResponse balance = stockLedgerService.balanceAt(productId, null);
+        inventory.setAvailableStock(balance.availableStock());
+        inventory.setReservedStock(balance.reservedStock());
+        inventoryRepository.save(inventory);
+        publishStockChanged(inventory);
+        return balance;
+    }
+
+    /**
+     * Whether stock was reserved for the order and has not been released since.
+     */
+    @Transactional(readOnly = true)
+    public boolean isReserved(Long orderId) {
+        List<InventoryReservation> reservations = reservationRepository.findByOrderId(orderId);
+        return !reservations.isEmpty()
+                && reservations.stream().noneMatch(reservation -> "CANCELLED".equals(reservation.getStatus()));
+    }
+
+    public void reserveOrderItems(Long orderId, java.util.List<com.ecommerce.inventory.event.OrderItemEvent> items) {
+        // Sort items by product ID to prevent deadlocks
+        List<ReservationRequest> requests = items.stream()
+                .sorted(java.util.Comparator.comparingLong(com.ecommerce.inventory.event.OrderItemEvent::productId))
+                .map(item -> new ReservationRequest(orderId, item.productId(), item.quantity()))
+                .toList();
+
+        executeStockMutation(touched -> {
+            // Load every row before writing anything: an inventory query auto-flushes pending writes,
+            // which would send each item's update and inserts as single statements instead of batches.
+            List<Inventory> inventories = new ArrayList<>(requests.size());
+            for (ReservationRequest request : requests) {
+                inventories.add(loadForUpdate(request.productId(), touched)
+                        .orElseThrow(() -> new InventoryNotFoundException(request.productId())));
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                takeStock(inventories.get(i), requests.get(i));
+            }
+            // Ledger rows keep IDENTITY ids and are inserted immediately, flushing any queued inserts,
+            // so they go first and the reservation and outbox inserts are left to batch at commit.
+            requests.forEach(this::recordReservedMovement);
+            for (int i = 0; i < requests.size(); i++) {
+                recordReservation(inventories.get(i), requests.get(i));
+            }
+            return null;
+        });
+    }
+
+    // Deliberately non-transactional: snapshot hits must not borrow a pooled connection.
+    public java.util.Map<Long, Integer> getBatchStock(java.util.List<Long> productIds) {
+        java.util.Map<Long, Integer> stockMap = new java.util.HashMap<>();
+        if (productIds == null || productIds.isEmpty()) return stockMap;
+
+        LinkedHashSet<Long> uniqueIds = new LinkedHashSet<>(productIds);
+        uniqueIds.remove(null);
+        List<Long> missingIds = availabilitySnapshot.lookup(uniqueIds, stockMap);
+        if (missingIds.isEmpty()) {
+            return stockMap;
+        }
+
+        long loadStartedAt = availabilitySnapshot.beginLoad();
+        java.util.Map<Long, Integer> loaded = new java.util.HashMap<>();
+        inventoryRepository.findAllByProductIdIn(missingIds).forEach(inv -> {
+            loaded.put(inv.getProductId(), inv.getAvailableStock());
+        });
+        availabilitySnapshot.putAll(loaded, loadStartedAt);
+        stockMap.putAll(loaded);
+        return stockMap;
+    }
+
+    private void applyReservation(ReservationRequest request, List<Long> touched) {
+        Inventory inventory = loadForUpdate(request.productId(), touched)
                 .orElseThrow(() -> new InventoryNotFoundException(request.productId()));
 
+        takeStock(inventory, request);
+        recordReservedMovement(request);
+        recordReservation(inventory, request);
+    }
+
+    private void takeStock(Inventory inventory, ReservationRequest request) {
         if (inventory.getAvailableStock() < request.quantity()) {
             throw new InsufficientStockException(
                     request.productId(),
@@ -66,6 +248,15 @@ public class InventoryService {
         inventory.setAvailableStock(inventory.getAvailableStock() - request.quantity());
         inventory.setReservedStock(inventory.getReservedStock() + request.quantity());
         inventoryRepository.save(inventory);
+    }
+
+    private void recordReservedMovement(ReservationRequest request) {
+        stockLedgerService.record(
+                request.productId(), "RESERVE", -request.quantity(), request.quantity(), request.orderId());
+    }
+
+    private void recordReservation(Inventory inventory, ReservationRequest request) {
+        publishStockChanged(inventory);
 
         InventoryReservation reservation = Objects.requireNonNull(
                 InventoryReservation.builder()
@@ -79,66 +270,61 @@ public class InventoryService {
         reservationRepository.save(reservation);
     }
 
-    @Transactional
-    public void confirmReservation(Long orderId) {
-        reservationRepository.findByOrderId(orderId).forEach(reservation -> {
-            if ("RESERVED".equals(reservation.getStatus())) {
-                reservation.setStatus("CONFIRMED");
-                reservationRepository.save(reservation);
-
-                // Stock is already moved from available to reserved.
-                // Confirming just finalizes the reservation state.
-                // We might want to decrease reservedStock here if "Confirmed" means "Shipped",
-                // but usually "Confirmed" means "Paid" and still holding stock.
-                // For this logic: Confirmed means Permanently Reserved (Sold).
-                Inventory inventory = inventoryRepository.findByProductIdLocked(reservation.getProductId())
-                        .orElseThrow();
-                inventory.setReservedStock(inventory.getReservedStock() - reservation.getQuantity());
-                // Technically stock is gone now, or we keep tracking 'Sold' stock if needed.
-                // Reducing reservedStock implies it leaves the warehouse view we care about.
-                // But wait, if we reduce reservedStock, the stock vanishes from DB counts.
-                // That is correct for "shipped/sold" items.
-                inventoryRepository.save(inventory);
-            }
-        });
-    }
-
-    @Transactional
-    public void releaseReservation(Long orderId) {
-        reservationRepository.findByOrderId(orderId).forEach(reservation -> {
-            if ("RESERVED".equals(reservation.getStatus())) {
-                reservation.setStatus("CANCELLED");
-                reservationRepository.save(reservation);
-
-                Inventory inventory = inventoryRepository.findByProductIdLocked(reservation.getProductId())
-                        .orElseThrow();
+    /**
+     * Runs a stock mutation in its own transaction, retrying when an optimistic version check
+     * fails. Products that keep conflicting are locked pessimistically on later attempts, and the
+     * last attempt locks every row it loads, so a mutation is never failed for contention alone.
+     */
+    private <T> T executeStockMutation(Function<List<Long>, T> mutation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            // Joined an outer transaction that cannot be retried from here; lock rows up front.
+            return mutation.apply(null);
+        }
 
-                inventory.setAvailableStock(inventory.getAvailableStock() + reservation.getQuantity());
-                inventory.setReservedStock(inventory.getReservedStock() - reservation.getQuantity());
-                inventoryRepository.save(inventory);
+        for (int attempt = 1; attempt < maxLockAttempts; attempt++) {
+            List<Long> touched = new ArrayList<>();
+            try {
+                T result = transactionTemplate.execute(status -> {
+                    T applied = mutation.apply(touched);
+                    if (!touched.isEmpty()) {
+                        // Versioned UPDATEs take their row locks when flushed; time that as the lock wait.
+                        lockContentionProfiler.timeOptimisticFlush(touched, inventoryRepository::flush);
+                    }
+                    return applied;
+                });
+                lockPolicy.recordOptimisticAttempt(touched, false);
+                return result;
+            } catch (OptimisticLockingFailureException ex) {
+                lockPolicy.recordOptimisticAttempt(touched, true);
+                lockContentionProfiler.recordOptimisticConflict(touched);
+                lockPolicy.recordRetry();
             }
-        });
+        }
+        return transactionTemplate.execute(status -> mutation.apply(null));
     }
 
-    @Transactional
-    public void reserveOrderItems(Long orderId, java.util.List<com.ecommerce.inventory.event.OrderItemEvent> items) {
-        // Sort items by product ID to prevent deadlocks
-        var sortedItems = new java.util.ArrayList<>(items);
-        sortedItems.sort(java.util.Comparator.comparingLong(com.ecommerce.inventory.event.OrderItemEvent::productId));
-
-        for (var item : sortedItems) {
-            reserveStock(new ReservationRequest(orderId, item.productId(), item.quantity()));
+    private Optional<Inventory> loadForUpdate(Long productId, List<Long> touched) {
+        if (touched == null || lockPolicy.isPessimistic(productId)) {
+            return lockContentionProfiler.timeLockedLoad(
+                    productId, () -> inventoryRepository.findByProductIdLocked(productId));
         }
+        touched.add(productId);
+        return inventoryRepository.findByProductId(productId);
     }
 
-    @Transactional(readOnly = true)
-    public java.util.Map<Long, Integer> getBatchStock(java.util.List<Long> productIds) {
-        java.util.Map<Long, Integer> stockMap = new java.util.HashMap<>();
-        if (productIds == null || productIds.isEmpty()) return stockMap;
+    private void publishStockChanged(Inventory inventory) {
+        Long productId = inventory.getProductId();
+        inventoryProducer.publishStockChanged(productId, inventory.getAvailableStock());
 
-        inventoryRepository.findAllByProductIdIn(productIds).forEach(inv -> {
-            stockMap.put(inv.getProductId(), inv.getAvailableStock());
-        });
-        return stockMap;
+        // The stock-changed event reaches every instance through the outbox; evicting here as well
+        // keeps this instance from serving its own stale value until the publisher catches up.
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    availabilitySnapshot.evict(productId);
+                }
+            });
+        }
     }
 }
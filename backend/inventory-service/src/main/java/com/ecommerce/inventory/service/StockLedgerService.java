@@ -0,0 +1,228 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.domain.StockMovement;
+import com.ecommerce.inventory.dto.StockBalanceResponse;
+import com.ecommerce.inventory.dto.StockMovementResponse;
+import com.ecommerce.inventory.repository.StockMovementRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Append-only record of every stock mutation. Counters on {@code inventory} stay the source
+ * for reservations; the ledger answers "what was the stock at time T" and can rebuild the
+ * counters. Periodic per-product snapshots bound how many movements such a query has to sum.
+ */
+@Service
+public class StockLedgerService {
+    private static final Logger logger = LoggerFactory.getLogger(StockLedgerService.class);
+
+    private static final String LATEST_SNAPSHOT_AT = """
+            SELECT available_stock, reserved_stock, last_movement_id, as_of
+            FROM stock_snapshots
+            WHERE product_id = ? AND as_of <= ?
+            ORDER BY as_of DESC
+            LIMIT 1
+            """;
+
+    private static final String LATEST_SNAPSHOT = """
+            SELECT available_stock, reserved_stock, last_movement_id, as_of
+            FROM stock_snapshots
+            WHERE product_id = ?
+            ORDER BY last_movement_id DESC
+            LIMIT 1
+            """;
+
+    private static final String MOVEMENTS_SINCE = """
+            SELECT COALESCE(SUM(available_delta), 0), COALESCE(SUM(reserved_delta), 0), MAX(created_at)
+            FROM stock_movements
+            WHERE product_id = ? AND id > ? AND created_at <= ?
+            """;
+
+    private static final String SETTLED_MOVEMENT_ID = """
+            SELECT COALESCE(
+                (SELECT MIN(id) - 1 FROM stock_movements WHERE id > ? AND created_at >= ?),
+                (SELECT MAX(id) FROM stock_movements),
+                0)
+            """;
+
+    private static final String TAKE_SNAPSHOTS = """
+            WITH window_movements AS (
+                SELECT product_id,
+                       SUM(available_delta) AS available_delta,
+                       SUM(reserved_delta) AS reserved_delta,
+                       MAX(id) AS last_movement_id,
+                       MAX(created_at) AS as_of
+                FROM stock_movements
+                WHERE id > ? AND id <= ?
+                GROUP BY product_id
+            )
+            INSERT INTO stock_snapshots (product_id, available_stock, reserved_stock, last_movement_id, as_of)
+            SELECT w.product_id,
+                   COALESCE(previous.available_stock, 0) + w.available_delta,
+                   COALESCE(previous.reserved_stock, 0) + w.reserved_delta,
+                   w.last_movement_id,
+                   w.as_of
+            FROM window_movements w
+            LEFT JOIN LATERAL (
+                SELECT available_stock, reserved_stock
+                FROM stock_snapshots s
+                WHERE s.product_id = w.product_id
+                ORDER BY s.last_movement_id DESC
+                LIMIT 1
+            ) previous ON TRUE
+            """;
+
+    private static final String STREAM_MOVEMENTS = """
+            SELECT id, product_id, movement_type, available_delta, reserved_delta, order_id, created_at
+            FROM stock_movements
+            WHERE product_id = ? AND created_at >= ? AND created_at <= ?
+            ORDER BY id
+            """;
+
+    @Autowired
+    private StockMovementRepository stockMovementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${inventory.ledger.snapshot-settle-ms:60000}")
+    private long snapshotSettleMs;
+
+    @Value("${inventory.ledger.stream-fetch-size:500}")
+    private int streamFetchSize;
+
+    @Transactional
+    public void record(Long productId, String movementType, int availableDelta, int reservedDelta, Long orderId) {
+        stockMovementRepository.save(StockMovement.builder()
+                .productId(productId)
+                .movementType(movementType)
+                .availableDelta(availableDelta)
+                .reservedDelta(reservedDelta)
+                .orderId(orderId)
+                .build());
+    }
+
+    /**
+     * Ledger balance for a product at {@code at}, or the latest balance when {@code at} is null.
+     */
+    @Transactional(readOnly = true)
+    public StockBalanceResponse balanceAt(Long productId, LocalDateTime at) {
+        LocalDateTime cutoff = at != null ? at : LocalDateTime.now().plusYears(100);
+        Snapshot snapshot = (at != null
+                ? jdbcTemplate.query(LATEST_SNAPSHOT_AT, this::mapSnapshot, productId, Timestamp.valueOf(at))
+                : jdbcTemplate.query(LATEST_SNAPSHOT, this::mapSnapshot, productId))
+                .stream()
+                .findFirst()
+                .orElse(new Snapshot(0, 0, 0L, null));
+
+        return jdbcTemplate.queryForObject(MOVEMENTS_SINCE, (rs, rowNum) -> {
+            Timestamp lastMovementAt = rs.getTimestamp(3);
+            LocalDateTime asOf = lastMovementAt != null ? lastMovementAt.toLocalDateTime() : snapshot.asOf();
+            return new StockBalanceResponse(
+                    productId,
+                    snapshot.availableStock() + rs.getInt(1),
+                    snapshot.reservedStock() + rs.getInt(2),
+                    asOf);
+        }, productId, snapshot.lastMovementId(), Timestamp.valueOf(cutoff));
+    }
+
+    /**
+     * Streams a product's movements as NDJSON, reading through a server-side cursor so memory
+     * stays flat regardless of history length.
+     */
+    public void streamMovements(Long productId, LocalDateTime from, LocalDateTime to, OutputStream out) throws IOException {
+        LocalDateTime lower = from != null ? from : LocalDateTime.of(1970, 1, 1, 0, 0);
+        LocalDateTime upper = to != null ? to : LocalDateTime.now().plusYears(100);
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(STREAM_MOVEMENTS);
+                statement.setFetchSize(streamFetchSize);
+                statement.setLong(1, productId);
+                statement.setTimestamp(2, Timestamp.valueOf(lower));
+                statement.setTimestamp(3, Timestamp.valueOf(upper));
+                return statement;
+            }, rs -> {
+                long orderId = rs.getLong(6);
+                boolean noOrder = rs.wasNull();
+                StockMovementResponse movement = new StockMovementResponse(
+                        rs.getLong(1),
+                        rs.getLong(2),
+                        rs.getString(3),
+                        rs.getInt(4),
+                        rs.getInt(5),
+                        noOrder ? null : orderId,
+                        rs.getTimestamp(7).toLocalDateTime());
+                try {
+                    objectMapper.writeValue(generator, movement);
+                    generator.writeRaw('\n');
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${inventory.ledger.snapshot-fixed-delay-ms:300000}")
+    @Transactional
+    public void takeSnapshots() {
+        // Only one instance snapshots at a time; the others skip this round.
+        Boolean acquired = jdbcTemplate.queryForObject(
+                "SELECT pg_try_advisory_xact_lock(hashtext('inventory-stock-snapshots'))", Boolean.class);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+
+        Long watermark = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(last_movement_id), 0) FROM stock_snapshots", Long.class);
+        // Movements younger than the settle window may still have uncommitted neighbours with lower ids.
+        LocalDateTime settledBefore = LocalDateTime.now().minusNanos(snapshotSettleMs * 1_000_000);
+        Long upTo = jdbcTemplate.queryForObject(
+                SETTLED_MOVEMENT_ID, Long.class, watermark, Timestamp.valueOf(settledBefore));
+        if (upTo == null || upTo <= watermark) {
+            return;
+        }
+
+        int snapshots = jdbcTemplate.update(TAKE_SNAPSHOTS, watermark, upTo);
+        logger.info("Stock ledger snapshots written. products={}, movements=({}, {}]", snapshots, watermark, upTo);
+    }
+
+    private Snapshot mapSnapshot(ResultSet rs, int rowNum) throws SQLException {
+        return new Snapshot(
+                rs.getInt(1),
+                rs.getInt(2),
+                rs.getLong(3),
+                rs.getTimestamp(4).toLocalDateTime());
+    }
+
+    private record Snapshot(int availableStock, int reservedStock, long lastMovementId, LocalDateTime asOf) {
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.inventory.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilitySnapshotTest {
+
+    @Test
+    void lookupReturnsCachedValuesAndReportsMisses() {
+        AvailabilitySnapshot snapshot = new AvailabilitySnapshot(new SimpleMeterRegistry(), 100);
+        snapshot.putAll(Map.of(1L, 10, 2L, 0), snapshot.beginLoad());
+
+        Map<Long, Integer> result = new HashMap<>();
+        List<Long> missing = snapshot.lookup(List.of(1L, 2L, 3L), result);
+
+        assertEquals(Map.of(1L, 10, 2L, 0), result);
+        assertEquals(List.of(3L), missing);
+    }
+
+    @Test
+    void evictForcesReload() {
+        AvailabilitySnapshot snapshot = new AvailabilitySnapshot(new SimpleMeterRegistry(), 100);
+        snapshot.putAll(Map.of(1L, 10), snapshot.beginLoad());
+
+        snapshot.evict(1L);
+
+        Map<Long, Integer> result = new HashMap<>();
+        assertEquals(List.of(1L), snapshot.lookup(List.of(1L), result));
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void loadThatRacedAnEvictionIsNotCached() {
+        AvailabilitySnapshot snapshot = new AvailabilitySnapshot(new SimpleMeterRegistry(), 100);
+        long loadStartedAt = snapshot.beginLoad();
+
+        // Stock changed after the load read product 1 but before it was cached.
+        snapshot.evict(1L);
+        snapshot.putAll(Map.of(1L, 10, 2L, 20), loadStartedAt);
+
+        Map<Long, Integer> result = new HashMap<>();
+        assertEquals(List.of(1L), snapshot.lookup(List.of(1L, 2L), result));
+        assertEquals(Map.of(2L, 20), result);
+    }
+
+    @Test
+    void exceedingMaxEntriesResetsSnapshot() {
+        AvailabilitySnapshot snapshot = new AvailabilitySnapshot(new SimpleMeterRegistry(), 2);
+        snapshot.putAll(Map.of(1L, 10, 2L, 20), snapshot.beginLoad());
+
+        snapshot.putAll(Map.of(3L, 30), snapshot.beginLoad());
+
+        assertEquals(1, snapshot.size());
+    }
+
+    @Test
+    void primitiveMapMatchesHashMapUnderRandomOperations() {
+        LongIntHashMap map = new LongIntHashMap(4, Integer.MIN_VALUE);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                map.remove(key);
+                expected.remove(key);
+            } else {
+                int value = random.nextInt(1_000);
+                map.put(key, value);
+                expected.put(key, value);
+            }
+        }
+
+        assertEquals(expected.size(), map.size());
+        for (long key = 0; key < 2_000; key++) {
+            assertEquals(expected.getOrDefault(key, Integer.MIN_VALUE), map.get(key));
+        }
+    }
+}
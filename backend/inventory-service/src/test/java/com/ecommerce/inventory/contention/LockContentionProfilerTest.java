@@ -0,0 +1,107 @@
+package com.ecommerce.inventory.contention;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockContentionProfilerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final LockContentionProfiler profiler = new LockContentionProfiler(meterRegistry, 2, 100, nanoClock::get);
+
+    @Test
+    void topContendedKeepsOnlyTheKSlowestProducts() {
+        timeLock(1L, 1);
+        timeLock(2L, 30);
+        timeLock(3L, 15);
+
+        List<ProductContention> top = profiler.topContended();
+
+        assertEquals(List.of(2L, 3L), top.stream().map(ProductContention::productId).toList());
+        assertEquals(1, top.get(0).lockAcquisitions());
+        assertEquals(30.0, top.get(0).totalWaitMs());
+    }
+
+    @Test
+    void holdTimeRunsUntilTheTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            timeLock(4L, 2);
+            advance(40);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ProductContention contention = profiler.topContended().get(0);
+        assertEquals(2.0, contention.totalWaitMs());
+        assertEquals(40.0, contention.totalHoldMs());
+    }
+
+    @Test
+    void optimisticFlushCountsItsWaitOnceForEachProduct() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            profiler.timeOptimisticFlush(List.of(5L, 6L, 5L), () -> advance(8));
+            advance(20);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        for (ProductContention contention : profiler.topContended()) {
+            assertEquals(1, contention.lockAcquisitions());
+            assertEquals(8.0, contention.totalWaitMs());
+            assertEquals(20.0, contention.totalHoldMs());
+        }
+        assertEquals(2, profiler.topContended().size());
+        assertEquals(1, meterRegistry.get("inventory.lock.wait").timer().count());
+        assertEquals(1, meterRegistry.get("inventory.lock.hold").timer().count());
+    }
+
+    @Test
+    void rankingGaugesUseFixedSlots() {
+        timeLock(7L, 5);
+        profiler.recordOptimisticConflict(List.of(8L));
+
+        profiler.refreshRanking();
+
+        assertEquals(7.0, meterRegistry.get("inventory.lock.contention.top.product").tag("rank", "1").gauge().value());
+        assertEquals(8.0, meterRegistry.get("inventory.lock.contention.top.product").tag("rank", "2").gauge().value());
+        assertEquals(2, meterRegistry.get("inventory.lock.contention.top.product").gauges().size());
+    }
+
+    @Test
+    void windowRotationDropsOldProductsAfterTwoWindows() {
+        timeLock(1L, 1);
+
+        profiler.rotateWindow();
+        assertEquals(1, profiler.topContended().size());
+
+        profiler.rotateWindow();
+        assertTrue(profiler.topContended().isEmpty());
+    }
+
+    // The locked load "waits" by moving the profiler's clock, so recorded times are exact.
+    private void timeLock(long productId, long waitMillis) {
+        profiler.timeLockedLoad(productId, () -> {
+            advance(waitMillis);
+            return null;
+        });
+    }
+
+    private void advance(long millis) {
+        nanoClock.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+}
@@ -3,9 +3,15 @@ package com.ecommerce.inventory.controller;
 import com.ecommerce.common.exception.GlobalExceptionHandler;
 import com.ecommerce.common.exception.InsufficientStockException;
 import com.ecommerce.common.exception.InventoryNotFoundException;
+import com.ecommerce.inventory.dto.BulkStockImportResponse;
 import com.ecommerce.inventory.dto.ReservationRequest;
+import com.ecommerce.inventory.dto.StockBalanceResponse;
+import com.ecommerce.inventory.dto.StockImportMode;
+import com.ecommerce.inventory.dto.StockImportRowError;
 import com.ecommerce.inventory.dto.StockRequest;
+import com.ecommerce.inventory.service.BulkStockImportService;
 import com.ecommerce.inventory.service.InventoryService;
+import com.ecommerce.inventory.service.StockLedgerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,12 +23,16 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -37,6 +47,12 @@ class InventoryControllerTest {
     @Mock
     private InventoryService inventoryService;
 
+    @Mock
+    private BulkStockImportService bulkStockImportService;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
     @InjectMocks
     private InventoryController inventoryController;
 
@@ -128,4 +144,38 @@ class InventoryControllerTest {
                 .andExpect(jsonPath("$.1").value(100))
                 .andExpect(jsonPath("$.2").value(50));
     }
+
+    @Test
+    void bulkImportNdjsonReturnsRowReport() throws Exception {
+        when(bulkStockImportService.importStock(any(), eq(true), eq(StockImportMode.ADD)))
+                .thenReturn(new BulkStockImportResponse(2, 1, 1,
+                        List.of(new StockImportRowError(2, "quantity: must be an integer"))));
+
+        mockMvc.perform(post("/inventory/bulk")
+                        .param("mode", "ADD")
+                        .contentType("application/x-ndjson")
+                        .content("{\"productId\":1,\"quantity\":5}\n{\"productId\":2,\"quantity\":\"x\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.appliedRows").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(2));
+    }
+
+    @Test
+    void getBalanceParsesPointInTime() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(stockLedgerService.balanceAt(1L, at)).thenReturn(new StockBalanceResponse(1L, 40, 5, null));
+
+        mockMvc.perform(get("/inventory/1/balance").param("at", "2024-03-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableStock").value(40))
+                .andExpect(jsonPath("$.reservedStock").value(5));
+    }
+
+    @Test
+    void rebuildFromLedgerUnknownProductReturnsNotFound() throws Exception {
+        when(inventoryService.rebuildFromLedger(999L)).thenThrow(new InventoryNotFoundException(999L));
+
+        mockMvc.perform(post("/inventory/999/rebuild"))
+                .andExpect(status().isNotFound());
+    }
 }
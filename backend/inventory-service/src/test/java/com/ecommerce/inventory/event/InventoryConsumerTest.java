@@ -9,6 +9,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -50,6 +55,29 @@ class InventoryConsumerTest {
         verify(inventoryService, never()).releaseReservation(42L);
     }
 
+    @Test
+    void handleOrderCreated_resentForReservedOrder_answersAgain() {
+        OrderCreatedEvent event = new OrderCreatedEvent(42L, 7L, BigDecimal.TEN, List.of(new OrderItemEvent(1L, 1)));
+        when(eventDeduplicationService.tryStartProcessing("order-created:42")).thenReturn(false);
+        when(inventoryService.isReserved(42L)).thenReturn(true);
+
+        inventoryConsumer.handleOrderCreated(event);
+
+        verify(inventoryService, never()).reserveOrderItems(anyLong(), any());
+        verify(inventoryProducer).publishInventoryReserved(42L, BigDecimal.TEN);
+    }
+
+    @Test
+    void handleOrderCreated_resentForReleasedOrder_staysQuiet() {
+        OrderCreatedEvent event = new OrderCreatedEvent(43L, 7L, BigDecimal.TEN, List.of(new OrderItemEvent(1L, 1)));
+        when(eventDeduplicationService.tryStartProcessing("order-created:43")).thenReturn(false);
+        when(inventoryService.isReserved(43L)).thenReturn(false);
+
+        inventoryConsumer.handleOrderCreated(event);
+
+        verify(inventoryProducer, never()).publishInventoryReserved(anyLong(), any());
+    }
+
     @Test
     void handleCompensation_invalidKeyAndPayload_skipsRelease() {
         ConsumerRecord<String, Object> record =
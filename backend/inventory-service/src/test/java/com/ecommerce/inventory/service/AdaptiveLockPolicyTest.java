@@ -0,0 +1,61 @@
+package com.ecommerce.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveLockPolicyTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdaptiveLockPolicy policy = new AdaptiveLockPolicy(meterRegistry, 0.5, 4, 1_000, 100, clock::get);
+
+    @Test
+    void productsStartOptimisticAndCleanTrafficIsNotTracked() {
+        for (int i = 0; i < 100; i++) {
+            policy.recordOptimisticAttempt(List.of(1L), false);
+        }
+
+        assertFalse(policy.isPessimistic(1L));
+        assertEquals(0, policy.pessimisticCount());
+    }
+
+    @Test
+    void highConflictRateSwitchesOnlyThatProductToPessimistic() {
+        for (int i = 0; i < 4; i++) {
+            policy.recordOptimisticAttempt(List.of(1L), true);
+        }
+
+        assertTrue(policy.isPessimistic(1L));
+        assertFalse(policy.isPessimistic(2L));
+        assertEquals(1.0, meterRegistry.get("inventory.lock.mode.switches").tag("to", "pessimistic").counter().count());
+    }
+
+    @Test
+    void lowConflictRateStaysOptimistic() {
+        policy.recordOptimisticAttempt(List.of(1L), true);
+        for (int i = 0; i < 10; i++) {
+            policy.recordOptimisticAttempt(List.of(1L), false);
+        }
+
+        assertFalse(policy.isPessimistic(1L));
+    }
+
+    @Test
+    void pessimisticModeExpiresAfterHoldPeriod() {
+        for (int i = 0; i < 4; i++) {
+            policy.recordOptimisticAttempt(List.of(1L), true);
+        }
+
+        clock.addAndGet(2_000_000_000L);
+
+        assertFalse(policy.isPessimistic(1L));
+        assertEquals(1.0, meterRegistry.get("inventory.lock.mode.switches").tag("to", "optimistic").counter().count());
+    }
+}
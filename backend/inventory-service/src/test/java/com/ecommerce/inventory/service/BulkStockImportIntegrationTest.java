@@ -0,0 +1,142 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.BulkStockImportResponse;
+import com.ecommerce.inventory.dto.StockImportMode;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "inventory.bulk-import.chunk-size=2"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class BulkStockImportIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("inventory_bulk_import_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private BulkStockImportService bulkStockImportService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private Tracer tracer;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE outbox_events RESTART IDENTITY");
+        jdbcTemplate.update("UPDATE inventory SET available_stock = 10, reserved_stock = 0");
+    }
+
+    @Test
+    void csvSetImportUpsertsRowsAndReportsInvalidLines() throws Exception {
+        String csv = """
+                productId,quantity
+                2,40
+                1,25
+                abc,5
+                900,7
+                1,30
+                """;
+
+        BulkStockImportResponse response = importStock(csv, false, StockImportMode.SET);
+
+        assertEquals(5, response.totalRows());
+        assertEquals(4, response.appliedRows());
+        assertEquals(1, response.errors().size());
+        assertEquals(4, response.errors().get(0).line());
+        assertEquals(30, availableStock(1L));
+        assertEquals(40, availableStock(2L));
+        assertEquals(7, availableStock(900L));
+        assertEquals(4, countStockChangedEvents());
+    }
+
+    @Test
+    void ndjsonAddImportSumsDuplicatesWithinChunk() throws Exception {
+        String ndjson = """
+                {"productId":3,"quantity":5}
+                {"productId":3,"quantity":7}
+                {"productId":4,"quantity":-1}
+                """;
+
+        BulkStockImportResponse response = importStock(ndjson, true, StockImportMode.ADD);
+
+        assertEquals(2, response.appliedRows());
+        assertEquals(1, response.failedRows());
+        assertEquals(22, availableStock(3L));
+        assertEquals(10, availableStock(4L));
+    }
+
+    @Test
+    void rejectedChunkReportsAFixedMessage() throws Exception {
+        String csv = "5," + Integer.MAX_VALUE + "\n";
+
+        BulkStockImportResponse response = importStock(csv, false, StockImportMode.ADD);
+
+        assertEquals(0, response.appliedRows());
+        assertEquals(BulkStockImportService.CHUNK_OUT_OF_RANGE, response.errors().get(0).message());
+        assertEquals(10, availableStock(5L));
+    }
+
+    @Test
+    void stockChangedEventsCarryTheImportTrace() throws Exception {
+        Span span = tracer.nextSpan().name("stock-import").start();
+        try (Tracer.SpanInScope ignored = tracer.withSpan(span)) {
+            importStock("1,12\n", false, StockImportMode.SET);
+        } finally {
+            span.end();
+        }
+
+        assertEquals(span.context().traceId(), jdbcTemplate.queryForObject(
+                "SELECT trace_id FROM outbox_events WHERE topic = 'stock-changed'", String.class));
+        assertEquals(span.context().spanId(), jdbcTemplate.queryForObject(
+                "SELECT parent_span_id FROM outbox_events WHERE topic = 'stock-changed'", String.class));
+    }
+
+    private BulkStockImportResponse importStock(String body, boolean ndjson, StockImportMode mode) throws Exception {
+        return bulkStockImportService.importStock(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), ndjson, mode);
+    }
+
+    private int availableStock(Long productId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT available_stock FROM inventory WHERE product_id = ?", Integer.class, productId);
+    }
+
+    private int countStockChangedEvents() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM outbox_events WHERE topic = 'stock-changed'", Integer.class);
+    }
+}
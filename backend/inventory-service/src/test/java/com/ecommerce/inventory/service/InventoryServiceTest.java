@@ -0,0 +1,110 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.cache.AvailabilitySnapshot;
+import com.ecommerce.inventory.contention.LockContentionProfiler;
+import com.ecommerce.inventory.domain.Inventory;
+import com.ecommerce.inventory.domain.InventoryReservation;
+import com.ecommerce.inventory.dto.StockRequest;
+import com.ecommerce.inventory.event.InventoryProducer;
+import com.ecommerce.inventory.repository.InventoryRepository;
+import com.ecommerce.inventory.repository.InventoryReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class InventoryServiceTest {
+
+    @Mock
+    private InventoryRepository inventoryRepository;
+
+    @Mock
+    private InventoryReservationRepository reservationRepository;
+
+    @Mock
+    private InventoryProducer inventoryProducer;
+
+    @Mock
+    private AvailabilitySnapshot availabilitySnapshot;
+
+    @Mock
+    private StockLedgerService stockLedgerService;
+
+    @Mock
+    private AdaptiveLockPolicy lockPolicy;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LockContentionProfiler lockContentionProfiler;
+
+    @InjectMocks
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(inventoryService, "maxLockAttempts", 3);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void mutationThatKeepsConflictingLocksItsRowsOnTheLastAttempt() {
+        Inventory inventory = Inventory.builder().productId(1L).availableStock(10).reservedStock(2).build();
+        // Each attempt reads the reservation afresh, as a new transaction would.
+        when(reservationRepository.findByOrderId(5L)).thenAnswer(invocation -> List.of(InventoryReservation.builder()
+                .orderId(5L).productId(1L).quantity(2).status("RESERVED").build()));
+        when(inventoryRepository.findByProductId(1L)).thenThrow(new OptimisticLockingFailureException("conflict"));
+        when(lockContentionProfiler.timeLockedLoad(eq(1L), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Object>>getArgument(1).get());
+        when(inventoryRepository.findByProductIdLocked(1L)).thenReturn(Optional.of(inventory));
+
+        inventoryService.releaseReservation(5L);
+
+        verify(inventoryRepository, times(2)).findByProductId(1L);
+        verify(lockPolicy, times(2)).recordRetry();
+        verify(inventoryRepository).save(inventory);
+        assertEquals(12, inventory.getAvailableStock());
+        assertEquals(0, inventory.getReservedStock());
+        verify(stockLedgerService).record(eq(1L), eq("RELEASE"), eq(2), eq(-2), anyLong());
+    }
+
+    @Test
+    void optimisticMutationTimesTheFlushThatLocksItsRows() {
+        Inventory inventory = Inventory.builder().productId(1L).availableStock(10).reservedStock(0).build();
+        when(inventoryRepository.findByProductId(1L)).thenReturn(Optional.of(inventory));
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(lockContentionProfiler).timeOptimisticFlush(eq(List.of(1L)), any());
+
+        inventoryService.addStock(new StockRequest(1L, 5));
+
+        verify(inventoryRepository).flush();
+        verify(lockContentionProfiler, never()).timeLockedLoad(anyLong(), any());
+        assertEquals(15, inventory.getAvailableStock());
+    }
+}
@@ -0,0 +1,161 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.event.OrderItemEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that reserving a large order batches its inventory updates and reservation/outbox inserts.
+ * Run with {@code -Dbenchmark=true} to also compare throughput against row-at-a-time statements.
+ */
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class ReservationBatchingIntegrationTest {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationBatchingIntegrationTest.class);
+    private static final int ITEMS_PER_ORDER = 40;
+    private static final long FIRST_PRODUCT_ID = 10_000L;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("inventory_reservation_batching_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE inventory_reservations, outbox_events");
+        jdbcTemplate.update("DELETE FROM inventory WHERE product_id >= ?", FIRST_PRODUCT_ID);
+        jdbcTemplate.update(
+                "INSERT INTO inventory (product_id, available_stock, reserved_stock) "
+                        + "SELECT p, 1000000, 0 FROM generate_series(?::bigint, ?::bigint) AS p",
+                FIRST_PRODUCT_ID, FIRST_PRODUCT_ID + ITEMS_PER_ORDER - 1);
+    }
+
+    @Test
+    void largeReservationIsWrittenInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        inventoryService.reserveOrderItems(900L, items());
+
+        // One load and one ledger insert per item; updates, reservations and outbox rows go in batches.
+        assertTrue(statistics.getPrepareStatementCount() <= 2L * ITEMS_PER_ORDER + 10,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(ITEMS_PER_ORDER, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory_reservations WHERE order_id = 900", Integer.class));
+        assertEquals(ITEMS_PER_ORDER, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM inventory WHERE product_id >= ? AND reserved_stock = 1",
+                Integer.class, FIRST_PRODUCT_ID));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkReservationBatches() {
+        int orders = Integer.getInteger("benchmark.orders", 200);
+        for (long orderId = 1; orderId <= 20; orderId++) {
+            inventoryService.reserveOrderItems(orderId, items());
+            reserveRowByRow(orderId);
+        }
+
+        long batched = timeMillis(orders, orderId -> inventoryService.reserveOrderItems(orderId, items()));
+        long rowByRow = timeMillis(orders, this::reserveRowByRow);
+
+        logger.info("{} reservations x {} items: batched {} ms ({} orders/s), row-by-row {} ms ({} orders/s)",
+                orders, ITEMS_PER_ORDER, batched, perSecond(orders, batched), rowByRow, perSecond(orders, rowByRow));
+    }
+
+    private static List<OrderItemEvent> items() {
+        return LongStream.range(FIRST_PRODUCT_ID, FIRST_PRODUCT_ID + ITEMS_PER_ORDER)
+                .mapToObj(productId -> new OrderItemEvent(productId, 1))
+                .toList();
+    }
+
+    // The statements reserveOrderItems issued with IDENTITY ids: each row written on its own round trip.
+    private void reserveRowByRow(long orderId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (OrderItemEvent item : items()) {
+                jdbcTemplate.queryForObject(
+                        "SELECT available_stock FROM inventory WHERE product_id = ?", Integer.class, item.productId());
+                jdbcTemplate.update(
+                        "UPDATE inventory SET available_stock = available_stock - ?, reserved_stock = reserved_stock + ?, "
+                                + "version = version + 1 WHERE product_id = ?",
+                        item.quantity(), item.quantity(), item.productId());
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO stock_movements (product_id, movement_type, available_delta, reserved_delta, order_id) "
+                                + "VALUES (?, 'RESERVE', ?, ?, ?) RETURNING id",
+                        Long.class, item.productId(), -item.quantity(), item.quantity(), orderId);
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO outbox_events (event_key, topic, aggregate_key, event_type, payload, status, attempt_count) "
+                                + "VALUES (?, 'stock-changed', ?, 'stock-changed', '{}', 'PENDING', 0) RETURNING id",
+                        Long.class, "stock-changed:" + item.productId() + ":" + UUID.randomUUID(),
+                        item.productId().toString());
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO inventory_reservations (order_id, product_id, quantity, expires_at, status) "
+                                + "VALUES (?, ?, ?, now() + interval '15 minutes', 'RESERVED') RETURNING id",
+                        Long.class, orderId, item.productId(), item.quantity());
+            }
+        });
+    }
+
+    private static long timeMillis(int times, LongConsumer action) {
+        long start = System.nanoTime();
+        for (long orderId = 1_000; orderId < 1_000 + times; orderId++) {
+            action.accept(orderId);
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long perSecond(int count, long millis) {
+        return millis == 0 ? count : count * 1000L / millis;
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.inventory.service;
+
+import com.ecommerce.inventory.dto.ReservationRequest;
+import com.ecommerce.inventory.dto.StockBalanceResponse;
+import com.ecommerce.inventory.dto.StockRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "inventory.ledger.snapshot-settle-ms=0"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class StockLedgerIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("inventory_ledger_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private StockLedgerService stockLedgerService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE stock_snapshots, stock_movements, inventory_reservations RESTART IDENTITY");
+        jdbcTemplate.update("UPDATE inventory SET available_stock = 10, reserved_stock = 0 WHERE product_id = 1");
+        jdbcTemplate.update("INSERT INTO stock_movements (product_id, movement_type, available_delta, reserved_delta) "
+                + "VALUES (1, 'OPENING', 10, 0)");
+    }
+
+    @Test
+    void ledgerBalanceMatchesCountersAcrossSnapshots() {
+        inventoryService.addStock(new StockRequest(1L, 5));
+        inventoryService.reserveStock(new ReservationRequest(500L, 1L, 4));
+        stockLedgerService.takeSnapshots();
+        inventoryService.confirmReservation(500L);
+        inventoryService.setStock(new StockRequest(1L, 8));
+
+        StockBalanceResponse balance = stockLedgerService.balanceAt(1L, null);
+
+        assertEquals(8, balance.availableStock());
+        assertEquals(0, balance.reservedStock());
+        assertEquals(1, snapshotCount());
+    }
+
+    @Test
+    void rebuildRestoresCountersFromLedger() {
+        inventoryService.reserveStock(new ReservationRequest(501L, 1L, 3));
+        jdbcTemplate.update("UPDATE inventory SET available_stock = 999, reserved_stock = 0 WHERE product_id = 1");
+
+        inventoryService.rebuildFromLedger(1L);
+
+        assertEquals(7, jdbcTemplate.queryForObject(
+                "SELECT available_stock FROM inventory WHERE product_id = 1", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject(
+                "SELECT reserved_stock FROM inventory WHERE product_id = 1", Integer.class));
+    }
+
+    @Test
+    void streamMovementsWritesOneJsonObjectPerLine() throws Exception {
+        inventoryService.addStock(new StockRequest(1L, 2));
+        inventoryService.reserveStock(new ReservationRequest(502L, 1L, 1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        stockLedgerService.streamMovements(1L, null, null, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).strip().split("\n");
+        assertEquals(3, lines.length);
+        JsonNode added = objectMapper.readTree(lines[1]);
+        assertEquals("ADD", added.get("movementType").asText());
+        assertTrue(added.path("orderId").isNull() || added.path("orderId").isMissingNode());
+        assertEquals(502L, objectMapper.readTree(lines[2]).get("orderId").asLong());
+    }
+
+    private int snapshotCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stock_snapshots", Integer.class);
+    }
+}
@@ -0,0 +1,28 @@
+-- Durable intake for asynchronous order submission. A row is written when the request is accepted
+-- and turned into an order (or a rejection) by the submission workers; the ticket is what clients poll.
+CREATE TABLE order_submissions (
+    id BIGSERIAL PRIMARY KEY,
+    ticket VARCHAR(36) NOT NULL,
+    user_id BIGINT NOT NULL,
+    request TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempt_count INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    order_id BIGINT,
+    last_error TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    completed_at TIMESTAMP
+);
+
+ALTER SEQUENCE order_submissions_id_seq INCREMENT BY 50;
+
+CREATE UNIQUE INDEX uq_order_submissions_ticket ON order_submissions(ticket);
+
+-- Only unfinished rows are scanned by the workers, so the index stays as small as the backlog.
+-- next_attempt_at is the retry time while PENDING and the claim time while IN_PROGRESS.
+CREATE INDEX idx_order_submissions_claimable ON order_submissions(next_attempt_at)
+    WHERE status IN ('PENDING', 'IN_PROGRESS');
+
+CREATE INDEX idx_order_submissions_completed_at ON order_submissions(completed_at)
+    WHERE completed_at IS NOT NULL;
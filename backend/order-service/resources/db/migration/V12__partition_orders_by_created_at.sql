@@ -0,0 +1,98 @@
+-- Orders and their items are split into a live and an archive tier (LIST on archived), each
+-- range-partitioned by the order's created_at: monthly for live orders, yearly for the archive.
+-- OrderArchiver creates partitions ahead of time, moves closed orders into the archive tier and
+-- drops live partitions it has emptied; the DEFAULT partitions only catch rows it missed.
+--
+-- Primary keys must contain the partition keys, so id uniqueness now rests on orders_id_seq and
+-- order_items_id_seq. Items carry their order's created_at and archived flag so they are partitioned
+-- like the order, and the foreign key cascades an order's move into the archive to its items.
+
+ALTER TABLE order_items RENAME TO order_items_unpartitioned;
+ALTER TABLE orders RENAME TO orders_unpartitioned;
+ALTER SEQUENCE orders_id_seq OWNED BY NONE;
+ALTER SEQUENCE order_items_id_seq OWNED BY NONE;
+DROP INDEX idx_orders_created_at_id;
+DROP INDEX idx_orders_user_created_at_id;
+DROP INDEX idx_orders_status_created_at_id;
+DROP INDEX idx_order_items_order_id;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL DEFAULT nextval('orders_id_seq'),
+    user_id BIGINT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    total_amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (id, created_at, archived)
+) PARTITION BY LIST (archived);
+
+CREATE TABLE orders_live PARTITION OF orders FOR VALUES IN (FALSE) PARTITION BY RANGE (created_at);
+CREATE TABLE orders_archive PARTITION OF orders FOR VALUES IN (TRUE) PARTITION BY RANGE (created_at);
+CREATE TABLE orders_live_default PARTITION OF orders_live DEFAULT;
+CREATE TABLE orders_archive_default PARTITION OF orders_archive DEFAULT;
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL DEFAULT nextval('order_items_id_seq'),
+    order_id BIGINT NOT NULL,
+    order_created_at TIMESTAMP NOT NULL,
+    archived BOOLEAN NOT NULL DEFAULT FALSE,
+    product_id BIGINT NOT NULL,
+    quantity INTEGER NOT NULL,
+    price DECIMAL(19, 2) NOT NULL,
+    PRIMARY KEY (id, order_created_at, archived),
+    FOREIGN KEY (order_id, order_created_at, archived) REFERENCES orders (id, created_at, archived) ON UPDATE CASCADE
+) PARTITION BY LIST (archived);
+
+CREATE TABLE order_items_live PARTITION OF order_items FOR VALUES IN (FALSE) PARTITION BY RANGE (order_created_at);
+CREATE TABLE order_items_archive PARTITION OF order_items FOR VALUES IN (TRUE) PARTITION BY RANGE (order_created_at);
+CREATE TABLE order_items_live_default PARTITION OF order_items_live DEFAULT;
+CREATE TABLE order_items_archive_default PARTITION OF order_items_archive DEFAULT;
+
+-- Live partitions for every month with orders through three months ahead, and archive partitions for
+-- every year through next year; OrderArchiver keeps extending both. Existing rows start in the live tier.
+DO $$
+DECLARE
+    first_month DATE := date_trunc('month', LEAST(
+            (SELECT MIN(COALESCE(created_at, updated_at)) FROM orders_unpartitioned), CURRENT_TIMESTAMP));
+    month DATE := first_month;
+    last_month DATE := date_trunc('month', CURRENT_TIMESTAMP + INTERVAL '3 months');
+    year DATE := date_trunc('year', first_month);
+    last_year DATE := date_trunc('year', CURRENT_TIMESTAMP + INTERVAL '1 year');
+BEGIN
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE orders_live_p%s PARTITION OF orders_live FOR VALUES FROM (%L) TO (%L)',
+                to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+        EXECUTE format('CREATE TABLE order_items_live_p%s PARTITION OF order_items_live FOR VALUES FROM (%L) TO (%L)',
+                to_char(month, 'YYYYMM'), month, month + INTERVAL '1 month');
+        month := month + INTERVAL '1 month';
+    END LOOP;
+    WHILE year <= last_year LOOP
+        EXECUTE format('CREATE TABLE orders_archive_p%s PARTITION OF orders_archive FOR VALUES FROM (%L) TO (%L)',
+                to_char(year, 'YYYY'), year, year + INTERVAL '1 year');
+        EXECUTE format('CREATE TABLE order_items_archive_p%s PARTITION OF order_items_archive FOR VALUES FROM (%L) TO (%L)',
+                to_char(year, 'YYYY'), year, year + INTERVAL '1 year');
+        year := year + INTERVAL '1 year';
+    END LOOP;
+END $$;
+
+INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at, version)
+SELECT id, user_id, status, total_amount, COALESCE(created_at, updated_at, CURRENT_TIMESTAMP), updated_at, version
+FROM orders_unpartitioned;
+
+INSERT INTO order_items (id, order_id, order_created_at, product_id, quantity, price)
+SELECT i.id, i.order_id, o.created_at, i.product_id, i.quantity, i.price
+FROM order_items_unpartitioned i
+JOIN orders o ON o.id = i.order_id;
+
+DROP TABLE order_items_unpartitioned;
+DROP TABLE orders_unpartitioned;
+ALTER SEQUENCE orders_id_seq OWNED BY orders.id;
+ALTER SEQUENCE order_items_id_seq OWNED BY order_items.id;
+
+-- V6 and V7 indexes, now created on every partition.
+CREATE INDEX idx_orders_created_at_id ON orders(created_at DESC, id DESC);
+CREATE INDEX idx_orders_user_created_at_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_status_created_at_id ON orders(status, created_at DESC, id DESC);
+CREATE INDEX idx_order_items_order_id ON order_items(order_id);
@@ -0,0 +1,18 @@
+-- Order search (GET /orders/search) filters on any mix of user, status, product, creation date and
+-- total amount while paging (created_at, id) newest first. Every search starts from one of these
+-- indexes; total_amount is a trailing key column so an amount range is checked inside the index
+-- instead of on each heap row the walk visits.
+DROP INDEX idx_orders_created_at_id;
+DROP INDEX idx_orders_user_created_at_id;
+DROP INDEX idx_orders_status_created_at_id;
+CREATE INDEX idx_orders_created_at_id_total ON orders(created_at DESC, id DESC, total_amount);
+CREATE INDEX idx_orders_user_created_at_id_total ON orders(user_id, created_at DESC, id DESC, total_amount);
+CREATE INDEX idx_orders_status_created_at_id_total ON orders(status, created_at DESC, id DESC, total_amount);
+
+-- Orders still moving through the saga are a small slice of the table, and the ones support looks
+-- for. Kept small, this index stays cached however many settled orders pile up.
+CREATE INDEX idx_orders_unsettled_created_at_id ON orders(status, created_at DESC, id DESC, total_amount)
+    WHERE status IN ('CREATED', 'PLACED', 'PAYMENT_PENDING', 'REFUND_PENDING', 'REFUND_FAILED');
+
+-- A product's orders, newest first; the partition key columns let the join to orders prune.
+CREATE INDEX idx_order_items_product_created_at ON order_items(product_id, order_created_at DESC, order_id DESC);
@@ -0,0 +1,4 @@
+-- OrderSagaWatchdog's bookkeeping for orders stuck mid-saga: how often it re-sent the event the
+-- saga is waiting on, and when it last did. Constant defaults, so no partition is rewritten.
+ALTER TABLE orders ADD COLUMN saga_retries INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE orders ADD COLUMN saga_retried_at TIMESTAMP;
@@ -0,0 +1,29 @@
+-- order_view (V8) only fills from events published after it was created, so orders placed before
+-- then were missing from the listings it serves. Project them from the orders tables, as
+-- POST /orders/view/rebuild does; rows events have already written keep their newer status and
+-- their timeline stamps.
+INSERT INTO order_view (order_id, user_id, status, status_version, total_amount, items, created_at, cancelled_at, projected_at)
+SELECT o.id,
+       o.user_id,
+       o.status,
+       o.version,
+       o.total_amount,
+       COALESCE((
+           SELECT json_agg(json_build_object('productId', i.product_id, 'quantity', i.quantity, 'price', i.price) ORDER BY i.id)
+           FROM order_items i
+           WHERE i.order_id = o.id
+       )::text, '[]'),
+       o.created_at,
+       CASE WHEN o.status = 'CANCELLED' THEN o.updated_at END,
+       now()
+FROM orders o
+ON CONFLICT (order_id) DO UPDATE SET
+    user_id = EXCLUDED.user_id,
+    status = CASE WHEN order_view.status_version > EXCLUDED.status_version
+                  THEN order_view.status ELSE EXCLUDED.status END,
+    status_version = GREATEST(order_view.status_version, EXCLUDED.status_version),
+    total_amount = EXCLUDED.total_amount,
+    items = EXCLUDED.items,
+    created_at = EXCLUDED.created_at,
+    cancelled_at = COALESCE(order_view.cancelled_at, EXCLUDED.cancelled_at),
+    projected_at = now();
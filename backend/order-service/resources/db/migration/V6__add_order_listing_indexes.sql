@@ -0,0 +1,4 @@
+-- Keyset pagination walks (created_at, id) newest first, optionally scoped by user or status.
+CREATE INDEX idx_orders_created_at_id ON orders(created_at DESC, id DESC);
+CREATE INDEX idx_orders_user_created_at_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX idx_orders_status_created_at_id ON orders(status, created_at DESC, id DESC);
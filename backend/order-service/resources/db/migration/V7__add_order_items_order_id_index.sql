@@ -0,0 +1,2 @@
+-- Item collections are fetched by order_id (batched per listing page); V1 only indexed the PK.
+CREATE INDEX idx_order_items_order_id ON order_items(order_id);
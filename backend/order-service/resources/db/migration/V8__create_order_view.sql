@@ -0,0 +1,21 @@
+-- Denormalised read model projected from order, inventory and payment events.
+-- Columns other than order_id stay nullable: saga events may be projected before order-created.
+CREATE TABLE order_view (
+    order_id BIGINT PRIMARY KEY,
+    user_id BIGINT,
+    status VARCHAR(50),
+    status_version BIGINT,
+    total_amount DECIMAL(19, 2),
+    items TEXT,
+    failure_reason VARCHAR(255),
+    created_at TIMESTAMP,
+    reserved_at TIMESTAMP,
+    paid_at TIMESTAMP,
+    cancelled_at TIMESTAMP,
+    refunded_at TIMESTAMP,
+    projected_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX idx_order_view_created_at_id ON order_view(created_at DESC, order_id DESC);
+CREATE INDEX idx_order_view_user_created_at_id ON order_view(user_id, created_at DESC, order_id DESC);
+CREATE INDEX idx_order_view_status_created_at_id ON order_view(status, created_at DESC, order_id DESC);
@@ -0,0 +1,15 @@
+-- Idempotency-Key records for POST /orders. Keys are scoped per user and written in the same
+-- transaction as the order, so a key never outlives a rolled-back order.
+CREATE TABLE order_idempotency (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    order_id BIGINT NOT NULL,
+    response TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL
+);
+
+CREATE UNIQUE INDEX uq_order_idempotency_user_key ON order_idempotency(user_id, idempotency_key);
+CREATE INDEX idx_order_idempotency_expires_at ON order_idempotency(expires_at);
@@ -0,0 +1,191 @@
+package com.ecommerce.order.archive;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maintains the partitions of {@code orders} and {@code order_items} (V12) and moves closed orders
+ * into the archive tier. Live partitions are monthly and created ahead of time; archive partitions
+ * are yearly. Closed orders older than {@code orders.archive.after-months} are archived in batches,
+ * the foreign key carrying their items along, and live partitions left empty behind that cutoff are
+ * dropped, so the live tier stays a few months deep however long the history grows.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderArchiver {
+    private static final Logger logger = LoggerFactory.getLogger(OrderArchiver.class);
+    private static final DateTimeFormatter MONTH_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LIVE_PREFIX = "orders_live_p";
+    private static final List<String> TABLES = List.of("orders", "order_items");
+
+    // Only one instance changes partitions at a time; the others skip the run.
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_xact_lock(hashtext('order-partition-maintenance'))";
+
+    private static final String CREATE_PARTITION =
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')";
+
+    private static final String LIVE_PARTITIONS = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'orders_live'::regclass AND c.relname LIKE 'orders_live_p%'
+            """;
+
+    private static final String ARCHIVE_BATCH = """
+            UPDATE orders SET archived = TRUE
+            WHERE archived = FALSE AND (id, created_at) IN (
+                SELECT id, created_at
+                FROM orders
+                WHERE archived = FALSE AND status IN (:statuses) AND created_at < :cutoff
+                ORDER BY created_at
+                LIMIT :batchSize
+                FOR UPDATE SKIP LOCKED)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.archive.after-months:6}")
+    private int afterMonths;
+
+    @Value("${orders.archive.statuses:CANCELLED,DELIVERED}")
+    private Set<String> archivedStatuses;
+
+    @Value("${orders.archive.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${orders.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${orders.partitions.lock-timeout-ms:5000}")
+    private long lockTimeoutMs;
+
+    private final Counter archivedOrders;
+
+    @Autowired
+    public OrderArchiver(MeterRegistry meterRegistry) {
+        this.archivedOrders = Counter.builder("orders.archived")
+                .description("Closed orders moved to the archive partitions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether orders in {@code status} can be in the archive tier; null means any status. Reads for
+     * other statuses only need the live partitions.
+     */
+    public boolean mayBeArchived(String status) {
+        return status == null || status.isBlank() || archivedStatuses.contains(status);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.archive.interval-ms:3600000}")
+    public void maintain() {
+        YearMonth currentMonth = YearMonth.now();
+        YearMonth cutoffMonth = currentMonth.minusMonths(afterMonths);
+        try {
+            changePartitions(() -> createPartitions(currentMonth));
+            archive(cutoffMonth.atDay(1).atStartOfDay());
+            changePartitions(() -> dropEmptyLivePartitions(cutoffMonth));
+        } catch (RuntimeException ex) {
+            logger.error("Order partition maintenance failed", ex);
+        }
+    }
+
+    /**
+     * Archives closed orders created before {@code cutoff}, one batch per statement, and returns how
+     * many were moved. Rows locked by a concurrent writer are left for the next run.
+     */
+    public int archive(LocalDateTime cutoff) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("statuses", archivedStatuses)
+                .addValue("cutoff", Timestamp.valueOf(cutoff))
+                .addValue("batchSize", batchSize);
+        int total = 0;
+        int moved;
+        do {
+            moved = namedParameterJdbcTemplate.update(ARCHIVE_BATCH, params);
+            total += moved;
+            archivedOrders.increment(moved);
+        } while (moved == batchSize);
+        if (total > 0) {
+            logger.info("Archived {} orders created before {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private void createPartitions(YearMonth currentMonth) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = currentMonth.plusMonths(i);
+            for (String table : TABLES) {
+                jdbcTemplate.execute(CREATE_PARTITION.formatted(
+                        table + "_live_p" + month.format(MONTH_SUFFIX), table + "_live",
+                        month.atDay(1), month.plusMonths(1).atDay(1)));
+            }
+        }
+        // Archived orders are at least after-months old, so this year's and next year's partitions suffice.
+        for (int i = 0; i <= 1; i++) {
+            Year year = Year.from(currentMonth).plusYears(i);
+            for (String table : TABLES) {
+                jdbcTemplate.execute(CREATE_PARTITION.formatted(
+                        table + "_archive_p" + year, table + "_archive",
+                        year.atDay(1), year.plusYears(1).atDay(1)));
+            }
+        }
+    }
+
+    // Nothing is inserted into past months, so a live partition emptied by archiving stays empty.
+    private void dropEmptyLivePartitions(YearMonth cutoffMonth) {
+        List<String> partitions = jdbcTemplate.queryForList(LIVE_PARTITIONS, String.class);
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring(LIVE_PREFIX.length()), MONTH_SUFFIX);
+            if (!month.isBefore(cutoffMonth)) {
+                continue;
+            }
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM " + partition + ")", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                String suffix = month.format(MONTH_SUFFIX);
+                // Items first: the orders partition is referenced by their foreign key.
+                jdbcTemplate.execute("ALTER TABLE order_items_live DETACH PARTITION order_items_live_p" + suffix);
+                jdbcTemplate.execute("DROP TABLE order_items_live_p" + suffix);
+                jdbcTemplate.execute("ALTER TABLE orders_live DETACH PARTITION " + partition);
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                logger.info("Dropped empty order partitions for {}", month);
+            }
+        }
+    }
+
+    private void changePartitions(Runnable change) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK, Boolean.class))) {
+                return;
+            }
+            // DDL locks the parent tables; give up rather than queue order traffic behind a long query.
+            jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+            change.run();
+        });
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.order.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent catalog loads. A product id already being fetched is joined rather than
+ * fetched again, and ids requested within one batching window go out as a single
+ * {@code /products/batch} call of at most {@code maxBatchSize} ids. The caller that opens a window
+ * waits it out and performs the fetch on its own thread; a caller that fills a batch flushes it
+ * straight away. Every caller receives only the ids it asked for.
+ */
+final class ProductCatalogBatcher {
+
+    private final Function<List<Long>, Map<Long, ProductCatalogClient.ProductInfo>> fetcher;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    // Guarded by this.
+    private final Map<Long, CompletableFuture<ProductCatalogClient.ProductInfo>> inFlight = new HashMap<>();
+    private List<Long> pending = new ArrayList<>();
+    private boolean windowOpen;
+    private long windowOpenedAt;
+
+    private final Counter requested;
+    private final Counter fetched;
+    private final DistributionSummary batchSize;
+    private final Timer batchWindow;
+
+    ProductCatalogBatcher(
+            Function<List<Long>, Map<Long, ProductCatalogClient.ProductInfo>> fetcher,
+            MeterRegistry meterRegistry,
+            long windowMs,
+            int maxBatchSize) {
+        this.fetcher = fetcher;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(windowMs, 0));
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.requested = Counter.builder("orders.catalog.coalesce.requested")
+                .description("Product ids asked for by callers on a cache miss")
+                .register(meterRegistry);
+        this.fetched = Counter.builder("orders.catalog.coalesce.fetched")
+                .description("Product ids actually sent to product-service")
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.coalesce.ratio", this, ProductCatalogBatcher::coalescingRatio)
+                .description("Requested ids per fetched id")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("orders.catalog.batch.size")
+                .description("Product ids per /products/batch call")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchWindow = Timer.builder("orders.catalog.batch.window")
+                .description("Time a batch stayed open collecting ids before it was fetched")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the products found for {@code productIds}; ids unknown to the catalog are absent.
+     */
+    Map<Long, ProductCatalogClient.ProductInfo> load(Collection<Long> productIds) {
+        Map<Long, CompletableFuture<ProductCatalogClient.ProductInfo>> own = new LinkedHashMap<>();
+        List<Long> fullBatch = null;
+        boolean leader = false;
+        synchronized (this) {
+            for (Long productId : productIds) {
+                CompletableFuture<ProductCatalogClient.ProductInfo> future = inFlight.get(productId);
+                if (future == null) {
+                    future = new CompletableFuture<>();
+                    inFlight.put(productId, future);
+                    pending.add(productId);
+                }
+                own.put(productId, future);
+            }
+            if (pending.size() >= maxBatchSize) {
+                fullBatch = drain();
+            } else if (!pending.isEmpty() && !windowOpen) {
+                windowOpen = true;
+                windowOpenedAt = System.nanoTime();
+                leader = true;
+            }
+        }
+        requested.increment(own.size());
+
+        if (fullBatch != null) {
+            fetchAll(fullBatch);
+        }
+        if (leader) {
+            LockSupport.parkNanos(windowNanos);
+            List<Long> batch;
+            synchronized (this) {
+                batch = drain();
+            }
+            fetchAll(batch);
+        }
+
+        Map<Long, ProductCatalogClient.ProductInfo> products = new LinkedHashMap<>();
+        for (Map.Entry<Long, CompletableFuture<ProductCatalogClient.ProductInfo>> entry : own.entrySet()) {
+            ProductCatalogClient.ProductInfo product = await(entry.getValue());
+            if (product != null) {
+                products.put(entry.getKey(), product);
+            }
+        }
+        return products;
+    }
+
+    // Caller holds the lock.
+    private List<Long> drain() {
+        List<Long> batch = pending;
+        pending = new ArrayList<>();
+        if (windowOpen) {
+            batchWindow.record(System.nanoTime() - windowOpenedAt, TimeUnit.NANOSECONDS);
+            windowOpen = false;
+        }
+        return batch;
+    }
+
+    private void fetchAll(List<Long> batch) {
+        for (int from = 0; from < batch.size(); from += maxBatchSize) {
+            fetch(batch.subList(from, Math.min(from + maxBatchSize, batch.size())));
+        }
+    }
+
+    private void fetch(List<Long> chunk) {
+        batchSize.record(chunk.size());
+        fetched.increment(chunk.size());
+        Map<Long, ProductCatalogClient.ProductInfo> found = null;
+        Throwable failure = null;
+        try {
+            found = fetcher.apply(List.copyOf(chunk));
+        } catch (RuntimeException | Error ex) {
+            failure = ex;
+        }
+
+        List<CompletableFuture<ProductCatalogClient.ProductInfo>> futures = new ArrayList<>(chunk.size());
+        synchronized (this) {
+            for (Long productId : chunk) {
+                futures.add(inFlight.remove(productId));
+            }
+        }
+        for (int i = 0; i < chunk.size(); i++) {
+            if (failure != null) {
+                futures.get(i).completeExceptionally(failure);
+            } else {
+                futures.get(i).complete(found.get(chunk.get(i)));
+            }
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+    }
+
+    private static ProductCatalogClient.ProductInfo await(CompletableFuture<ProductCatalogClient.ProductInfo> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (ex.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private double coalescingRatio() {
+        double fetchedIds = fetched.count();
+        return fetchedIds == 0 ? 1.0 : requested.count() / fetchedIds;
+    }
+}
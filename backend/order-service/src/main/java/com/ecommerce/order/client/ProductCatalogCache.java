@@ -0,0 +1,157 @@
+package com.ecommerce.order.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded LRU of catalog entries keyed by product id. Entries live for a short TTL; a hit in the
+ * last stretch of that TTL is still served but also handed back for a background refresh, so hot
+ * products are reloaded before they expire and checkout rarely waits on product-service. Each
+ * entry carries the product version it was loaded with, and a reload never replaces a newer
+ * version with an older one.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private final Map<Long, Entry> entries;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final LongSupplier nanoClock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter refreshes;
+    private final Counter stale;
+
+    @Autowired
+    public ProductCatalogCache(
+            MeterRegistry meterRegistry,
+            @Value("${services.product.cache.ttl-ms:30000}") long ttlMs,
+            @Value("${services.product.cache.refresh-ahead-ms:10000}") long refreshAheadMs,
+            @Value("${services.product.cache.max-entries:10000}") int maxEntries) {
+        this(meterRegistry, ttlMs, refreshAheadMs, maxEntries, System::nanoTime);
+    }
+
+    ProductCatalogCache(
+            MeterRegistry meterRegistry,
+            long ttlMs,
+            long refreshAheadMs,
+            int maxEntries,
+            LongSupplier nanoClock) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.refreshAheadNanos = Math.min(refreshAheadMs, ttlMs) * 1_000_000L;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.hits = Counter.builder("orders.catalog.cache.lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("orders.catalog.cache.lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.refreshes = Counter.builder("orders.catalog.cache.refreshes")
+                .register(meterRegistry);
+        this.stale = Counter.builder("orders.catalog.cache.stale")
+                .description("Cached entries found to be older than a version already seen by a client")
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.cache.size", this, ProductCatalogCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Copies live entries into {@code target}. Returns the ids that must be loaded now and the
+     * ids whose entries are due for a refresh-ahead; the latter are marked so only one caller
+     * refreshes them.
+     */
+    public Lookup lookup(Collection<Long> productIds, Map<Long, ProductCatalogClient.ProductInfo> target) {
+        List<Long> missing = new ArrayList<>();
+        List<Long> dueForRefresh = new ArrayList<>();
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            for (Long productId : productIds) {
+                Entry entry = entries.get(productId);
+                long age = entry != null ? now - entry.loadedAt : Long.MAX_VALUE;
+                if (age >= ttlNanos) {
+                    missing.add(productId);
+                    continue;
+                }
+                target.put(productId, entry.product);
+                if (age >= ttlNanos - refreshAheadNanos && !entry.refreshing) {
+                    entry.refreshing = true;
+                    dueForRefresh.add(productId);
+                }
+            }
+        }
+        hits.increment(productIds.size() - missing.size());
+        misses.increment(missing.size());
+        refreshes.increment(dueForRefresh.size());
+        return new Lookup(missing, dueForRefresh);
+    }
+
+    public void putAll(Collection<ProductCatalogClient.ProductInfo> products) {
+        long now = nanoClock.getAsLong();
+        synchronized (this) {
+            for (ProductCatalogClient.ProductInfo product : products) {
+                Entry current = entries.get(product.id());
+                if (current != null && versionOf(current.product) > versionOf(product)) {
+                    // A slower load raced a newer one; keep the newer price.
+                    current.refreshing = false;
+                    continue;
+                }
+                entries.put(product.id(), new Entry(product, now));
+            }
+        }
+    }
+
+    /**
+     * Clears the refresh marker after a refresh-ahead that did not complete, so a later hit can retry it.
+     */
+    public synchronized void refreshAbandoned(Collection<Long> productIds) {
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null) {
+                entry.refreshing = false;
+            }
+        }
+    }
+
+    public void recordStale(int count) {
+        stale.increment(count);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static long versionOf(ProductCatalogClient.ProductInfo product) {
+        return product.version() != null ? product.version() : -1L;
+    }
+
+    public record Lookup(List<Long> missing, List<Long> dueForRefresh) {
+    }
+
+    private static final class Entry {
+        private final ProductCatalogClient.ProductInfo product;
+        private final long loadedAt;
+        private boolean refreshing;
+
+        private Entry(ProductCatalogClient.ProductInfo product, long loadedAt) {
+            this.product = product;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
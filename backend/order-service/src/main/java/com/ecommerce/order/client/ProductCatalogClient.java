@@ -8,5 +8,16 @@ public interface ProductCatalogClient {
     ProductInfo getProduct(Long productId);
     Map<Long, ProductInfo> getProducts(List<Long> productIds);
 
-    record ProductInfo(Long id, BigDecimal price, String status) {}
+    /**
+     * As {@link #getProducts}, but ids unknown to the catalog are left out of the result instead of
+     * failing the whole lookup.
+     */
+    Map<Long, ProductInfo> findProducts(List<Long> productIds);
+
+    /**
+     * Reloads products whose cached entries are known to be stale, bypassing the cache.
+     */
+    Map<Long, ProductInfo> refreshProducts(List<Long> productIds);
+
+    record ProductInfo(Long id, BigDecimal price, String status, Long version) {}
 }
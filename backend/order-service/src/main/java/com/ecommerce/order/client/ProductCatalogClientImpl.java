@@ -2,11 +2,17 @@ package com.ecommerce.order.client;
 
 import com.ecommerce.common.exception.ResourceConflictException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
@@ -19,22 +25,55 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
 public class ProductCatalogClientImpl implements ProductCatalogClient {
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogClientImpl.class);
 
     private final RestTemplate restTemplate;
-    private final RetryTemplate retryTemplate;
+    private final ProductCatalogGuard guard;
+    private final ProductCatalogCache cache;
+    private final Executor refreshExecutor;
     private final String productServiceBaseUrl;
+    private final ProductCatalogBatcher batcher;
 
+    @Autowired
     public ProductCatalogClientImpl(
             RestTemplate restTemplate,
-            RetryTemplate productCatalogRetryTemplate,
-            @Value("${services.product.base-url}") String productServiceBaseUrl) {
+            ProductCatalogGuard guard,
+            ProductCatalogCache cache,
+            MeterRegistry meterRegistry,
+            @Value("${services.product.base-url}") String productServiceBaseUrl,
+            @Value("${services.product.cache.refresh-threads:2}") int refreshThreads,
+            @Value("${services.product.cache.refresh-queue-capacity:100}") int refreshQueueCapacity,
+            @Value("${services.product.coalesce.window-ms:2}") long coalesceWindowMs,
+            @Value("${services.product.coalesce.max-batch-size:100}") int maxBatchSize) {
+        this(restTemplate, guard, cache,
+                refreshExecutor(refreshThreads, refreshQueueCapacity), productServiceBaseUrl,
+                meterRegistry, coalesceWindowMs, maxBatchSize);
+    }
+
+    ProductCatalogClientImpl(
+            RestTemplate restTemplate,
+            ProductCatalogGuard guard,
+            ProductCatalogCache cache,
+            Executor refreshExecutor,
+            String productServiceBaseUrl,
+            MeterRegistry meterRegistry,
+            long coalesceWindowMs,
+            int maxBatchSize) {
         this.restTemplate = restTemplate;
-        this.retryTemplate = productCatalogRetryTemplate;
+        this.guard = guard;
+        this.cache = cache;
+        this.refreshExecutor = refreshExecutor;
         this.productServiceBaseUrl = productServiceBaseUrl;
+        this.batcher = new ProductCatalogBatcher(this::fetch, meterRegistry, coalesceWindowMs, maxBatchSize);
     }
 
     @Override
@@ -48,6 +87,15 @@ public class ProductCatalogClientImpl implements ProductCatalogClient {
 
     @Override
     public Map<Long, ProductInfo> getProducts(List<Long> productIds) {
+        return lookup(productIds, true);
+    }
+
+    @Override
+    public Map<Long, ProductInfo> findProducts(List<Long> productIds) {
+        return lookup(productIds, false);
+    }
+
+    private Map<Long, ProductInfo> lookup(List<Long> productIds, boolean requireAll) {
         Set<Long> uniqueProductIds = productIds == null
                 ? Set.of()
                 : productIds.stream()
@@ -57,10 +105,65 @@ public class ProductCatalogClientImpl implements ProductCatalogClient {
             return Map.of();
         }
 
-        List<Long> ids = List.copyOf(uniqueProductIds);
+        Map<Long, ProductInfo> products = new LinkedHashMap<>();
+        ProductCatalogCache.Lookup lookup = cache.lookup(uniqueProductIds, products);
+        if (!lookup.missing().isEmpty()) {
+            Map<Long, ProductInfo> loaded = batcher.load(lookup.missing());
+            if (requireAll) {
+                requireAll(lookup.missing(), loaded);
+            }
+            cache.putAll(loaded.values());
+            products.putAll(loaded);
+        }
+        if (!lookup.dueForRefresh().isEmpty()) {
+            refreshAhead(lookup.dueForRefresh());
+        }
+        return products;
+    }
 
+    @Override
+    public Map<Long, ProductInfo> refreshProducts(List<Long> productIds) {
+        if (productIds == null || productIds.isEmpty()) {
+            return Map.of();
+        }
+        cache.recordStale(productIds.size());
+        // Not coalesced: a fetch already in flight may have started before the newer version existed.
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(productIds));
+        Map<Long, ProductInfo> loaded = requireAll(ids, fetch(ids));
+        cache.putAll(loaded.values());
+        return loaded;
+    }
+
+    private void refreshAhead(List<Long> productIds) {
         try {
-            List<ProductApiResponse> response = retryTemplate.execute(context -> fetchProducts(ids));
+            refreshExecutor.execute(() -> {
+                try {
+                    cache.putAll(batcher.load(productIds).values());
+                } catch (RuntimeException ex) {
+                    // The entries keep serving until they expire; the next hit after that loads synchronously.
+                    logger.warn("Catalog refresh-ahead failed for products {}", productIds, ex);
+                } finally {
+                    cache.refreshAbandoned(productIds);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            cache.refreshAbandoned(productIds);
+        }
+    }
+
+    private static Map<Long, ProductInfo> requireAll(List<Long> ids, Map<Long, ProductInfo> products) {
+        for (Long id : ids) {
+            if (!products.containsKey(id)) {
+                throw new ResourceNotFoundException("Product not found with id: " + id);
+            }
+        }
+        return products;
+    }
+
+    // Returns the products the catalog knows; unknown ids are left out rather than failing the batch.
+    private Map<Long, ProductInfo> fetch(List<Long> ids) {
+        try {
+            List<ProductApiResponse> response = guard.execute(() -> fetchProducts(ids));
             if (response == null) {
                 throw new ResourceConflictException("Invalid product payload from catalog");
             }
@@ -70,16 +173,8 @@ public class ProductCatalogClientImpl implements ProductCatalogClient {
                 if (product == null || product.id == null || product.price == null) {
                     throw new ResourceConflictException("Invalid product payload from catalog");
                 }
-                products.put(product.id, new ProductInfo(product.id, product.price, product.status));
-            }
-
-            List<Long> missingIds = ids.stream()
-                    .filter(id -> !products.containsKey(id))
-                    .toList();
-            if (!missingIds.isEmpty()) {
-                throw new ResourceNotFoundException("Product not found with id: " + missingIds.get(0));
+                products.put(product.id, new ProductInfo(product.id, product.price, product.status, product.version));
             }
-
             return products;
         } catch (ResourceNotFoundException ex) {
             throw ex;
@@ -87,8 +182,10 @@ public class ProductCatalogClientImpl implements ProductCatalogClient {
             throw new ResourceNotFoundException("Product not found in catalog", ex);
         } catch (HttpClientErrorException ex) {
             throw new ResourceConflictException("Failed to fetch products from catalog", ex);
-        } catch (ResourceAccessException ex) {
+        } catch (ResourceAccessException | CallNotPermittedException ex) {
             throw new ResourceConflictException("Product catalog temporarily unavailable", ex);
+        } catch (BulkheadFullException ex) {
+            throw new ResourceConflictException("Product catalog busy, please retry", ex);
         } catch (Exception ex) {
             throw new ResourceConflictException("Unexpected catalog error", ex);
         }
@@ -109,9 +206,18 @@ public class ProductCatalogClientImpl implements ProductCatalogClient {
         return response.getBody();
     }
 
+    // Refresh-ahead only; a full queue drops the refresh and the entry is reloaded on expiry.
+    private static Executor refreshExecutor(int threads, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("catalog-refresh-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
     private static final class ProductApiResponse {
         public Long id;
         public BigDecimal price;
         public String status;
+        public Long version;
     }
 }
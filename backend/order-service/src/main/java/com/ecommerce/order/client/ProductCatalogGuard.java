@@ -0,0 +1,196 @@
+package com.ecommerce.order.client;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Wraps a catalog call in, from the outside in: the bulkhead, budgeted retries, the circuit
+ * breaker and, when enabled, a hedged second request sent once the first has run longer than the
+ * recent p95. The hedge spends a retry-budget token, so hedging backs off when the catalog is
+ * struggling. Only idempotent reads may be passed in.
+ */
+@Component
+public class ProductCatalogGuard {
+
+    private final RetryTemplate retryTemplate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RetryBudget retryBudget;
+    private final Executor hedgeExecutor;
+    private final long minHedgeDelayNanos;
+    private final Timer callLatency;
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final ContextSnapshotFactory contextSnapshots = ContextSnapshotFactory.builder().build();
+
+    @Autowired
+    public ProductCatalogGuard(
+            RetryTemplate productCatalogRetryTemplate,
+            CircuitBreaker productCatalogCircuitBreaker,
+            Bulkhead productCatalogBulkhead,
+            RetryBudget productCatalogRetryBudget,
+            MeterRegistry meterRegistry,
+            @Value("${services.product.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${services.product.hedge.min-delay-ms:50}") long minHedgeDelayMs,
+            @Value("${services.product.hedge.threads:16}") int hedgeThreads) {
+        this(productCatalogRetryTemplate, productCatalogCircuitBreaker, productCatalogBulkhead,
+                productCatalogRetryBudget, meterRegistry,
+                hedgeEnabled ? hedgeExecutor(hedgeThreads) : null, minHedgeDelayMs);
+    }
+
+    ProductCatalogGuard(
+            RetryTemplate retryTemplate,
+            CircuitBreaker circuitBreaker,
+            Bulkhead bulkhead,
+            RetryBudget retryBudget,
+            MeterRegistry meterRegistry,
+            Executor hedgeExecutor,
+            long minHedgeDelayMs) {
+        this.retryTemplate = retryTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.retryBudget = retryBudget;
+        this.hedgeExecutor = hedgeExecutor;
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(minHedgeDelayMs);
+        this.callLatency = Timer.builder("orders.catalog.call.latency")
+                .description("Latency of single product-service requests")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.hedgesSent = Counter.builder("orders.catalog.hedge.sent").register(meterRegistry);
+        this.hedgesWon = Counter.builder("orders.catalog.hedge.won").register(meterRegistry);
+        Gauge.builder("orders.catalog.hedge.delay", this, guard -> guard.hedgeDelayNanos() / 1_000_000.0)
+                .description("Current hedge delay in milliseconds")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        Supplier<T> timed = () -> callLatency.record(call);
+        return bulkhead.executeSupplier(() -> retryTemplate.execute(context ->
+                circuitBreaker.executeSupplier(() -> hedgeExecutor == null ? timed.get() : hedged(timed))));
+    }
+
+    private <T> T hedged(Supplier<T> call) {
+        CompletableFuture<T> primary;
+        try {
+            primary = submit(call);
+        } catch (RejectedExecutionException ex) {
+            return call.get();
+        }
+        try {
+            return primary.get(hedgeDelayNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Primary is past the p95; fall through to hedging.
+        } catch (ExecutionException ex) {
+            throw unwrap(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for product catalog", ex);
+        }
+
+        CompletableFuture<T> hedge;
+        try {
+            hedge = retryBudget.tryAcquireHedge() ? submit(call) : null;
+        } catch (RejectedExecutionException ex) {
+            hedge = null;
+        }
+        if (hedge == null) {
+            return join(primary);
+        }
+        hedgesSent.increment();
+        CompletableFuture<T> winner = join(firstSuccessful(primary, hedge));
+        if (winner == hedge) {
+            hedgesWon.increment();
+        }
+        return winner.join();
+    }
+
+    // Tracing context follows the request onto the hedge threads. Servlet request attributes do not:
+    // the losing request can outlive the servlet request, and batch reads do not need the caller's token.
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        ContextSnapshot snapshot = contextSnapshots.captureAll();
+        return CompletableFuture.supplyAsync(() -> {
+            try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                return call.get();
+            }
+        }, hedgeExecutor);
+    }
+
+    // Completes with whichever attempt succeeded first, or fails once both have failed.
+    private static <T> CompletableFuture<CompletableFuture<T>> firstSuccessful(
+            CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<CompletableFuture<T>> winner = new CompletableFuture<>();
+        for (CompletableFuture<T> attempt : List.of(primary, hedge)) {
+            CompletableFuture<T> other = attempt == primary ? hedge : primary;
+            attempt.whenComplete((value, failure) -> {
+                if (failure == null) {
+                    winner.complete(attempt);
+                } else if (other.isCompletedExceptionally()) {
+                    winner.completeExceptionally(failure);
+                }
+            });
+        }
+        return winner;
+    }
+
+    private long hedgeDelayNanos() {
+        for (ValueAtPercentile percentile : callLatency.takeSnapshot().percentileValues()) {
+            if (percentile.percentile() == 0.95) {
+                return Math.max(minHedgeDelayNanos, (long) percentile.value(TimeUnit.NANOSECONDS));
+            }
+        }
+        return minHedgeDelayNanos;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw unwrap(ex.getCause());
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable failure) {
+        if (failure instanceof CompletionException && failure.getCause() != null) {
+            failure = failure.getCause();
+        }
+        if (failure instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (failure instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(failure);
+    }
+
+    // No queue: when every hedge thread is busy the call runs on the caller without a hedge.
+    private static Executor hedgeExecutor(int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("catalog-hedge-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), threadFactory);
+    }
+}
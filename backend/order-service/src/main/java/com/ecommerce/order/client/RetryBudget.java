@@ -0,0 +1,67 @@
+package com.ecommerce.order.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Caps retries (and hedged requests) at a share of first attempts. Every call deposits
+ * {@code ratio} of a token and every extra attempt spends a whole one, so in steady state extra
+ * attempts stay under {@code ratio} of traffic; {@code maxTokens} allows a short burst after a
+ * quiet period. When the dependency is down the budget drains and callers fail on their first error
+ * instead of multiplying load on it.
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+    private final Counter retriesSpent;
+    private final Counter hedgesSpent;
+    private final Counter exhausted;
+
+    public RetryBudget(MeterRegistry meterRegistry, double ratio, int maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.retriesSpent = Counter.builder("orders.catalog.retry.budget.spent")
+                .tag("kind", "retry")
+                .register(meterRegistry);
+        this.hedgesSpent = Counter.builder("orders.catalog.retry.budget.spent")
+                .tag("kind", "hedge")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("orders.catalog.retry.budget.exhausted")
+                .description("Retries or hedges skipped because the budget was empty")
+                .register(meterRegistry);
+        Gauge.builder("orders.catalog.retry.budget.balance", this, RetryBudget::balance)
+                .register(meterRegistry);
+    }
+
+    public synchronized void recordCall() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    public boolean tryAcquireRetry() {
+        return tryAcquire(retriesSpent);
+    }
+
+    public boolean tryAcquireHedge() {
+        return tryAcquire(hedgesSpent);
+    }
+
+    public synchronized double balance() {
+        return tokens;
+    }
+
+    private boolean tryAcquire(Counter spent) {
+        synchronized (this) {
+            if (tokens >= 1.0) {
+                tokens -= 1.0;
+                spent.increment();
+                return true;
+            }
+        }
+        exhausted.increment();
+        return false;
+    }
+}
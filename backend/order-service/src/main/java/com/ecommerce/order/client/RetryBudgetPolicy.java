@@ -0,0 +1,46 @@
+package com.ecommerce.order.client;
+
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryPolicy;
+
+/**
+ * Lets {@code delegate} decide which failures are retryable, and additionally requires a token
+ * from the {@link RetryBudget} for each retry.
+ */
+public class RetryBudgetPolicy implements RetryPolicy {
+
+    private static final String BUDGET_EXHAUSTED = "retryBudget.exhausted";
+
+    private final RetryPolicy delegate;
+    private final RetryBudget budget;
+
+    public RetryBudgetPolicy(RetryPolicy delegate, RetryBudget budget) {
+        this.delegate = delegate;
+        this.budget = budget;
+    }
+
+    @Override
+    public boolean canRetry(RetryContext context) {
+        return !context.hasAttribute(BUDGET_EXHAUSTED) && delegate.canRetry(context);
+    }
+
+    @Override
+    public RetryContext open(RetryContext parent) {
+        budget.recordCall();
+        return delegate.open(parent);
+    }
+
+    @Override
+    public void close(RetryContext context) {
+        delegate.close(context);
+    }
+
+    // Called once per failed attempt, unlike canRetry, so the token is spent exactly once.
+    @Override
+    public void registerThrowable(RetryContext context, Throwable throwable) {
+        delegate.registerThrowable(context, throwable);
+        if (delegate.canRetry(context) && !budget.tryAcquireRetry()) {
+            context.setAttribute(BUDGET_EXHAUSTED, true);
+        }
+    }
+}
@@ -1,37 +1,56 @@
 package com.ecommerce.order.config;
 
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
-import org.springframework.retry.backoff.FixedBackOffPolicy;
-import org.springframework.retry.policy.SimpleRetryPolicy;
-import org.springframework.retry.support.RetryTemplate;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.util.StringUtils;
-import org.springframework.web.client.HttpServerErrorException;
-import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
+import com.ecommerce.common.http.HttpClientPoolSettings;
+import com.ecommerce.common.http.PooledHttpClientFactory;
+
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 
 @Configuration
 public class HttpClientConfig {
+    @Bean
+    public HttpComponentsClientHttpRequestFactory productCatalogRequestFactory(
+            MeterRegistry meterRegistry,
+            @Value("${services.product.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${services.product.read-timeout-ms:2000}") long readTimeoutMs,
+            @Value("${services.product.pool.connection-request-timeout-ms:500}") long connectionRequestTimeoutMs,
+            @Value("${services.product.pool.max-total:100}") int maxTotal,
+            @Value("${services.product.pool.max-per-route:50}") int maxPerRoute,
+            @Value("${services.product.pool.keep-alive-ms:30000}") long keepAliveMs,
+            @Value("${services.product.pool.idle-eviction-ms:15000}") long idleEvictionMs,
+            @Value("${services.product.pool.validate-after-inactivity-ms:2000}") long validateAfterInactivityMs) {
+        HttpClientPoolSettings settings = new HttpClientPoolSettings(
+                Duration.ofMillis(connectTimeoutMs),
+                Duration.ofMillis(readTimeoutMs),
+                Duration.ofMillis(connectionRequestTimeoutMs),
+                maxTotal,
+                maxPerRoute,
+                Duration.ofMillis(keepAliveMs),
+                Duration.ofMillis(idleEvictionMs),
+                Duration.ofMillis(validateAfterInactivityMs));
+        return PooledHttpClientFactory.create("product-catalog", settings, meterRegistry);
+    }
+
     @Bean
     public RestTemplate restTemplate(
             RestTemplateBuilder restTemplateBuilder,
-            @Value("${services.product.connect-timeout-ms:1000}") long connectTimeoutMs,
-            @Value("${services.product.read-timeout-ms:2000}") long readTimeoutMs) {
+            HttpComponentsClientHttpRequestFactory productCatalogRequestFactory) {
         RestTemplate restTemplate = restTemplateBuilder
-                .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
-                .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                .requestFactory(() -> productCatalogRequestFactory)
                 .build();
         restTemplate.getInterceptors().add((request, body, execution) -> {
             String authHeader = resolveAuthorizationHeader();
@@ -43,25 +62,6 @@ public class HttpClientConfig {
         return restTemplate;
     }
 
-    @Bean
-    public RetryTemplate productCatalogRetryTemplate(
-            @Value("${services.product.retry-max-attempts:3}") int maxAttempts,
-            @Value("${services.product.retry-backoff-ms:200}") long backoffMs) {
-        Map<Class<? extends Throwable>, Boolean> retryable = new HashMap<>();
-        retryable.put(ResourceAccessException.class, true);
-        retryable.put(HttpServerErrorException.class, true);
-        retryable.put(RuntimeException.class, false);
-
-        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts, retryable, true);
-        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
-        backOffPolicy.setBackOffPeriod(backoffMs);
-
-        RetryTemplate retryTemplate = new RetryTemplate();
-        retryTemplate.setRetryPolicy(retryPolicy);
-        retryTemplate.setBackOffPolicy(backOffPolicy);
-        return retryTemplate;
-    }
-
     private String resolveAuthorizationHeader() {
         RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
         if (!(requestAttributes instanceof ServletRequestAttributes servletRequestAttributes)) {
@@ -0,0 +1,109 @@
+package com.ecommerce.order.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.backoff.FixedBackOffPolicy;
+import org.springframework.retry.policy.SimpleRetryPolicy;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import com.ecommerce.order.client.RetryBudget;
+import com.ecommerce.order.client.RetryBudgetPolicy;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Failure isolation for product-service calls: a bulkhead bounds concurrent catalog calls, retries
+ * are limited by a {@link RetryBudget}, and a circuit breaker fails calls fast while the catalog is
+ * erroring or slow. State is published as {@code resilience4j.circuitbreaker.*},
+ * {@code resilience4j.bulkhead.*} and {@code orders.catalog.retry.budget.*}.
+ */
+@Configuration
+public class ProductCatalogResilienceConfig {
+
+    private static final String PRODUCT_CATALOG = "product-catalog";
+
+    @Bean
+    public RetryBudget productCatalogRetryBudget(
+            MeterRegistry meterRegistry,
+            @Value("${services.product.retry-budget.ratio:0.1}") double ratio,
+            @Value("${services.product.retry-budget.max-tokens:10}") int maxTokens) {
+        return new RetryBudget(meterRegistry, ratio, maxTokens);
+    }
+
+    @Bean
+    public RetryTemplate productCatalogRetryTemplate(
+            RetryBudget productCatalogRetryBudget,
+            @Value("${services.product.retry-max-attempts:3}") int maxAttempts,
+            @Value("${services.product.retry-backoff-ms:200}") long backoffMs) {
+        Map<Class<? extends Throwable>, Boolean> retryable = new HashMap<>();
+        retryable.put(ResourceAccessException.class, true);
+        retryable.put(HttpServerErrorException.class, true);
+        retryable.put(RuntimeException.class, false);
+
+        SimpleRetryPolicy retryPolicy = new SimpleRetryPolicy(maxAttempts, retryable, true);
+        FixedBackOffPolicy backOffPolicy = new FixedBackOffPolicy();
+        backOffPolicy.setBackOffPeriod(backoffMs);
+
+        RetryTemplate retryTemplate = new RetryTemplate();
+        retryTemplate.setRetryPolicy(new RetryBudgetPolicy(retryPolicy, productCatalogRetryBudget));
+        retryTemplate.setBackOffPolicy(backOffPolicy);
+        return retryTemplate;
+    }
+
+    @Bean
+    public CircuitBreaker productCatalogCircuitBreaker(
+            MeterRegistry meterRegistry,
+            @Value("${services.product.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${services.product.circuit-breaker.slow-call-duration-ms:1000}") long slowCallDurationMs,
+            @Value("${services.product.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${services.product.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${services.product.circuit-breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${services.product.circuit-breaker.open-duration-ms:5000}") long openDurationMs,
+            @Value("${services.product.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A 4xx says nothing about catalog health.
+                .ignoreExceptions(HttpClientErrorException.class)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker(PRODUCT_CATALOG);
+    }
+
+    @Bean
+    public Bulkhead productCatalogBulkhead(
+            MeterRegistry meterRegistry,
+            @Value("${services.product.bulkhead.max-concurrent-calls:30}") int maxConcurrentCalls,
+            @Value("${services.product.bulkhead.max-wait-ms:0}") long maxWaitMs) {
+        BulkheadConfig config = BulkheadConfig.custom()
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(maxWaitMs))
+                .build();
+        BulkheadRegistry registry = BulkheadRegistry.of(config);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry.bulkhead(PRODUCT_CATALOG);
+    }
+}
@@ -1,11 +1,31 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderSearchQuery;
+import com.ecommerce.order.dto.OrderStatusTotalResponse;
+import com.ecommerce.order.dto.OrderSubmissionResponse;
+import com.ecommerce.order.dto.OrderViewRebuildResponse;
+import com.ecommerce.order.dto.SalesBucketResponse;
+import com.ecommerce.order.dto.SalesStatsQuery;
 import com.ecommerce.common.security.CustomPrincipal;
+import com.ecommerce.order.idempotency.OrderIdempotencyService;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderExportService;
+import com.ecommerce.order.service.OrderQueryService;
+import com.ecommerce.order.service.OrderSearchService;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.OrderViewProjector;
+import com.ecommerce.order.service.SalesStatsService;
+import com.ecommerce.order.status.OrderStatusHub;
+import com.ecommerce.order.submission.OrderSubmissionService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.AccessDeniedException;
@@ -13,7 +33,12 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -24,10 +49,72 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private OrderViewProjector orderViewProjector;
+
+    @Autowired
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Autowired
+    private BulkOrderService bulkOrderService;
+
+    @Autowired
+    private OrderSubmissionService orderSubmissionService;
+
+    @Autowired
+    private OrderStatusHub orderStatusHub;
+
     @PostMapping
-    public ResponseEntity<OrderResponse> createOrder(Authentication authentication, @Valid @RequestBody OrderRequest request) {
+    public ResponseEntity<OrderResponse> createOrder(
+            Authentication authentication,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(orderService.createOrder(userId, request));
+        }
+        return ResponseEntity.ok(orderIdempotencyService.execute(userId, idempotencyKey, request,
+                claim -> orderService.createOrder(userId, request, claim)));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> createOrders(Authentication authentication, InputStream body)
+            throws IOException {
+        if (!hasAnyRole(authentication, "ROLE_ADMIN", "ROLE_PARTNER")) {
+            throw new AccessDeniedException("Partner access required");
+        }
+        Long userId = getUserIdFromAuthentication(authentication);
+        List<BulkOrderService.PreparedOrder> orders = bulkOrderService.prepare(body);
+        StreamingResponseBody results = out -> bulkOrderService.create(userId, orders, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(results);
+    }
+
+    @PostMapping("/submissions")
+    public ResponseEntity<OrderSubmissionResponse> submitOrder(
+            Authentication authentication, @Valid @RequestBody OrderRequest request) {
         Long userId = getUserIdFromAuthentication(authentication);
-        return ResponseEntity.ok(orderService.createOrder(userId, request));
+        return ResponseEntity.accepted().body(orderSubmissionService.submit(userId, request));
+    }
+
+    @GetMapping("/submissions/{ticket}")
+    public ResponseEntity<OrderSubmissionResponse> getSubmission(
+            Authentication authentication, @PathVariable String ticket) {
+        Long userId = isAdmin(authentication) ? null : getUserIdFromAuthentication(authentication);
+        return ResponseEntity.ok(orderSubmissionService.getSubmission(ticket, userId));
     }
 
     private Long getUserIdFromAuthentication(Authentication authentication) {
@@ -38,30 +125,81 @@ public class OrderController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getOrderById(Authentication authentication, @PathVariable @NonNull Long id) {
-        if (isAdmin(authentication)) {
-            return ResponseEntity.ok(orderService.getOrderById(id));
+    public ResponseEntity<OrderResponse> getOrderById(Authentication authentication, @PathVariable @NonNull Long id,
+                                                      WebRequest webRequest) {
+        Long userId = isAdmin(authentication) ? null : getUserIdFromAuthentication(authentication);
+        // Tag first, body second: a change in between leaves a newer body under an older tag, never the reverse.
+        String etag = orderQueryService.getOrderETag(id, userId);
+        // Orders are per user: clients may keep a copy but must revalidate it, shared caches must not store it.
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
         }
-        Long userId = getUserIdFromAuthentication(authentication);
-        return ResponseEntity.ok(orderService.getOrderByIdForUser(id, userId));
+        OrderResponse order = userId == null
+                ? orderQueryService.getOrderById(id)
+                : orderQueryService.getOrderByIdForUser(id, userId);
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(order);
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderStatus(Authentication authentication, @PathVariable @NonNull Long id) {
+        Long userId = isAdmin(authentication) ? null : getUserIdFromAuthentication(authentication);
+        return orderStatusHub.subscribe(id, () -> orderService.getCurrentStatus(id, userId));
     }
 
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> getAllOrders(Authentication authentication) {
+    public ResponseEntity<OrderPageResponse> getAllOrders(Authentication authentication, OrderListQuery query) {
+        ensureAdmin(authentication);
+        return ResponseEntity.ok(orderQueryService.listOrders(null, query));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<OrderPageResponse> searchOrders(Authentication authentication, OrderSearchQuery query) {
+        ensureAdmin(authentication);
+        return ResponseEntity.ok(orderSearchService.search(query));
+    }
+
+    @GetMapping("/stats/sales")
+    public ResponseEntity<List<SalesBucketResponse>> getSalesStats(Authentication authentication, SalesStatsQuery query) {
+        ensureAdmin(authentication);
+        return ResponseEntity.ok(salesStatsService.sales(query));
+    }
+
+    @GetMapping("/stats/status")
+    public ResponseEntity<List<OrderStatusTotalResponse>> getStatusTotals(Authentication authentication) {
+        ensureAdmin(authentication);
+        return ResponseEntity.ok(salesStatsService.statusTotals());
+    }
+
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            Authentication authentication,
+            @RequestParam(required = false) Long userId,
+            OrderListQuery query) {
         ensureAdmin(authentication);
-        return ResponseEntity.ok(orderService.getAllOrders());
+        StreamingResponseBody body = out -> orderExportService.exportOrders(userId, query, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
     }
 
     @GetMapping("/my-orders")
-    public ResponseEntity<List<OrderResponse>> getMyOrders(Authentication authentication) {
+    public ResponseEntity<OrderPageResponse> getMyOrders(Authentication authentication, OrderListQuery query) {
         Long userId = getUserIdFromAuthentication(authentication);
-        return ResponseEntity.ok(orderService.getUserOrders(userId));
+        return ResponseEntity.ok(orderQueryService.listOrders(userId, query));
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<OrderResponse>> getUserOrders(Authentication authentication, @PathVariable Long userId) {
+    public ResponseEntity<OrderPageResponse> getUserOrders(
+            Authentication authentication, @PathVariable Long userId, OrderListQuery query) {
+        ensureAdmin(authentication);
+        return ResponseEntity.ok(orderQueryService.listOrders(userId, query));
+    }
+
+    @PostMapping("/view/rebuild")
+    public ResponseEntity<OrderViewRebuildResponse> rebuildOrderView(Authentication authentication) {
         ensureAdmin(authentication);
-        return ResponseEntity.ok(orderService.getUserOrders(userId));
+        return ResponseEntity.ok(orderViewProjector.rebuild());
     }
 
     @PostMapping("/{id}/cancel")
@@ -73,9 +211,14 @@ public class OrderController {
     }
 
     private boolean isAdmin(Authentication authentication) {
+        return hasAnyRole(authentication, "ROLE_ADMIN");
+    }
+
+    private boolean hasAnyRole(Authentication authentication, String... roles) {
+        List<String> allowed = List.of(roles);
         return authentication != null && authentication.getAuthorities().stream()
                 .map(GrantedAuthority::getAuthority)
-                .anyMatch("ROLE_ADMIN"::equals);
+                .anyMatch(allowed::contains);
     }
 
     private void ensureAdmin(Authentication authentication) {
@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "order_items")
@@ -17,7 +18,8 @@ import java.math.BigDecimal;
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_id_seq")
+    @SequenceGenerator(name = "order_items_id_seq", sequenceName = "order_items_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -32,4 +34,14 @@ public class OrderItem {
 
     @Column(nullable = false)
     private BigDecimal price;
+
+    // The order's partition key, so items are partitioned, and archived, with their order.
+    @Column(name = "order_created_at", nullable = false, updatable = false)
+    private LocalDateTime orderCreatedAt;
+
+    // Persist cascades from the order, so its @PrePersist has already stamped createdAt.
+    @PrePersist
+    protected void onCreate() {
+        orderCreatedAt = order.getCreatedAt();
+    }
 }
@@ -0,0 +1,65 @@
+package com.ecommerce.order.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only mapping of the {@code order_view} projection. Rows are written with idempotent
+ * upserts by {@code OrderViewProjector}, never through JPA.
+ */
+@Entity
+@Immutable
+@Table(name = "order_view")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderView {
+
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    private String status;
+
+    @Column(name = "status_version")
+    private Long statusVersion;
+
+    @Column(name = "total_amount")
+    private BigDecimal totalAmount;
+
+    // JSON array of OrderItemResponse.
+    @Column(columnDefinition = "TEXT")
+    private String items;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "reserved_at")
+    private LocalDateTime reservedAt;
+
+    @Column(name = "paid_at")
+    private LocalDateTime paidAt;
+
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+
+    @Column(name = "refunded_at")
+    private LocalDateTime refundedAt;
+
+    @Column(name = "projected_at")
+    private LocalDateTime projectedAt;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * One line of a {@code POST /orders/bulk} body. {@code reference} is the partner's own order id,
+ * echoed back on the matching result line.
+ */
+public record BulkOrderRequest(
+        @Size(max = 255) String reference,
+        @NotEmpty List<@Valid OrderItemRequest> items) {
+}
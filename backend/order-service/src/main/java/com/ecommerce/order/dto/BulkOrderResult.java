@@ -0,0 +1,24 @@
+package com.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Outcome of one {@code POST /orders/bulk} line: {@code CREATED} with the new order id, or
+ * {@code REJECTED} with the reason.
+ */
+public record BulkOrderResult(
+        long line,
+        String reference,
+        String status,
+        Long orderId,
+        BigDecimal totalAmount,
+        String error) {
+
+    public static BulkOrderResult created(long line, String reference, OrderResponse order) {
+        return new BulkOrderResult(line, reference, "CREATED", order.id(), order.totalAmount(), null);
+    }
+
+    public static BulkOrderResult rejected(long line, String reference, String error) {
+        return new BulkOrderResult(line, reference, "REJECTED", null, null, error);
+    }
+}
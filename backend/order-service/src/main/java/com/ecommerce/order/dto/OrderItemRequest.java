@@ -5,5 +5,13 @@ import jakarta.validation.constraints.PositiveOrZero;
 
 import java.math.BigDecimal;
 
-public record OrderItemRequest(@Positive Long productId, @Positive Integer quantity, @PositiveOrZero BigDecimal price) {
+/**
+ * {@code price} and {@code productVersion} are what the client last saw in the catalog; when both
+ * are sent, an order is rejected if the product has since been repriced.
+ */
+public record OrderItemRequest(
+        @Positive Long productId,
+        @Positive Integer quantity,
+        @PositiveOrZero BigDecimal price,
+        @PositiveOrZero Long productVersion) {
 }
@@ -0,0 +1,13 @@
+package com.ecommerce.order.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+public record OrderListQuery(
+    String status,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+    String cursor,
+    Integer limit
+) {}
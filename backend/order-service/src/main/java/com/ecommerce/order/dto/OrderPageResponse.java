@@ -0,0 +1,5 @@
+package com.ecommerce.order.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(List<OrderResponse> items, String nextCursor) {}
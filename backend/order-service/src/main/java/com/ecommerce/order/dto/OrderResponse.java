@@ -4,11 +4,16 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
+// Timeline fields come from the order_view projection and are null until the matching saga event is projected.
 public record OrderResponse(
     Long id,
     Long userId,
     String status,
     BigDecimal totalAmount,
     List<OrderItemResponse> items,
-    LocalDateTime createdAt
+    LocalDateTime createdAt,
+    LocalDateTime reservedAt,
+    LocalDateTime paidAt,
+    LocalDateTime cancelledAt,
+    LocalDateTime refundedAt
 ) {}
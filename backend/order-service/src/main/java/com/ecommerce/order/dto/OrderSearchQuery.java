@@ -0,0 +1,18 @@
+package com.ecommerce.order.dto;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderSearchQuery(
+    Long userId,
+    String status,
+    Long productId,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+    BigDecimal minTotal,
+    BigDecimal maxTotal,
+    String cursor,
+    Integer limit
+) {}
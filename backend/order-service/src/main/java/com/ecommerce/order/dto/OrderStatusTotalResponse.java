@@ -0,0 +1,5 @@
+package com.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+
+public record OrderStatusTotalResponse(String status, long orderCount, BigDecimal totalAmount) {}
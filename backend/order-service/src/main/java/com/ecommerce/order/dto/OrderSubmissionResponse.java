@@ -0,0 +1,14 @@
+package com.ecommerce.order.dto;
+
+import java.time.LocalDateTime;
+
+// orderId is set once the submission is COMPLETED; error is why it was REJECTED, or the last transient
+// failure while it waits to be retried.
+public record OrderSubmissionResponse(
+    String ticket,
+    String status,
+    Long orderId,
+    String error,
+    LocalDateTime submittedAt,
+    LocalDateTime completedAt
+) {}
@@ -0,0 +1,3 @@
+package com.ecommerce.order.dto;
+
+public record OrderViewRebuildResponse(int projectedOrders, int removedOrders) {}
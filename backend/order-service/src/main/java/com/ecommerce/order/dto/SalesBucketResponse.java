@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SalesBucketResponse(
+    LocalDateTime bucketStart,
+    long ordersCreated,
+    BigDecimal createdAmount,
+    long ordersPaid,
+    BigDecimal paidAmount,
+    long ordersCancelled,
+    BigDecimal cancelledAmount,
+    long ordersRefunded,
+    BigDecimal refundedAmount
+) {}
@@ -0,0 +1,7 @@
+package com.ecommerce.order.event;
+
+import org.springframework.lang.NonNull;
+
+import java.math.BigDecimal;
+
+public record InventoryReservedEvent(@NonNull Long orderId, BigDecimal totalAmount) {}
@@ -2,16 +2,35 @@ package com.ecommerce.order.event;
 
 import com.ecommerce.order.service.OrderService;
 import com.ecommerce.order.service.EventDeduplicationService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.log.LogAccessor;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Saga results are consumed a poll at a time: the batch claims its dedup markers in one insert and
+ * applies one set-based status update per topic. If the batch update fails, its markers are released
+ * and the records are replayed one by one, so a single bad record is retried and dead-lettered on its
+ * own instead of taking the whole poll with it.
+ */
 @Component
 @SuppressWarnings("null")
 public class OrderConsumer {
     private static final Logger logger = LoggerFactory.getLogger(OrderConsumer.class);
+    private static final LogAccessor logAccessor = new LogAccessor(OrderConsumer.class);
 
     @Autowired
     private OrderService orderService;
@@ -19,76 +38,114 @@ public class OrderConsumer {
     @Autowired
     private EventDeduplicationService eventDeduplicationService;
 
-    @KafkaListener(topics = "payment-success", groupId = "order-group")
-    public void handlePaymentSuccess(PaymentSuccessEvent event) {
-        String eventKey = "payment-success:" + event.orderId();
-        if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
-            return;
-        }
-        try {
-            logger.info("Order service received payment-success for order {}", event.orderId());
-            orderService.markPaid(event.orderId());
-        } catch (RuntimeException ex) {
-            eventDeduplicationService.markFailed(eventKey);
-            throw ex;
-        }
+    @KafkaListener(topics = "payment-success", groupId = "order-group", batch = "true")
+    public void handlePaymentSuccess(List<ConsumerRecord<String, PaymentSuccessEvent>> records) {
+        consume("payment-success", records, PaymentSuccessEvent::orderId,
+                orderService::markPaid, orderService::markPaid);
     }
 
-    @KafkaListener(topics = "payment-failed", groupId = "order-group")
-    public void handlePaymentFailed(PaymentFailedEvent event) {
-        String eventKey = "payment-failed:" + event.orderId();
-        if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
-            return;
-        }
-        try {
-            logger.info("Order service received payment-failed for order {}", event.orderId());
-            orderService.cancelAfterPaymentFailure(event.orderId());
-        } catch (RuntimeException ex) {
-            eventDeduplicationService.markFailed(eventKey);
-            throw ex;
-        }
+    @KafkaListener(topics = "payment-failed", groupId = "order-group", batch = "true")
+    public void handlePaymentFailed(List<ConsumerRecord<String, PaymentFailedEvent>> records) {
+        consume("payment-failed", records, PaymentFailedEvent::orderId,
+                orderService::cancelAfterPaymentFailure, orderService::cancelAfterPaymentFailure);
     }
 
-    @KafkaListener(topics = "inventory-failed", groupId = "order-group")
-    public void handleInventoryFailed(InventoryFailedEvent event) {
-        String eventKey = "inventory-failed:" + event.orderId();
-        if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
-            return;
-        }
-        try {
-            logger.info("Order service received inventory-failed for order {}", event.orderId());
-            orderService.cancelAfterInventoryFailure(event.orderId());
-        } catch (RuntimeException ex) {
-            eventDeduplicationService.markFailed(eventKey);
-            throw ex;
-        }
+    @KafkaListener(topics = "inventory-failed", groupId = "order-group", batch = "true")
+    public void handleInventoryFailed(List<ConsumerRecord<String, InventoryFailedEvent>> records) {
+        consume("inventory-failed", records, InventoryFailedEvent::orderId,
+                orderService::cancelAfterInventoryFailure, orderService::cancelAfterInventoryFailure);
+    }
+
+    @KafkaListener(topics = "refund-success", groupId = "order-group", batch = "true")
+    public void handleRefundSuccess(List<ConsumerRecord<String, RefundSuccessEvent>> records) {
+        // A voided payment was never taken: the order is cancelled without counting a refund.
+        Set<Long> voided = records.stream()
+                .map(ConsumerRecord::value)
+                .filter(event -> event != null && event.voided())
+                .map(RefundSuccessEvent::orderId)
+                .collect(Collectors.toSet());
+        consume("refund-success", records, RefundSuccessEvent::orderId,
+                orderIds -> orderService.markRefundCompleted(orderIds, voided),
+                orderId -> orderService.markRefundCompleted(List.of(orderId), voided));
+    }
+
+    @KafkaListener(topics = "refund-failed", groupId = "order-group", batch = "true")
+    public void handleRefundFailed(List<ConsumerRecord<String, RefundFailedEvent>> records) {
+        consume("refund-failed", records, RefundFailedEvent::orderId,
+                orderService::markRefundFailed, orderService::markRefundFailed);
     }
 
-    @KafkaListener(topics = "refund-success", groupId = "order-group")
-    public void handleRefundSuccess(RefundSuccessEvent event) {
-        String eventKey = "refund-success:" + event.orderId();
-        if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
-            return;
+    private <T> void consume(
+            String topic,
+            List<ConsumerRecord<String, T>> records,
+            Function<T, Long> orderIdOf,
+            Consumer<List<Long>> applyBatch,
+            Consumer<Long> applyOne) {
+        Map<String, Long> orderIdsByEventKey = new LinkedHashMap<>();
+        for (ConsumerRecord<String, T> record : records) {
+            if (record.value() != null) {
+                Long orderId = orderIdOf.apply(record.value());
+                orderIdsByEventKey.putIfAbsent(topic + ":" + orderId, orderId);
+            }
         }
-        try {
-            orderService.markRefundCompleted(event.orderId());
-        } catch (RuntimeException ex) {
-            eventDeduplicationService.markFailed(eventKey);
-            throw ex;
+
+        Set<String> claimed = eventDeduplicationService.tryStartProcessing(orderIdsByEventKey.keySet());
+        List<Long> orderIds = orderIdsByEventKey.entrySet().stream()
+                .filter(entry -> claimed.contains(entry.getKey()))
+                .map(Map.Entry::getValue)
+                .toList();
+        if (!orderIds.isEmpty()) {
+            try {
+                logger.info("Order service received {} {} events", orderIds.size(), topic);
+                applyBatch.accept(orderIds);
+            } catch (RuntimeException ex) {
+                eventDeduplicationService.markFailed(claimed);
+                logger.warn("Batch of {} {} events failed, retrying one record at a time", orderIds.size(), topic, ex);
+                consumeOneByOne(topic, records, orderIdOf, applyOne);
+                return;
+            }
         }
+        rejectUndeserializable(records);
     }
 
-    @KafkaListener(topics = "refund-failed", groupId = "order-group")
-    public void handleRefundFailed(RefundFailedEvent event) {
-        String eventKey = "refund-failed:" + event.orderId();
-        if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
-            return;
+    private <T> void consumeOneByOne(
+            String topic,
+            List<ConsumerRecord<String, T>> records,
+            Function<T, Long> orderIdOf,
+            Consumer<Long> applyOne) {
+        for (int index = 0; index < records.size(); index++) {
+            ConsumerRecord<String, T> record = records.get(index);
+            if (record.value() == null) {
+                throw undeserializable(record, index);
+            }
+            Long orderId = orderIdOf.apply(record.value());
+            String eventKey = topic + ":" + orderId;
+            if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
+                continue;
+            }
+            try {
+                applyOne.accept(orderId);
+            } catch (RuntimeException ex) {
+                eventDeduplicationService.markFailed(eventKey);
+                // Records before this one are committed; this one goes back to the error handler.
+                throw new BatchListenerFailedException("Failed to apply " + eventKey, ex, index);
+            }
         }
-        try {
-            orderService.markRefundFailed(event.orderId());
-        } catch (RuntimeException ex) {
-            eventDeduplicationService.markFailed(eventKey);
-            throw ex;
+    }
+
+    // Everything else in the poll has been applied; records after the bad one are redelivered and deduplicated.
+    private static <T> void rejectUndeserializable(List<ConsumerRecord<String, T>> records) {
+        for (int index = 0; index < records.size(); index++) {
+            if (records.get(index).value() == null) {
+                throw undeserializable(records.get(index), index);
+            }
         }
     }
+
+    private static BatchListenerFailedException undeserializable(ConsumerRecord<String, ?> record, int index) {
+        return new BatchListenerFailedException("Undeserializable record",
+                SerializationUtils.getExceptionFromHeader(
+                        record, SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER, logAccessor),
+                index);
+    }
 }
@@ -1,11 +1,13 @@
 package com.ecommerce.order.event;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public record OrderCreatedEvent(
     Long orderId,
     Long userId,
     BigDecimal totalAmount,
-    List<OrderItemEvent> items
+    List<OrderItemEvent> items,
+    LocalDateTime createdAt
 ) {}
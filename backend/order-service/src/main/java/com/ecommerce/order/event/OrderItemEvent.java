@@ -1,3 +1,5 @@
 package com.ecommerce.order.event;
 
-public record OrderItemEvent(Long productId, Integer quantity) {}
+import java.math.BigDecimal;
+
+public record OrderItemEvent(Long productId, Integer quantity, BigDecimal price) {}
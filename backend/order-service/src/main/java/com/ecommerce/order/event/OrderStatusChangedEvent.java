@@ -0,0 +1,9 @@
+package com.ecommerce.order.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Emitted on every order status change. {@code version} is the order row version the change
+ * committed with, so projections can drop events that arrive out of order.
+ */
+public record OrderStatusChangedEvent(Long orderId, String status, Long version, LocalDateTime changedAt) {}
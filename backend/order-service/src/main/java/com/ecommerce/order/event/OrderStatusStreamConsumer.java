@@ -0,0 +1,32 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.status.OrderStatusHub;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+/**
+ * Relays every status change to this instance's order status streams, whichever instance applied
+ * it. Each instance reads every partition from the end, without a consumer group: a stream only
+ * needs changes made after it opened, and nothing is left behind in the broker when an instance
+ * goes away.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderStatusStreamConsumer {
+
+    @Autowired
+    private OrderStatusHub orderStatusHub;
+
+    @KafkaListener(
+            topicPartitions = @TopicPartition(
+                    topic = "order-status-changed",
+                    partitionOffsets = @PartitionOffset(partition = "*", initialOffset = "0", relativeToCurrent = "true")),
+            containerFactory = "orderStatusStreamContainerFactory")
+    public void onStatusChanged(@Payload OrderStatusChangedEvent event) {
+        orderStatusHub.publish(event);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.service.OrderViewProjector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Feeds the order_view projection. Runs in its own consumer group so the read model keeps separate
+ * offsets from the saga handlers; projector writes are idempotent, so no dedup table is needed. It
+ * keeps running when {@code orders.read-model.enabled} is off so the view is current when reads switch back.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderViewConsumer {
+
+    @Autowired
+    private OrderViewProjector projector;
+
+    @KafkaListener(topics = "order-created", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onOrderCreated(@Payload OrderCreatedEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        LocalDateTime producedAt = toLocalDateTime(timestamp);
+        projector.projectCreated(event, producedAt);
+        projector.observeLag(producedAt);
+    }
+
+    @KafkaListener(topics = "order-status-changed", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onStatusChanged(@Payload OrderStatusChangedEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        LocalDateTime producedAt = toLocalDateTime(timestamp);
+        projector.projectStatusChange(event, producedAt);
+        projector.observeLag(producedAt);
+    }
+
+    @KafkaListener(topics = "inventory-reserved", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onInventoryReserved(@Payload InventoryReservedEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        LocalDateTime producedAt = toLocalDateTime(timestamp);
+        projector.stampReserved(event.orderId(), producedAt);
+        projector.observeLag(producedAt);
+    }
+
+    @KafkaListener(topics = "inventory-failed", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onInventoryFailed(@Payload InventoryFailedEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        projector.recordFailure(event.orderId(), "Inventory: " + event.reason());
+        projector.observeLag(toLocalDateTime(timestamp));
+    }
+
+    @KafkaListener(topics = "payment-success", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onPaymentSuccess(@Payload PaymentSuccessEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        LocalDateTime producedAt = toLocalDateTime(timestamp);
+        projector.stampPaid(event.orderId(), producedAt);
+        projector.observeLag(producedAt);
+    }
+
+    @KafkaListener(topics = "payment-failed", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onPaymentFailed(@Payload PaymentFailedEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        projector.recordFailure(event.orderId(), "Payment: " + event.reason());
+        projector.observeLag(toLocalDateTime(timestamp));
+    }
+
+    @KafkaListener(topics = "refund-success", groupId = "${orders.read-model.group-id:order-view-group}")
+    public void onRefundSuccess(@Payload RefundSuccessEvent event, @Header(KafkaHeaders.RECEIVED_TIMESTAMP) long timestamp) {
+        LocalDateTime producedAt = toLocalDateTime(timestamp);
+        if (!event.voided()) {
+            projector.stampRefunded(event.orderId(), producedAt);
+        }
+        projector.observeLag(producedAt);
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
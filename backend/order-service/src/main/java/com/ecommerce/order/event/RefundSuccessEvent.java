@@ -1,3 +1,11 @@
 package com.ecommerce.order.event;
 
-public record RefundSuccessEvent(Long orderId, String transactionId) {}
+/**
+ * {@code status} is {@code VOIDED} when the order was never charged; older events without it were refunds.
+ */
+public record RefundSuccessEvent(Long orderId, String transactionId, String status) {
+
+    public boolean voided() {
+        return "VOIDED".equals(status);
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.order.idempotency;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OrderIdempotencyRepository extends JpaRepository<OrderIdempotency, Long> {
+
+    Optional<OrderIdempotency> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    @Modifying
+    @Query("DELETE FROM OrderIdempotency i WHERE i.userId = :userId AND i.idempotencyKey = :key AND i.expiresAt < :now")
+    int deleteExpired(@Param("userId") Long userId, @Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OrderIdempotency i WHERE i.expiresAt < :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
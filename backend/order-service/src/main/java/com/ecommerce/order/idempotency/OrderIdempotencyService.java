@@ -0,0 +1,268 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Answers a repeated {@code POST /orders} carrying the same {@code Idempotency-Key} with the first
+ * request's response, from a bounded in-memory LRU and then from {@code order_idempotency}. A
+ * duplicate that arrives while the first request is still running on this instance waits for its
+ * outcome. Across instances the unique (user_id, idempotency_key) index picks the winner: the other
+ * order transaction rolls back and that request answers with the stored response.
+ */
+@Service
+public class OrderIdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final OrderIdempotencyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration ttl;
+    private final long waitTimeoutMs;
+    private final Map<String, Stored> recent;
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Counter memoryReplays;
+    private final Counter storedReplays;
+    private final Counter joinedInFlight;
+
+    @Autowired
+    public OrderIdempotencyService(
+            OrderIdempotencyRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${orders.idempotency.ttl-ms:86400000}") long ttlMs,
+            @Value("${orders.idempotency.max-entries:10000}") int maxEntries,
+            @Value("${orders.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this(repository, objectMapper, meterRegistry, ttlMs, maxEntries, waitTimeoutMs, Clock.systemDefaultZone());
+    }
+
+    OrderIdempotencyService(
+            OrderIdempotencyRepository repository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            long ttlMs,
+            int maxEntries,
+            long waitTimeoutMs,
+            Clock clock) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttl = Duration.ofMillis(ttlMs);
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Stored> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.memoryReplays = Counter.builder("orders.idempotency.replays")
+                .tag("source", "memory")
+                .register(meterRegistry);
+        this.storedReplays = Counter.builder("orders.idempotency.replays")
+                .tag("source", "database")
+                .register(meterRegistry);
+        this.joinedInFlight = Counter.builder("orders.idempotency.replays")
+                .tag("source", "in-flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code create} at most once per user and key within the TTL. {@code create} must call
+     * {@link #record} inside the transaction that inserts the order.
+     */
+    public OrderResponse execute(Long userId, String key, OrderRequest request, Function<Claim, OrderResponse> create) {
+        if (key == null || key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        Claim claim = new Claim(userId, key, fingerprint(request), LocalDateTime.now(clock).plus(ttl));
+        String cacheKey = userId + ":" + key;
+
+        Stored remembered = remembered(cacheKey);
+        if (remembered != null) {
+            memoryReplays.increment();
+            return replay(claim, remembered);
+        }
+
+        InFlight mine = new InFlight(claim.requestHash(), new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            return await(claim, running);
+        }
+        try {
+            Stored outcome = findStored(claim).orElse(null);
+            if (outcome != null) {
+                storedReplays.increment();
+            } else {
+                outcome = createOnce(claim, create);
+            }
+            remember(cacheKey, outcome);
+            OrderResponse response = replay(claim, outcome);
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException ex) {
+            mine.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * Stores the key with the order's response. Joins the caller's transaction, so the key commits
+     * or rolls back with the order; a key held by another committed order fails the flush here rather
+     * than at commit.
+     */
+    @Transactional
+    public void record(Claim claim, Long orderId, OrderResponse response) {
+        repository.deleteExpired(claim.userId(), claim.key(), LocalDateTime.now(clock));
+        repository.saveAndFlush(OrderIdempotency.builder()
+                .userId(claim.userId())
+                .idempotencyKey(claim.key())
+                .requestHash(claim.requestHash())
+                .orderId(orderId)
+                .response(write(response))
+                .expiresAt(claim.expiresAt())
+                .build());
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = repository.deleteAllExpired(LocalDateTime.now(clock));
+        if (purged > 0) {
+            logger.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private Stored createOnce(Claim claim, Function<Claim, OrderResponse> create) {
+        try {
+            return new Stored(claim.requestHash(), create.apply(claim), claim.expiresAt());
+        } catch (DataIntegrityViolationException ex) {
+            // Another instance committed an order under this key first; our order was rolled back.
+            Stored stored = findStored(claim).orElseThrow(() -> ex);
+            storedReplays.increment();
+            return stored;
+        }
+    }
+
+    private OrderResponse await(Claim claim, InFlight running) {
+        if (!running.requestHash().equals(claim.requestHash())) {
+            throw keyReused();
+        }
+        joinedInFlight.increment();
+        try {
+            return running.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ResourceConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for an in-flight order request", ex);
+        }
+    }
+
+    private OrderResponse replay(Claim claim, Stored stored) {
+        if (!stored.requestHash().equals(claim.requestHash())) {
+            throw keyReused();
+        }
+        return stored.response();
+    }
+
+    private Optional<Stored> findStored(Claim claim) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return repository.findByUserIdAndIdempotencyKey(claim.userId(), claim.key())
+                .filter(row -> row.getExpiresAt().isAfter(now))
+                .map(row -> new Stored(row.getRequestHash(), read(row.getResponse()), row.getExpiresAt()));
+    }
+
+    private Stored remembered(String cacheKey) {
+        synchronized (recent) {
+            Stored stored = recent.get(cacheKey);
+            if (stored != null && !stored.expiresAt().isAfter(LocalDateTime.now(clock))) {
+                recent.remove(cacheKey);
+                return null;
+            }
+            return stored;
+        }
+    }
+
+    private void remember(String cacheKey, Stored stored) {
+        synchronized (recent) {
+            recent.put(cacheKey, stored);
+        }
+    }
+
+    String fingerprint(OrderRequest request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Failed to fingerprint order request", ex);
+        }
+    }
+
+    private String write(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize order response", ex);
+        }
+    }
+
+    private OrderResponse read(String response) {
+        try {
+            return objectMapper.readValue(response, OrderResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to read stored order response", ex);
+        }
+    }
+
+    private static ResourceConflictException keyReused() {
+        return new ResourceConflictException("Idempotency-Key was already used with a different order request");
+    }
+
+    public record Claim(Long userId, String key, String requestHash, LocalDateTime expiresAt) {
+    }
+
+    private record Stored(String requestHash, OrderResponse response, LocalDateTime expiresAt) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> result) {
+    }
+}
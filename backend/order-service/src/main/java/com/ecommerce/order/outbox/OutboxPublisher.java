@@ -4,6 +4,7 @@ import com.ecommerce.common.event.EventContractVersions;
 import com.ecommerce.order.event.InventoryFailedEvent;
 import com.ecommerce.order.event.OrderCancelledEvent;
 import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
 import com.ecommerce.order.event.PaymentFailedEvent;
 import com.ecommerce.order.event.PaymentSuccessEvent;
 import com.ecommerce.order.event.RefundRequestedEvent;
@@ -127,6 +128,7 @@ public class OutboxPublisher {
         return switch (eventType) {
             case "order-created" -> objectMapper.readValue(payload, OrderCreatedEvent.class);
             case "order-cancelled" -> objectMapper.readValue(payload, OrderCancelledEvent.class);
+            case "order-status-changed" -> objectMapper.readValue(payload, OrderStatusChangedEvent.class);
             case "payment-success" -> objectMapper.readValue(payload, PaymentSuccessEvent.class);
             case "payment-failed" -> objectMapper.readValue(payload, PaymentFailedEvent.class);
             case "inventory-failed" -> objectMapper.readValue(payload, InventoryFailedEvent.class);
@@ -2,13 +2,27 @@ package com.ecommerce.order.repository;
 
 import com.ecommerce.order.domain.Order;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(Long userId);
-    Optional<Order> findByIdAndUserId(Long id, Long userId);
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>,
+        OrderStatusTransitions {
+    // With archived bound, only one tier's partitions are searched.
+    Optional<Order> findByIdAndArchived(Long id, boolean archived);
+
+    Optional<Order> findByIdAndUserIdAndArchived(Long id, Long userId, boolean archived);
+
+    @Query("SELECT o.userId AS userId, o.version AS version FROM Order o WHERE o.id = :id")
+    Optional<VersionStamp> findVersionStampById(@Param("id") Long id);
+
+    interface VersionStamp {
+        Long getUserId();
+
+        Long getVersion();
+    }
 }
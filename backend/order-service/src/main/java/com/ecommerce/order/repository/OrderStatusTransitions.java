@@ -0,0 +1,27 @@
+package com.ecommerce.order.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Set-based status changes that skip loading the order entity.
+ */
+public interface OrderStatusTransitions {
+
+    /**
+     * Moves each order to {@code toStatus} only if its current status is one of {@code fromStatuses},
+     * in a single conditional UPDATE that also bumps the optimistic-lock version. Orders that are
+     * missing or in another status are left out of the result, which also gives each order's previous
+     * status and total amount.
+     */
+    List<AppliedTransition> transitionStatuses(Collection<Long> orderIds, Collection<String> fromStatuses, String toStatus);
+
+    Map<Long, String> findStatusesByIds(Collection<Long> orderIds);
+
+    record AppliedTransition(
+            Long orderId, String previousStatus, String status, BigDecimal totalAmount, Long version, LocalDateTime updatedAt) {
+    }
+}
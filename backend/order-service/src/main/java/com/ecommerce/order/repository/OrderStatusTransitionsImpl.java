@@ -0,0 +1,72 @@
+package com.ecommerce.order.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class OrderStatusTransitionsImpl implements OrderStatusTransitions {
+
+    // Version is bumped so a concurrent entity update (cancelOrder) still fails its optimistic lock,
+    // and the saga watchdog's retries start over for the new status.
+    // The rows are locked first so the status they are moved from can be returned: RETURNING only
+    // sees the new row, and a lock re-reads a row a concurrent transaction has just changed.
+    private static final String TRANSITION = """
+            WITH previous AS (
+                SELECT id, created_at, archived, status
+                FROM orders
+                WHERE id IN (:orderIds) AND status IN (:fromStatuses)
+                FOR UPDATE
+            )
+            UPDATE orders o
+            SET status = :toStatus, updated_at = :updatedAt, version = o.version + 1,
+                saga_retries = 0, saga_retried_at = NULL
+            FROM previous
+            WHERE o.id = previous.id AND o.created_at = previous.created_at AND o.archived = previous.archived
+            RETURNING o.id, o.version, o.updated_at, o.total_amount, previous.status AS previous_status
+            """;
+
+    private static final String FIND_STATUSES = "SELECT id, status FROM orders WHERE id IN (:orderIds)";
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<AppliedTransition> transitionStatuses(
+            Collection<Long> orderIds, Collection<String> fromStatuses, String toStatus) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        // Stamped from the JVM clock like @PreUpdate, so updated_at means the same thing on every write path.
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("orderIds", orderIds)
+                .addValue("fromStatuses", fromStatuses)
+                .addValue("toStatus", toStatus)
+                .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.query(TRANSITION, params, (rs, rowNum) -> new AppliedTransition(
+                rs.getLong("id"),
+                rs.getString("previous_status"),
+                toStatus,
+                rs.getBigDecimal("total_amount"),
+                rs.getLong("version"),
+                rs.getTimestamp("updated_at").toLocalDateTime()));
+    }
+
+    @Override
+    public Map<Long, String> findStatusesByIds(Collection<Long> orderIds) {
+        Map<Long, String> statuses = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return statuses;
+        }
+        jdbcTemplate.query(FIND_STATUSES, new MapSqlParameterSource("orderIds", orderIds), rs -> {
+            statuses.put(rs.getLong("id"), rs.getString("status"));
+        });
+        return statuses;
+    }
+}
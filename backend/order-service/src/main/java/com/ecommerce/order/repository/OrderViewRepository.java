@@ -0,0 +1,24 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.domain.OrderView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface OrderViewRepository extends JpaRepository<OrderView, Long>, JpaSpecificationExecutor<OrderView> {
+
+    @Query("SELECT v.userId AS userId, v.projectedAt AS projectedAt FROM OrderView v WHERE v.id = :id AND v.userId IS NOT NULL")
+    Optional<ProjectionStamp> findProjectionStampById(@Param("id") Long id);
+
+    interface ProjectionStamp {
+        Long getUserId();
+
+        LocalDateTime getProjectedAt();
+    }
+}
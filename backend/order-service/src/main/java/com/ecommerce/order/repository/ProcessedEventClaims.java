@@ -0,0 +1,13 @@
+package com.ecommerce.order.repository;
+
+import java.util.Collection;
+import java.util.Set;
+
+public interface ProcessedEventClaims {
+
+    /**
+     * Inserts a marker for every key in one statement and returns the keys this call inserted;
+     * keys that already had a marker are left out.
+     */
+    Set<String> insertAllIgnoreConflict(Collection<String> eventKeys);
+}
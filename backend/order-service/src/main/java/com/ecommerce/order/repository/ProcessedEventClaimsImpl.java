@@ -0,0 +1,31 @@
+package com.ecommerce.order.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+class ProcessedEventClaimsImpl implements ProcessedEventClaims {
+
+    private static final String INSERT = """
+            INSERT INTO processed_events (event_key) VALUES :rows
+            ON CONFLICT (event_key) DO NOTHING
+            RETURNING event_key
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public Set<String> insertAllIgnoreConflict(Collection<String> eventKeys) {
+        if (eventKeys.isEmpty()) {
+            return Set.of();
+        }
+        List<Object[]> rows = eventKeys.stream().map(key -> new Object[] {key}).toList();
+        return new HashSet<>(jdbcTemplate.queryForList(INSERT, new MapSqlParameterSource("rows", rows), String.class));
+    }
+}
@@ -7,8 +7,10 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
-public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long> {
+public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent, Long>, ProcessedEventClaims {
     @Modifying
     @Query(
             value = "INSERT INTO processed_events (event_key) VALUES (:eventKey) ON CONFLICT (event_key) DO NOTHING",
@@ -16,4 +18,8 @@ public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent,
     int insertIgnoreConflict(@Param("eventKey") String eventKey);
 
     void deleteByEventKey(String eventKey);
+
+    @Modifying
+    @Query("DELETE FROM ProcessedEvent p WHERE p.eventKey IN :eventKeys")
+    int deleteByEventKeyIn(@Param("eventKeys") Collection<String> eventKeys);
 }
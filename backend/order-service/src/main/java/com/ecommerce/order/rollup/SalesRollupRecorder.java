@@ -0,0 +1,241 @@
+package com.ecommerce.order.rollup;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the dashboard rollups (V15) current from the transactions that create orders and change
+ * their status. Changes are added up in memory for the transaction and written just before it
+ * commits, one upsert per rollup row it touched, so the hot rows are locked only for the commit
+ * itself. Each transaction writes to one slot picked at random, and rows are upserted in key
+ * order so two transactions never wait on each other's rows in opposite orders.
+ *
+ * <p>Buckets are the hour and the day, on the service's clock, in which the change happened.
+ */
+@Component
+@SuppressWarnings("null")
+public class SalesRollupRecorder {
+
+    public static final String HOUR = "HOUR";
+    public static final String DAY = "DAY";
+
+    private static final String UPSERT_SALES = """
+            INSERT INTO order_sales_rollups (period, bucket_start, slot, orders_created, created_amount,
+                orders_paid, paid_amount, orders_cancelled, cancelled_amount, orders_refunded, refunded_amount)
+            VALUES (:period, :bucketStart, :slot, :ordersCreated, :createdAmount,
+                :ordersPaid, :paidAmount, :ordersCancelled, :cancelledAmount, :ordersRefunded, :refundedAmount)
+            ON CONFLICT (period, bucket_start, slot) DO UPDATE SET
+                orders_created = order_sales_rollups.orders_created + EXCLUDED.orders_created,
+                created_amount = order_sales_rollups.created_amount + EXCLUDED.created_amount,
+                orders_paid = order_sales_rollups.orders_paid + EXCLUDED.orders_paid,
+                paid_amount = order_sales_rollups.paid_amount + EXCLUDED.paid_amount,
+                orders_cancelled = order_sales_rollups.orders_cancelled + EXCLUDED.orders_cancelled,
+                cancelled_amount = order_sales_rollups.cancelled_amount + EXCLUDED.cancelled_amount,
+                orders_refunded = order_sales_rollups.orders_refunded + EXCLUDED.orders_refunded,
+                refunded_amount = order_sales_rollups.refunded_amount + EXCLUDED.refunded_amount
+            """;
+
+    private static final String UPSERT_STATUS = """
+            INSERT INTO order_status_totals (status, slot, order_count, total_amount)
+            VALUES (:status, :slot, :orderCount, :totalAmount)
+            ON CONFLICT (status, slot) DO UPDATE SET
+                order_count = order_status_totals.order_count + EXCLUDED.order_count,
+                total_amount = order_status_totals.total_amount + EXCLUDED.total_amount
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Value("${orders.rollups.slots:8}")
+    private int slots;
+
+    /**
+     * Counts a new order in {@code status}.
+     */
+    public void orderCreated(String status, BigDecimal amount, LocalDateTime createdAt) {
+        PendingRollups pending = pending();
+        pending.sales(createdAt, sales -> sales.created(amount));
+        pending.status(status).add(1, amount);
+    }
+
+    /**
+     * Moves an order from {@code fromStatus} to {@code toStatus}. Entering {@code PAID} counts as a
+     * payment, entering {@code CANCELLED} as a cancellation, and a cancellation that completes a
+     * refund as a refund too.
+     */
+    public void statusChanged(String fromStatus, String toStatus, BigDecimal amount, LocalDateTime changedAt) {
+        statusChanged(fromStatus, toStatus, amount, changedAt, true);
+    }
+
+    /**
+     * Like {@link #statusChanged}, but a cancellation completing a refund is not counted as a refund:
+     * the payment was voided, so no money moved.
+     */
+    public void statusChangedWithoutRefund(String fromStatus, String toStatus, BigDecimal amount, LocalDateTime changedAt) {
+        statusChanged(fromStatus, toStatus, amount, changedAt, false);
+    }
+
+    private void statusChanged(
+            String fromStatus, String toStatus, BigDecimal amount, LocalDateTime changedAt, boolean moneyMoved) {
+        if (fromStatus.equals(toStatus)) {
+            return;
+        }
+        PendingRollups pending = pending();
+        pending.status(fromStatus).add(-1, amount.negate());
+        pending.status(toStatus).add(1, amount);
+        if ("PAID".equals(toStatus)) {
+            pending.sales(changedAt, sales -> sales.paid(amount));
+        } else if ("CANCELLED".equals(toStatus)) {
+            boolean refunded = moneyMoved && "REFUND_PENDING".equals(fromStatus);
+            pending.sales(changedAt, sales -> sales.cancelled(amount, refunded));
+        }
+    }
+
+    // Looked up among the synchronizations rather than bound as a resource, so a suspended outer
+    // transaction keeps its own pending changes.
+    private PendingRollups pending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Sales rollups can only be recorded in the transaction that changes the orders");
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingRollups pending && pending.recorder() == this) {
+                return pending;
+            }
+        }
+        PendingRollups pending = new PendingRollups(ThreadLocalRandom.current().nextInt(Math.max(slots, 1)));
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private void write(PendingRollups pending) {
+        SqlParameterSource[] sales = pending.sales.entrySet().stream()
+                .map(entry -> entry.getValue().params(entry.getKey(), pending.slot))
+                .toArray(SqlParameterSource[]::new);
+        if (sales.length > 0) {
+            namedParameterJdbcTemplate.batchUpdate(UPSERT_SALES, sales);
+        }
+        SqlParameterSource[] statuses = pending.statuses.entrySet().stream()
+                .filter(entry -> !entry.getValue().isZero())
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("status", entry.getKey())
+                        .addValue("slot", pending.slot)
+                        .addValue("orderCount", entry.getValue().count)
+                        .addValue("totalAmount", entry.getValue().amount))
+                .toArray(SqlParameterSource[]::new);
+        if (statuses.length > 0) {
+            namedParameterJdbcTemplate.batchUpdate(UPSERT_STATUS, statuses);
+        }
+    }
+
+    private final class PendingRollups implements TransactionSynchronization {
+        private final int slot;
+        private final Map<BucketKey, SalesChange> sales = new TreeMap<>();
+        private final Map<String, StatusChange> statuses = new TreeMap<>();
+
+        private PendingRollups(int slot) {
+            this.slot = slot;
+        }
+
+        private SalesRollupRecorder recorder() {
+            return SalesRollupRecorder.this;
+        }
+
+        private void sales(LocalDateTime at, Consumer<SalesChange> change) {
+            change.accept(sales.computeIfAbsent(
+                    new BucketKey(HOUR, at.truncatedTo(ChronoUnit.HOURS)), key -> new SalesChange()));
+            change.accept(sales.computeIfAbsent(
+                    new BucketKey(DAY, at.truncatedTo(ChronoUnit.DAYS)), key -> new SalesChange()));
+        }
+
+        private StatusChange status(String status) {
+            return statuses.computeIfAbsent(status, key -> new StatusChange());
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            write(this);
+        }
+    }
+
+    private record BucketKey(String period, LocalDateTime bucketStart) implements Comparable<BucketKey> {
+        @Override
+        public int compareTo(BucketKey other) {
+            int byPeriod = period.compareTo(other.period);
+            return byPeriod != 0 ? byPeriod : bucketStart.compareTo(other.bucketStart);
+        }
+    }
+
+    private static class SalesChange {
+        private long ordersCreated;
+        private BigDecimal createdAmount = BigDecimal.ZERO;
+        private long ordersPaid;
+        private BigDecimal paidAmount = BigDecimal.ZERO;
+        private long ordersCancelled;
+        private BigDecimal cancelledAmount = BigDecimal.ZERO;
+        private long ordersRefunded;
+        private BigDecimal refundedAmount = BigDecimal.ZERO;
+
+        void created(BigDecimal amount) {
+            ordersCreated++;
+            createdAmount = createdAmount.add(amount);
+        }
+
+        void paid(BigDecimal amount) {
+            ordersPaid++;
+            paidAmount = paidAmount.add(amount);
+        }
+
+        void cancelled(BigDecimal amount, boolean refunded) {
+            ordersCancelled++;
+            cancelledAmount = cancelledAmount.add(amount);
+            if (refunded) {
+                ordersRefunded++;
+                refundedAmount = refundedAmount.add(amount);
+            }
+        }
+
+        MapSqlParameterSource params(BucketKey key, int slot) {
+            return new MapSqlParameterSource()
+                    .addValue("period", key.period())
+                    .addValue("bucketStart", Timestamp.valueOf(key.bucketStart()))
+                    .addValue("slot", slot)
+                    .addValue("ordersCreated", ordersCreated)
+                    .addValue("createdAmount", createdAmount)
+                    .addValue("ordersPaid", ordersPaid)
+                    .addValue("paidAmount", paidAmount)
+                    .addValue("ordersCancelled", ordersCancelled)
+                    .addValue("cancelledAmount", cancelledAmount)
+                    .addValue("ordersRefunded", ordersRefunded)
+                    .addValue("refundedAmount", refundedAmount);
+        }
+    }
+
+    private static class StatusChange {
+        private long count;
+        private BigDecimal amount = BigDecimal.ZERO;
+
+        void add(long count, BigDecimal amount) {
+            this.count += count;
+            this.amount = this.amount.add(amount);
+        }
+
+        boolean isZero() {
+            return count == 0 && amount.signum() == 0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds orders the saga has left waiting, because an event was lost or parked in a dead-letter
+ * topic, and moves them on. An order is stuck once it has not changed status for
+ * {@code orders.saga-watchdog.stuck-after-minutes}. The event it is waiting on is then re-sent up to
+ * {@code max-retries} times, one interval apart. After that the order is given up on: an order
+ * still awaiting payment goes down the refund path, since its payment may have gone through even
+ * though the order never heard of it, and a pending refund becomes {@code REFUND_FAILED}.
+ *
+ * <p>Only unsettled orders are ever read, through the partial index that covers them (V13), so a
+ * run costs the same however many settled orders the table holds. Instances claim stuck orders in
+ * {@code SKIP LOCKED} batches, and a saga event for a claimed order waits for the batch to commit.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderSagaWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSagaWatchdog.class);
+    private static final List<String> AWAITING_PAYMENT = List.of("CREATED", "PLACED", "PAYMENT_PENDING");
+    private static final List<String> REFUND_IN_PROGRESS = List.of("REFUND_PENDING");
+
+    // Statuses are literals so every plan, generic ones included, can use the partial index. An
+    // order's last change is never before its creation, so created_at bounds the index scan. The claim
+    // has no ORDER BY: sorting by age would walk the created_at index through settled orders instead.
+    private static final String WATCHED = """
+            FROM orders
+            WHERE archived = FALSE
+              AND status IN ('CREATED', 'PLACED', 'PAYMENT_PENDING', 'REFUND_PENDING')
+              AND created_at < :stuckBefore
+            """;
+
+    private static final String CLAIM_STUCK = "SELECT id, status, saga_retries " + WATCHED + """
+              AND GREATEST(saga_retried_at, updated_at, created_at) < :stuckBefore
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String RECORD_RETRY = """
+            UPDATE orders SET saga_retries = saga_retries + 1, saga_retried_at = :retriedAt
+            WHERE archived = FALSE AND id IN (:orderIds)
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${orders.saga-watchdog.stuck-after-minutes:15}")
+    private long stuckAfterMinutes;
+
+    @Value("${orders.saga-watchdog.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${orders.saga-watchdog.batch-size:100}")
+    private int batchSize;
+
+    // Ascending; the histogram counts stuck orders older than each bound.
+    @Value("${orders.saga-watchdog.age-buckets-minutes:15,60,360,1440}")
+    private List<Long> ageBucketsMinutes;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> stuckOrders = new ConcurrentHashMap<>();
+
+    @Autowired
+    public OrderSagaWatchdog(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.saga-watchdog.interval-ms:60000}")
+    public void run() {
+        try {
+            recordStuckOrders();
+            Integer handled;
+            do {
+                handled = transactionTemplate.execute(status -> handleBatch());
+            } while (handled != null && handled == batchSize);
+        } catch (RuntimeException ex) {
+            logger.error("Order saga watchdog failed", ex);
+        }
+    }
+
+    /**
+     * Claims one batch of stuck orders and re-sends or gives up on each; returns how many were claimed.
+     * Must run in a transaction, which holds the claimed rows until the outbox rows are written.
+     */
+    int handleBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("stuckBefore", Timestamp.valueOf(now.minusMinutes(stuckAfterMinutes)))
+                .addValue("batchSize", batchSize);
+        List<StuckOrder> stuck = namedParameterJdbcTemplate.query(CLAIM_STUCK, params, (rs, rowNum) ->
+                new StuckOrder(rs.getLong("id"), rs.getString("status"), rs.getInt("saga_retries")));
+
+        List<Long> resendOrderCreated = new ArrayList<>();
+        List<Long> resendRefundRequested = new ArrayList<>();
+        List<Long> expireAwaitingPayment = new ArrayList<>();
+        List<Long> expireRefund = new ArrayList<>();
+        for (StuckOrder order : stuck) {
+            boolean retry = order.retries() < maxRetries;
+            if (REFUND_IN_PROGRESS.contains(order.status())) {
+                (retry ? resendRefundRequested : expireRefund).add(order.id());
+            } else {
+                (retry ? resendOrderCreated : expireAwaitingPayment).add(order.id());
+            }
+            Counter.builder(retry ? "orders.saga.retried" : "orders.saga.expired")
+                    .description(retry
+                            ? "Saga events re-sent for stuck orders"
+                            : "Stuck orders moved to a final status after their retries ran out")
+                    .tag("status", order.status())
+                    .register(meterRegistry)
+                    .increment();
+        }
+
+        if (!resendOrderCreated.isEmpty()) {
+            orderService.resendOrderCreated(resendOrderCreated);
+        }
+        if (!resendRefundRequested.isEmpty()) {
+            orderService.resendRefundRequested(resendRefundRequested);
+        }
+        if (!expireAwaitingPayment.isEmpty()) {
+            orderService.expireAwaitingPayment(expireAwaitingPayment);
+        }
+        if (!expireRefund.isEmpty()) {
+            orderService.expireRefund(expireRefund);
+        }
+        List<Long> retried = new ArrayList<>(resendOrderCreated);
+        retried.addAll(resendRefundRequested);
+        if (!retried.isEmpty()) {
+            namedParameterJdbcTemplate.update(RECORD_RETRY, new MapSqlParameterSource()
+                    .addValue("retriedAt", Timestamp.valueOf(now))
+                    .addValue("orderIds", retried));
+        }
+        if (!stuck.isEmpty()) {
+            logger.warn("Saga watchdog re-sent events for {} and gave up on {} stuck orders",
+                    retried.size(), stuck.size() - retried.size());
+        }
+        return stuck.size();
+    }
+
+    /**
+     * Counts stuck orders per status and age bucket in one pass over the unsettled orders, exported
+     * as {@code orders.saga.stuck{status, older_than_minutes}}. Age is time since the last status change.
+     */
+    void recordStuckOrders() {
+        LocalDateTime now = LocalDateTime.now();
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("stuckBefore", Timestamp.valueOf(now.minusMinutes(ageBucketsMinutes.get(0))));
+        StringBuilder sql = new StringBuilder("SELECT status");
+        for (Long minutes : ageBucketsMinutes) {
+            sql.append(", COUNT(*) FILTER (WHERE COALESCE(updated_at, created_at) < :before").append(minutes)
+                    .append(") AS older_than_").append(minutes);
+            params.addValue("before" + minutes, Timestamp.valueOf(now.minusMinutes(minutes)));
+        }
+        sql.append(' ').append(WATCHED).append("GROUP BY status");
+
+        Map<String, Map<String, Object>> counts = new HashMap<>();
+        for (Map<String, Object> row : namedParameterJdbcTemplate.queryForList(sql.toString(), params)) {
+            counts.put((String) row.get("status"), row);
+        }
+        for (String status : watchedStatuses()) {
+            for (Long minutes : ageBucketsMinutes) {
+                Object count = counts.getOrDefault(status, Map.of()).get("older_than_" + minutes);
+                stuckGauge(status, minutes).set(count instanceof Number number ? number.longValue() : 0);
+            }
+        }
+    }
+
+    private AtomicLong stuckGauge(String status, Long minutes) {
+        return stuckOrders.computeIfAbsent(status + "|" + minutes, key -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("orders.saga.stuck", value, AtomicLong::get)
+                    .description("Orders waiting on the saga for longer than older_than_minutes")
+                    .tag("status", status)
+                    .tag("older_than_minutes", String.valueOf(minutes))
+                    .register(meterRegistry);
+            return value;
+        });
+    }
+
+    private static List<String> watchedStatuses() {
+        List<String> statuses = new ArrayList<>(AWAITING_PAYMENT);
+        statuses.addAll(REFUND_IN_PROGRESS);
+        return statuses;
+    }
+
+    record StuckOrder(long id, String status, int retries) {
+    }
+}
@@ -0,0 +1,216 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.domain.OrderItem;
+import com.ecommerce.order.dto.BulkOrderRequest;
+import com.ecommerce.order.dto.BulkOrderResult;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Creates partner order files sent as NDJSON, one order per line. The whole file is read and priced
+ * against one deduplicated catalog lookup before any transaction opens. Accepted orders are then
+ * inserted {@code chunk-size} at a time, one transaction per chunk, and a result line per input line
+ * is streamed back in input order as each chunk commits.
+ */
+@Service
+public class BulkOrderService {
+    private static final Logger logger = LoggerFactory.getLogger(BulkOrderService.class);
+
+    static final String CHUNK_UNAVAILABLE = "Chunk rejected: database temporarily unavailable, resubmit these orders";
+    static final String CHUNK_FAILED = "Chunk rejected: internal error";
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Value("${orders.bulk.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${orders.bulk.max-orders:10000}")
+    private int maxOrders;
+
+    /**
+     * Parses, validates and prices every line. Lines that fail keep their place as rejections; a
+     * catalog outage fails the whole request before anything is written.
+     */
+    public List<PreparedOrder> prepare(InputStream body) throws IOException {
+        List<PreparedOrder> parsed = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (parsed.size() == maxOrders) {
+                    throw new BadRequestException("Bulk request exceeds " + maxOrders + " orders");
+                }
+                parsed.add(parse(line, lineNumber));
+            }
+        }
+        if (parsed.isEmpty()) {
+            throw new BadRequestException("Bulk request contains no orders");
+        }
+
+        List<OrderRequest> requests = parsed.stream()
+                .filter(order -> order.error() == null)
+                .map(PreparedOrder::request)
+                .toList();
+        Map<Long, ProductCatalogClient.ProductInfo> products = requests.isEmpty()
+                ? Map.of()
+                : orderService.resolveProducts(requests, false);
+        return parsed.stream().map(order -> price(order, products)).toList();
+    }
+
+    /**
+     * Inserts the accepted orders and writes one NDJSON result per prepared line to {@code out}.
+     */
+    public void create(Long userId, List<PreparedOrder> orders, OutputStream out) throws IOException {
+        List<PreparedOrder> pending = new ArrayList<>();
+        int accepted = 0;
+        long created = 0;
+        for (PreparedOrder order : orders) {
+            pending.add(order);
+            if (order.error() == null && ++accepted == chunkSize) {
+                created += write(insertChunk(userId, pending), out);
+                pending.clear();
+                accepted = 0;
+            }
+        }
+        if (!pending.isEmpty()) {
+            created += write(insertChunk(userId, pending), out);
+        }
+        logger.info("Bulk order request finished. userId={}, orders={}, created={}, rejected={}",
+                userId, orders.size(), created, orders.size() - created);
+    }
+
+    private PreparedOrder parse(String line, long lineNumber) {
+        BulkOrderRequest request;
+        try {
+            request = objectMapper.readValue(line, BulkOrderRequest.class);
+        } catch (JsonProcessingException ex) {
+            return PreparedOrder.rejected(lineNumber, null, "Malformed JSON");
+        }
+        if (request == null) {
+            return PreparedOrder.rejected(lineNumber, null, "Malformed JSON");
+        }
+        String violations = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!violations.isEmpty()) {
+            return PreparedOrder.rejected(lineNumber, request.reference(), violations);
+        }
+        return new PreparedOrder(lineNumber, request.reference(), new OrderRequest(request.items()), null, null);
+    }
+
+    private PreparedOrder price(PreparedOrder order, Map<Long, ProductCatalogClient.ProductInfo> products) {
+        if (order.error() != null) {
+            return order;
+        }
+        try {
+            List<OrderItem> items = orderService.priceItems(order.request(), products);
+            return new PreparedOrder(order.line(), order.reference(), order.request(), items, null);
+        } catch (ResourceNotFoundException | ResourceConflictException ex) {
+            return PreparedOrder.rejected(order.line(), order.reference(), ex.getMessage());
+        }
+    }
+
+    private List<BulkOrderResult> insertChunk(Long userId, List<PreparedOrder> pending) {
+        List<PreparedOrder> accepted = pending.stream().filter(order -> order.error() == null).toList();
+        Map<Long, OrderResponse> createdByLine = new HashMap<>();
+        String chunkError = null;
+        if (!accepted.isEmpty()) {
+            try {
+                List<OrderResponse> responses = orderService.createPricedOrders(
+                        userId, accepted.stream().map(PreparedOrder::items).toList());
+                for (int i = 0; i < accepted.size(); i++) {
+                    createdByLine.put(accepted.get(i).line(), responses.get(i));
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Bulk order chunk rejected. firstLine={}, orders={}",
+                        accepted.get(0).line(), accepted.size(), ex);
+                chunkError = chunkError(ex);
+            }
+        }
+
+        List<BulkOrderResult> results = new ArrayList<>(pending.size());
+        for (PreparedOrder order : pending) {
+            OrderResponse created = createdByLine.get(order.line());
+            if (created != null) {
+                results.add(BulkOrderResult.created(order.line(), order.reference(), created));
+            } else {
+                results.add(BulkOrderResult.rejected(order.line(), order.reference(),
+                        order.error() != null ? order.error() : chunkError));
+            }
+        }
+        return results;
+    }
+
+    private long write(List<BulkOrderResult> results, OutputStream out) throws IOException {
+        long created = 0;
+        for (BulkOrderResult result : results) {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            if (result.orderId() != null) {
+                created++;
+            }
+        }
+        out.flush();
+        return created;
+    }
+
+    // The cause is logged, never streamed back: driver messages can carry SQL, hosts and constraint names.
+    private String chunkError(RuntimeException ex) {
+        if (ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException) {
+            return CHUNK_UNAVAILABLE;
+        }
+        return CHUNK_FAILED;
+    }
+
+    /**
+     * A parsed line with its priced items, or the reason it was rejected.
+     */
+    public record PreparedOrder(
+            long line, String reference, OrderRequest request, List<OrderItem> items, String error) {
+
+        static PreparedOrder rejected(long line, String reference, String error) {
+            return new PreparedOrder(line, reference, null, null, error);
+        }
+    }
+}
@@ -7,6 +7,9 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Service
 public class EventDeduplicationService {
 
@@ -22,8 +25,20 @@ public class EventDeduplicationService {
         }
     }
 
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Set<String> tryStartProcessing(Collection<String> eventKeys) {
+        return processedEventRepository.insertAllIgnoreConflict(eventKeys);
+    }
+
     @Transactional
     public void markFailed(String eventKey) {
         processedEventRepository.deleteByEventKey(eventKey);
     }
+
+    @Transactional
+    public void markFailed(Collection<String> eventKeys) {
+        if (!eventKeys.isEmpty()) {
+            processedEventRepository.deleteByEventKeyIn(eventKeys);
+        }
+    }
 }
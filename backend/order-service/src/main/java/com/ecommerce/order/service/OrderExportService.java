@@ -0,0 +1,157 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.archive.OrderArchiver;
+import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams orders with their items as NDJSON for admin exports. Rows are read through a
+ * server-side cursor and written one order at a time, so memory use does not grow with the
+ * size of the export.
+ */
+@Service
+public class OrderExportService {
+
+    // Joining on the whole partition key pairs each orders partition with its order_items partition.
+    private static final String EXPORT_SELECT = """
+            SELECT o.id, o.user_id, o.status, o.total_amount, o.created_at, i.product_id, i.quantity, i.price
+            FROM orders o
+            LEFT JOIN order_items i ON i.order_id = o.id AND i.order_created_at = o.created_at AND i.archived = o.archived
+            """;
+
+    private static final String EXPORT_ORDER_BY = " ORDER BY o.created_at DESC, o.id DESC, i.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Value("${orders.export.fetch-size:500}")
+    private int fetchSize;
+
+    public void exportOrders(Long userId, OrderListQuery query, OutputStream out) throws IOException {
+        StringBuilder sql = new StringBuilder(EXPORT_SELECT).append(" WHERE 1 = 1");
+        List<Object> args = new ArrayList<>();
+        if (userId != null) {
+            sql.append(" AND o.user_id = ?");
+            args.add(userId);
+        }
+        if (query.status() != null && !query.status().isBlank()) {
+            sql.append(" AND o.status = ?");
+            args.add(query.status());
+        }
+        if (!orderArchiver.mayBeArchived(query.status())) {
+            sql.append(" AND o.archived = FALSE");
+        }
+        if (query.from() != null) {
+            sql.append(" AND o.created_at >= ?");
+            args.add(Timestamp.valueOf(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND o.created_at < ?");
+            args.add(Timestamp.valueOf(query.to()));
+        }
+        sql.append(EXPORT_ORDER_BY);
+
+        // PostgreSQL only honours the fetch size inside a transaction.
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            OrderWriter writer = new OrderWriter(generator);
+            readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql.toString());
+                statement.setFetchSize(fetchSize);
+                for (int i = 0; i < args.size(); i++) {
+                    statement.setObject(i + 1, args.get(i));
+                }
+                return statement;
+            }, writer::accept));
+            writer.finish();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    /**
+     * Rows arrive grouped by order; an order is written once its last item row has been seen.
+     */
+    private final class OrderWriter {
+        private final JsonGenerator generator;
+        private long currentOrderId = -1;
+        private boolean open;
+
+        private OrderWriter(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void accept(ResultSet rs) throws SQLException {
+            try {
+                long orderId = rs.getLong(1);
+                if (orderId != currentOrderId) {
+                    finish();
+                    startOrder(rs, orderId);
+                }
+                long productId = rs.getLong(6);
+                if (!rs.wasNull()) {
+                    objectMapper.writeValue(generator, new OrderItemResponse(
+                            productId, rs.getInt(7), rs.getBigDecimal(8)));
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void startOrder(ResultSet rs, long orderId) throws SQLException, IOException {
+            currentOrderId = orderId;
+            open = true;
+            Timestamp createdAt = rs.getTimestamp(5);
+            BigDecimal totalAmount = rs.getBigDecimal(4);
+
+            generator.writeStartObject();
+            generator.writeNumberField("id", orderId);
+            generator.writeNumberField("userId", rs.getLong(2));
+            generator.writeStringField("status", rs.getString(3));
+            generator.writeNumberField("totalAmount", totalAmount);
+            generator.writeFieldName("createdAt");
+            objectMapper.writeValue(generator, createdAt != null ? createdAt.toLocalDateTime() : null);
+            generator.writeArrayFieldStart("items");
+        }
+
+        private void finish() throws IOException {
+            if (!open) {
+                return;
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.dto.OrderListQuery;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Listing rules shared by the write model and the {@code order_view} read model: both expose
+ * {@code id}, {@code userId}, {@code status} and {@code createdAt}, so one keyset filter serves either.
+ */
+final class OrderListing {
+
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
+    static final Sort ORDER = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+
+    private OrderListing() {
+    }
+
+    static int pageSize(OrderListQuery query) {
+        return pageSize(query.limit());
+    }
+
+    static int pageSize(Integer requested) {
+        int limit = requested != null ? requested : DEFAULT_PAGE_SIZE;
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        return limit;
+    }
+
+    static <T> Specification<T> filter(Long userId, OrderListQuery query, OrderCursor cursor) {
+        return (root, criteriaQuery, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (userId != null) {
+                predicates.add(cb.equal(root.get("userId"), userId));
+            }
+            if (query.status() != null && !query.status().isBlank()) {
+                predicates.add(cb.equal(root.get("status"), query.status()));
+            }
+            if (query.from() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("createdAt"), query.from()));
+            }
+            if (query.to() != null) {
+                predicates.add(cb.lessThan(root.get("createdAt"), query.to()));
+            }
+            if (cursor != null) {
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("createdAt"), cursor.createdAt()),
+                        cb.and(
+                                cb.equal(root.get("createdAt"), cursor.createdAt()),
+                                cb.lessThan(root.get("id"), cursor.id()))));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+}
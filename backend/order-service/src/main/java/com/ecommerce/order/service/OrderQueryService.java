@@ -0,0 +1,162 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.OrderNotFoundException;
+import com.ecommerce.order.domain.OrderView;
+import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderViewRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Query side of the order service, served from the {@code order_view} projection. The view is
+ * eventually consistent, so single-order lookups fall back to the write model for an order whose
+ * order-created event has not been projected yet; listings simply show it a moment later.
+ */
+@Service
+public class OrderQueryService {
+
+    private static final TypeReference<List<OrderItemResponse>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    @Autowired
+    private OrderViewRepository orderViewRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${orders.read-model.enabled:true}")
+    private boolean readModelEnabled;
+
+    @Transactional(readOnly = true)
+    public OrderResponse getOrderById(@NonNull Long id) {
+        if (!readModelEnabled) {
+            return orderService.getOrderById(id);
+        }
+        return findProjected(id)
+                .map(this::mapToResponse)
+                .orElseGet(() -> orderService.getOrderById(id));
+    }
+
+    @Transactional(readOnly = true)
+    public OrderResponse getOrderByIdForUser(@NonNull Long id, @NonNull Long userId) {
+        if (!readModelEnabled) {
+            return orderService.getOrderByIdForUser(id, userId);
+        }
+        Optional<OrderView> view = findProjected(id);
+        if (view.isEmpty()) {
+            return orderService.getOrderByIdForUser(id, userId);
+        }
+        if (!userId.equals(view.get().getUserId())) {
+            throw new OrderNotFoundException(id);
+        }
+        return mapToResponse(view.get());
+    }
+
+    /**
+     * Entity tag for the order {@link #getOrderById} would return, read from a single row's stamp so a
+     * matching {@code If-None-Match} is answered without loading items: when the projection was last
+     * written, or the write model's version while the order is served from there. {@code userId} is
+     * null for admins; other users' orders are not found.
+     */
+    @Transactional(readOnly = true)
+    public String getOrderETag(@NonNull Long id, Long userId) {
+        if (readModelEnabled) {
+            Optional<OrderViewRepository.ProjectionStamp> projected = orderViewRepository.findProjectionStampById(id);
+            if (projected.isPresent()) {
+                checkOwner(id, userId, projected.get().getUserId());
+                return "v" + epochMicros(projected.get().getProjectedAt());
+            }
+        }
+        OrderRepository.VersionStamp stamp = orderRepository.findVersionStampById(id)
+                .orElseThrow(() -> new OrderNotFoundException(id));
+        checkOwner(id, userId, stamp.getUserId());
+        return "o" + stamp.getVersion();
+    }
+
+    /**
+     * One keyset page of projected orders, newest first. {@code userId} is null for the admin listing.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse listOrders(Long userId, OrderListQuery query) {
+        if (!readModelEnabled) {
+            return orderService.listOrders(userId, query);
+        }
+        int limit = OrderListing.pageSize(query);
+        OrderCursor cursor = OrderCursor.decode(query.cursor());
+
+        Specification<OrderView> projected = (root, criteriaQuery, cb) -> cb.isNotNull(root.get("userId"));
+        List<OrderView> views = orderViewRepository.findBy(
+                projected.and(OrderListing.filter(userId, query, cursor)),
+                q -> q.sortBy(OrderListing.ORDER).limit(limit + 1).all());
+
+        String nextCursor = null;
+        if (views.size() > limit) {
+            views = views.subList(0, limit);
+            OrderView last = views.get(limit - 1);
+            nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new OrderPageResponse(views.stream().map(this::mapToResponse).toList(), nextCursor);
+    }
+
+    // Rows created by a saga event that overtook order-created have no order data yet.
+    private Optional<OrderView> findProjected(Long id) {
+        return orderViewRepository.findById(id).filter(view -> view.getUserId() != null);
+    }
+
+    private void checkOwner(Long id, Long userId, Long ownerId) {
+        if (userId != null && !userId.equals(ownerId)) {
+            throw new OrderNotFoundException(id);
+        }
+    }
+
+    private static long epochMicros(LocalDateTime at) {
+        return at.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + at.getNano() / 1_000;
+    }
+
+    private OrderResponse mapToResponse(OrderView view) {
+        return new OrderResponse(
+                view.getId(),
+                view.getUserId(),
+                view.getStatus(),
+                view.getTotalAmount(),
+                readItems(view.getItems()),
+                view.getCreatedAt(),
+                view.getReservedAt(),
+                view.getPaidAt(),
+                view.getCancelledAt(),
+                view.getRefundedAt());
+    }
+
+    private List<OrderItemResponse> readItems(String json) {
+        if (json == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, ITEMS_TYPE);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupt items in order_view", ex);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.archive.OrderArchiver;
+import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderSearchQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Admin order search over the write model, so it also finds orders the {@code order_view} projection
+ * has not caught up with and can filter on the products ordered. Any combination of filters is
+ * served by the V13 indexes: the page is a keyset walk down {@code (created_at, id)} starting from
+ * the user, status or product index when those are given, with the amount range checked in the index.
+ */
+@Service
+@SuppressWarnings("null")
+public class OrderSearchService {
+
+    private static final String SEARCH_SELECT = """
+            SELECT o.id, o.user_id, o.status, o.total_amount, o.created_at, o.archived
+            FROM orders o
+            WHERE TRUE
+            """;
+
+    // The whole partition key, so each order's items are read from its own order_items partition.
+    private static final String ITEMS_SELECT = """
+            SELECT order_id, product_id, quantity, price
+            FROM order_items
+            WHERE (order_id, order_created_at, archived) IN (:orders)
+            ORDER BY order_id, id
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Transactional(readOnly = true)
+    public OrderPageResponse search(OrderSearchQuery query) {
+        int limit = OrderListing.pageSize(query.limit());
+        MapSqlParameterSource params = new MapSqlParameterSource("limit", limit + 1);
+        String sql = buildSql(query, OrderCursor.decode(query.cursor()), params);
+        List<FoundOrder> orders = namedParameterJdbcTemplate.query(sql, params, (rs, rowNum) -> new FoundOrder(
+                rs.getLong("id"),
+                rs.getLong("user_id"),
+                rs.getString("status"),
+                rs.getBigDecimal("total_amount"),
+                rs.getTimestamp("created_at").toLocalDateTime(),
+                rs.getBoolean("archived")));
+
+        String nextCursor = null;
+        if (orders.size() > limit) {
+            orders = orders.subList(0, limit);
+            FoundOrder last = orders.get(limit - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        Map<Long, List<OrderItemResponse>> items = loadItems(orders);
+        return new OrderPageResponse(orders.stream()
+                .map(order -> new OrderResponse(order.id(), order.userId(), order.status(), order.totalAmount(),
+                        items.getOrDefault(order.id(), List.of()), order.createdAt(), null, null, null, null))
+                .toList(), nextCursor);
+    }
+
+    /**
+     * The page query for {@code query}, with its parameters added to {@code params} (all but
+     * {@code limit}). Package-private so tests can check its plan.
+     */
+    String buildSql(OrderSearchQuery query, OrderCursor cursor, MapSqlParameterSource params) {
+        if (query.minTotal() != null && query.maxTotal() != null && query.minTotal().compareTo(query.maxTotal()) > 0) {
+            throw new BadRequestException("minTotal must not be greater than maxTotal");
+        }
+        StringBuilder sql = new StringBuilder(SEARCH_SELECT);
+        if (query.userId() != null) {
+            sql.append(" AND o.user_id = :userId");
+            params.addValue("userId", query.userId());
+        }
+        if (query.status() != null && !query.status().isBlank()) {
+            sql.append(" AND o.status = :status");
+            params.addValue("status", query.status());
+        }
+        if (!orderArchiver.mayBeArchived(query.status())) {
+            sql.append(" AND o.archived = FALSE");
+        }
+        if (query.productId() != null) {
+            sql.append(" AND EXISTS (SELECT 1 FROM order_items i WHERE i.product_id = :productId"
+                    + " AND i.order_id = o.id AND i.order_created_at = o.created_at AND i.archived = o.archived)");
+            params.addValue("productId", query.productId());
+        }
+        if (query.from() != null) {
+            sql.append(" AND o.created_at >= :from");
+            params.addValue("from", Timestamp.valueOf(query.from()));
+        }
+        if (query.to() != null) {
+            sql.append(" AND o.created_at < :to");
+            params.addValue("to", Timestamp.valueOf(query.to()));
+        }
+        if (query.minTotal() != null) {
+            sql.append(" AND o.total_amount >= :minTotal");
+            params.addValue("minTotal", query.minTotal());
+        }
+        if (query.maxTotal() != null) {
+            sql.append(" AND o.total_amount <= :maxTotal");
+            params.addValue("maxTotal", query.maxTotal());
+        }
+        if (cursor != null) {
+            // A row comparison is a single index condition on (created_at, id), unlike the equivalent OR.
+            sql.append(" AND (o.created_at, o.id) < (:cursorCreatedAt, :cursorId)");
+            params.addValue("cursorCreatedAt", Timestamp.valueOf(cursor.createdAt()));
+            params.addValue("cursorId", cursor.id());
+        }
+        return sql.append(" ORDER BY o.created_at DESC, o.id DESC LIMIT :limit").toString();
+    }
+
+    private Map<Long, List<OrderItemResponse>> loadItems(List<FoundOrder> orders) {
+        Map<Long, List<OrderItemResponse>> items = new HashMap<>();
+        if (orders.isEmpty()) {
+            return items;
+        }
+        List<Object[]> keys = new ArrayList<>(orders.size());
+        for (FoundOrder order : orders) {
+            keys.add(new Object[]{order.id(), Timestamp.valueOf(order.createdAt()), order.archived()});
+        }
+        namedParameterJdbcTemplate.query(ITEMS_SELECT, new MapSqlParameterSource("orders", keys), rs -> {
+            items.computeIfAbsent(rs.getLong("order_id"), id -> new ArrayList<>()).add(new OrderItemResponse(
+                    rs.getLong("product_id"), rs.getInt("quantity"), rs.getBigDecimal("price")));
+        });
+        return items;
+    }
+
+    private record FoundOrder(
+            long id, long userId, String status, BigDecimal totalAmount, LocalDateTime createdAt, boolean archived) {
+    }
+}
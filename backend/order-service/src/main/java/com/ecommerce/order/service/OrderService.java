@@ -3,30 +3,45 @@ package com.ecommerce.order.service;
 import com.ecommerce.common.exception.ResourceConflictException;
 import com.ecommerce.common.exception.OrderNotFoundException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.archive.OrderArchiver;
 import com.ecommerce.order.client.ProductCatalogClient;
 import com.ecommerce.order.domain.Order;
 import com.ecommerce.order.domain.OrderItem;
 import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.event.OrderCancelledEvent;
 import com.ecommerce.order.event.OrderCreatedEvent;
 import com.ecommerce.order.event.OrderItemEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
 import com.ecommerce.order.event.RefundRequestedEvent;
+import com.ecommerce.order.idempotency.OrderIdempotencyService;
 import com.ecommerce.order.outbox.OutboxService;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderStatusTransitions;
+import com.ecommerce.order.rollup.SalesRollupRecorder;
+import com.ecommerce.order.status.OrderStatusHub;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.lang.NonNull;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -43,28 +58,80 @@ public class OrderService {
         @Autowired
         private OutboxService outboxService;
 
+        @Autowired
+        private TransactionTemplate transactionTemplate;
+
+        @Autowired
+        private OrderIdempotencyService orderIdempotencyService;
+
+        @Autowired
+        private OrderStatusHub orderStatusHub;
+
+        @Autowired
+        private OrderArchiver orderArchiver;
+
+        @Autowired
+        private SalesRollupRecorder salesRollupRecorder;
+
         private static final String TOPIC_ORDER_CREATED = "order-created";
         private static final String TOPIC_ORDER_CANCELLED = "order-cancelled";
         private static final String TOPIC_REFUND_REQUESTED = "refund-requested";
-
-        @Transactional
+        private static final String TOPIC_ORDER_STATUS_CHANGED = "order-status-changed";
+        private static final List<String> AWAITING_PAYMENT = List.of("CREATED", "PLACED", "PAYMENT_PENDING");
+        private static final List<String> REFUND_IN_PROGRESS = List.of("REFUND_PENDING");
+
+        /**
+         * Prices the order against the catalog outside any transaction, so no database connection is
+         * held across the HTTP round trip, then inserts the order, its items and the outbox row in one
+         * short transaction.
+         */
         public OrderResponse createOrder(Long userId, OrderRequest request) {
+                return createOrder(userId, request, null);
+        }
+
+        /**
+         * As {@link #createOrder(Long, OrderRequest)}, also recording {@code idempotencyClaim} (when
+         * present) in the order's transaction.
+         */
+        public OrderResponse createOrder(Long userId, OrderRequest request, OrderIdempotencyService.Claim idempotencyClaim) {
                 if (request == null || request.items() == null || request.items().isEmpty()) {
                         throw new IllegalArgumentException("Order must contain at least one item");
                 }
 
-                Order order = new Order();
-                order.setUserId(userId);
-                order.setStatus("CREATED");
+                List<OrderItem> items = priceItems(request, resolveProducts(List.of(request), true));
+                return transactionTemplate.execute(status -> persistNewOrder(userId, items, idempotencyClaim));
+        }
 
-                List<Long> requestedProductIds = request.items().stream()
+        /**
+         * Looks up every product the requests reference in one deduplicated catalog call, reloading
+         * in one more call the entries a request proves stale. With {@code requireAll} false, unknown
+         * products are left out so only the orders that reference them fail to price.
+         */
+        public Map<Long, ProductCatalogClient.ProductInfo> resolveProducts(List<OrderRequest> requests, boolean requireAll) {
+                List<Long> requestedProductIds = requests.stream()
+                                .flatMap(request -> request.items().stream())
                                 .map(OrderItemRequest::productId)
                                 .distinct()
                                 .toList();
-                Map<Long, ProductCatalogClient.ProductInfo> productCache = productCatalogClient
-                                .getProducts(requestedProductIds);
+                Map<Long, ProductCatalogClient.ProductInfo> productCache = new HashMap<>(requireAll
+                                ? productCatalogClient.getProducts(requestedProductIds)
+                                : productCatalogClient.findProducts(requestedProductIds));
+
+                // A client that has already seen a newer version proves the cached entry stale.
+                List<Long> staleProductIds = requests.stream()
+                                .flatMap(request -> request.items().stream())
+                                .filter(itemReq -> isOlderThan(productCache.get(itemReq.productId()), itemReq.productVersion()))
+                                .map(OrderItemRequest::productId)
+                                .distinct()
+                                .toList();
+                if (!staleProductIds.isEmpty()) {
+                        productCache.putAll(productCatalogClient.refreshProducts(staleProductIds));
+                }
+                return productCache;
+        }
 
-                List<OrderItem> items = request.items().stream()
+        public List<OrderItem> priceItems(OrderRequest request, Map<Long, ProductCatalogClient.ProductInfo> productCache) {
+                return request.items().stream()
                                 .map(itemReq -> {
                                         ProductCatalogClient.ProductInfo product = productCache.get(itemReq.productId());
                                         if (product == null) {
@@ -77,15 +144,43 @@ public class OrderService {
                                                                 "Product is not available for ordering: " + product.id());
                                         }
 
+                                        if (itemReq.price() != null
+                                                        && isOlderThan(itemReq.productVersion(), product)
+                                                        && itemReq.price().compareTo(product.price()) != 0) {
+                                                throw new ResourceConflictException(
+                                                                "Price of product " + product.id() + " changed from "
+                                                                                + itemReq.price() + " to " + product.price()
+                                                                                + ", please review your cart");
+                                        }
+
                                         return OrderItem.builder()
-                                                        .order(order)
                                                         .productId(itemReq.productId())
                                                         .quantity(itemReq.quantity())
                                                         .price(product.price())
                                                         .build();
                                 })
                                 .collect(Collectors.toList());
+        }
 
+        /**
+         * Inserts already priced orders in one transaction. Nothing is flushed until commit, so the
+         * orders, items and outbox rows go out as JDBC batches.
+         */
+        List<OrderResponse> createPricedOrders(Long userId, List<List<OrderItem>> pricedOrders) {
+                return transactionTemplate.execute(status -> pricedOrders.stream()
+                                .map(items -> persistNewOrder(userId, items, null))
+                                .toList());
+        }
+
+        /**
+         * Inserts one priced order and its outbox event. Must run in the caller's transaction.
+         */
+        public OrderResponse persistNewOrder(
+                        Long userId, List<OrderItem> items, OrderIdempotencyService.Claim idempotencyClaim) {
+                Order order = new Order();
+                order.setUserId(userId);
+                order.setStatus("CREATED");
+                items.forEach(item -> item.setOrder(order));
                 order.setItems(items);
 
                 BigDecimal total = items.stream()
@@ -95,129 +190,143 @@ public class OrderService {
                 order.setTotalAmount(total);
 
                 Order savedOrder = orderRepository.save(order);
+                enqueueOrderCreated(savedOrder);
+                salesRollupRecorder.orderCreated(savedOrder.getStatus(), total, savedOrder.getCreatedAt());
 
-                // Publish Event
-                List<OrderItemEvent> itemEvents = items.stream()
-                                .map(i -> new OrderItemEvent(i.getProductId(), i.getQuantity()))
-                                .collect(Collectors.toList());
-
-                OrderCreatedEvent event = new OrderCreatedEvent(savedOrder.getId(), userId, total, itemEvents);
-                outboxService.enqueue(
-                                TOPIC_ORDER_CREATED,
-                                Objects.requireNonNull(savedOrder.getId().toString()),
-                                TOPIC_ORDER_CREATED,
-                                event);
-
-                return mapToResponse(savedOrder);
+                OrderResponse response = mapToResponse(savedOrder);
+                if (idempotencyClaim != null) {
+                        orderIdempotencyService.record(idempotencyClaim, savedOrder.getId(), response);
+                }
+                return response;
         }
 
         @Transactional(readOnly = true)
         public OrderResponse getOrderById(@NonNull Long id) {
-                Order order = orderRepository.findById(id)
-                                .orElseThrow(() -> new OrderNotFoundException(id));
-                return mapToResponse(order);
+                return mapToResponse(findOrder(id, null));
         }
 
         @Transactional(readOnly = true)
         public OrderResponse getOrderByIdForUser(@NonNull Long id, @NonNull Long userId) {
-                Order order = orderRepository.findByIdAndUserId(id, userId)
-                                .orElseThrow(() -> new OrderNotFoundException(id));
-                return mapToResponse(order);
+                return mapToResponse(findOrder(id, userId));
         }
 
+        /**
+         * The order's current status, as the event that set it, read from the orders table rather
+         * than the lagging read model. {@code userId} is null for an admin.
+         */
         @Transactional(readOnly = true)
-        public List<OrderResponse> getAllOrders() {
-                return orderRepository.findAll().stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public OrderStatusChangedEvent getCurrentStatus(@NonNull Long id, Long userId) {
+                Order order = findOrder(id, userId);
+                return new OrderStatusChangedEvent(order.getId(), order.getStatus(), order.getVersion(), order.getUpdatedAt());
         }
 
+        /**
+         * One keyset page of orders, newest first, read from the write model. {@code userId} is null
+         * for the admin listing.
+         */
         @Transactional(readOnly = true)
-        public List<OrderResponse> getUserOrders(Long userId) {
-                return orderRepository.findByUserId(userId).stream()
-                                .map(this::mapToResponse)
-                                .collect(Collectors.toList());
+        public OrderPageResponse listOrders(Long userId, OrderListQuery query) {
+                int limit = OrderListing.pageSize(query);
+                OrderCursor cursor = OrderCursor.decode(query.cursor());
+
+                Specification<Order> filter = OrderListing.filter(userId, query, cursor);
+                if (!orderArchiver.mayBeArchived(query.status())) {
+                        filter = filter.and((root, criteriaQuery, cb) -> cb.isFalse(root.get("archived")));
+                }
+                List<Order> orders = orderRepository.findBy(
+                                filter,
+                                q -> q.sortBy(OrderListing.ORDER).limit(limit + 1).all());
+
+                String nextCursor = null;
+                if (orders.size() > limit) {
+                        orders = orders.subList(0, limit);
+                        Order last = orders.get(limit - 1);
+                        nextCursor = new OrderCursor(last.getCreatedAt(), last.getId()).encode();
+                }
+                return new OrderPageResponse(
+                                orders.stream().map(this::mapToResponse).collect(Collectors.toList()),
+                                nextCursor);
+        }
+
+        /**
+         * Looks in the live partitions first and only then in the archive, which holds nothing but
+         * old closed orders. {@code userId} is null for an admin.
+         */
+        private Order findOrder(Long id, Long userId) {
+                return findOrder(id, userId, false)
+                                .or(() -> findOrder(id, userId, true))
+                                .orElseThrow(() -> new OrderNotFoundException(id));
+        }
+
+        private Optional<Order> findOrder(Long id, Long userId, boolean archived) {
+                return userId == null
+                                ? orderRepository.findByIdAndArchived(id, archived)
+                                : orderRepository.findByIdAndUserIdAndArchived(id, userId, archived);
         }
 
         @Transactional
         public void markPaid(@NonNull Long orderId) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-                String currentStatus = order.getStatus();
-                if (!List.of("CREATED", "PLACED", "PAYMENT_PENDING").contains(currentStatus)) {
-                        logIgnoredTransition(orderId, currentStatus, "PAID");
-                        return;
-                }
+                markPaid(List.of(orderId));
+        }
 
-                order.setStatus("PAID");
-                orderRepository.save(order);
+        @Transactional
+        public void markPaid(@NonNull List<Long> orderIds) {
+                transition(orderIds, AWAITING_PAYMENT, "PAID");
         }
 
         @Transactional
         public void cancelAfterPaymentFailure(@NonNull Long orderId) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-                String currentStatus = order.getStatus();
-                if (!List.of("CREATED", "PLACED", "PAYMENT_PENDING").contains(currentStatus)) {
-                        logIgnoredTransition(orderId, currentStatus, "CANCELLED");
-                        return;
-                }
+                cancelAfterPaymentFailure(List.of(orderId));
+        }
 
-                order.setStatus("CANCELLED");
-                orderRepository.save(order);
+        @Transactional
+        public void cancelAfterPaymentFailure(@NonNull List<Long> orderIds) {
+                transition(orderIds, AWAITING_PAYMENT, "CANCELLED");
         }
 
         @Transactional
         public void cancelAfterInventoryFailure(@NonNull Long orderId) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-                String currentStatus = order.getStatus();
-                if (!List.of("CREATED", "PLACED", "PAYMENT_PENDING").contains(currentStatus)) {
-                        logIgnoredTransition(orderId, currentStatus, "CANCELLED");
-                        return;
-                }
+                cancelAfterInventoryFailure(List.of(orderId));
+        }
 
-                order.setStatus("CANCELLED");
-                orderRepository.save(order);
+        @Transactional
+        public void cancelAfterInventoryFailure(@NonNull List<Long> orderIds) {
+                transition(orderIds, AWAITING_PAYMENT, "CANCELLED");
         }
 
         @Transactional
         public void markRefundCompleted(@NonNull Long orderId) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new RuntimeException("Order not found"));
+                markRefundCompleted(List.of(orderId));
+        }
 
-                String currentStatus = order.getStatus();
-                if (!"REFUND_PENDING".equals(currentStatus)) {
-                        logIgnoredTransition(orderId, currentStatus, "CANCELLED");
-                        return;
-                }
+        @Transactional
+        public void markRefundCompleted(@NonNull List<Long> orderIds) {
+                markRefundCompleted(orderIds, Set.of());
+        }
 
-                order.setStatus("CANCELLED");
-                orderRepository.save(order);
+        /**
+         * Cancels orders whose refund went through. Orders in {@code voidedOrderIds} were never
+         * charged, so no money moved and the sales rollups do not count them as refunded.
+         */
+        @Transactional
+        public void markRefundCompleted(@NonNull List<Long> orderIds, @NonNull Set<Long> voidedOrderIds) {
+                transition(orderIds, REFUND_IN_PROGRESS, "CANCELLED", voidedOrderIds);
         }
 
         @Transactional
         public void markRefundFailed(@NonNull Long orderId) {
-                Order order = orderRepository.findById(orderId)
-                                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-                String currentStatus = order.getStatus();
-                if (!"REFUND_PENDING".equals(currentStatus)) {
-                        logIgnoredTransition(orderId, currentStatus, "REFUND_FAILED");
-                        return;
-                }
+                markRefundFailed(List.of(orderId));
+        }
 
-                order.setStatus("REFUND_FAILED");
-                orderRepository.save(order);
+        @Transactional
+        public void markRefundFailed(@NonNull List<Long> orderIds) {
+                transition(orderIds, REFUND_IN_PROGRESS, "REFUND_FAILED");
         }
 
         @Transactional
         public void cancelOrder(@NonNull Long orderId, Long requesterUserId, boolean isAdmin) {
                 Order order = orderRepository.findById(orderId)
-                        .orElseThrow(() -> new OrderNotFoundException(orderId));
+                                .orElseThrow(() -> new OrderNotFoundException(orderId));
 
                 if (!isAdmin && (requesterUserId == null || !requesterUserId.equals(order.getUserId()))) {
                         throw new AccessDeniedException("You are not allowed to cancel this order");
@@ -228,35 +337,78 @@ public class OrderService {
                 }
 
                 if ("DELIVERED".equals(order.getStatus())) {
-                     throw new RuntimeException("Cannot cancel delivered order");
+                        throw new RuntimeException("Cannot cancel delivered order");
                 }
 
                 if ("REFUND_PENDING".equals(order.getStatus())) {
                         throw new RuntimeException("Refund is already in progress for this order");
                 }
 
-                boolean refundRequired = "PAID".equals(order.getStatus());
+                String previousStatus = order.getStatus();
+                boolean refundRequired = "PAID".equals(previousStatus);
                 order.setStatus(refundRequired ? "REFUND_PENDING" : "CANCELLED");
                 orderRepository.save(order);
 
+                // Surface a version conflict with a saga update here rather than at commit.
+                try {
+                        orderRepository.flush();
+                } catch (OptimisticLockingFailureException ex) {
+                        throw new ResourceConflictException("Order was updated concurrently, please retry: " + orderId);
+                }
+
+                enqueueStatusChanged(order);
+                salesRollupRecorder.statusChanged(
+                                previousStatus, order.getStatus(), order.getTotalAmount(), order.getUpdatedAt());
+
                 // Publish Event to release stock
-                OrderCancelledEvent event = new OrderCancelledEvent(orderId);
-                outboxService.enqueue(
-                                TOPIC_ORDER_CANCELLED,
-                                Objects.requireNonNull(String.valueOf(orderId)),
-                                TOPIC_ORDER_CANCELLED,
-                                event);
+                enqueueOrderCancelled(orderId);
 
                 if (refundRequired) {
-                        RefundRequestedEvent refundRequestedEvent = new RefundRequestedEvent(orderId);
-                        outboxService.enqueue(
-                                        TOPIC_REFUND_REQUESTED,
-                                        Objects.requireNonNull(String.valueOf(orderId)),
-                                        TOPIC_REFUND_REQUESTED,
-                                        refundRequestedEvent);
+                        enqueueRefundRequested(orderId);
                 }
         }
 
+        /**
+         * Publishes order-created again for orders still awaiting payment. Inventory-service reserves
+         * stock if the first one never reached it, and otherwise answers inventory-reserved again,
+         * which payment-service in turn answers with the outcome of a payment it already took.
+         */
+        @Transactional
+        public void resendOrderCreated(@NonNull List<Long> orderIds) {
+                orderRepository.findAllById(orderIds).forEach(this::enqueueOrderCreated);
+        }
+
+        /**
+         * Publishes refund-requested again for orders whose refund is still pending. Payment-service
+         * settles the refund if the first request never reached it, and otherwise answers again with
+         * the outcome it already reached, in case that answer was lost.
+         */
+        @Transactional
+        public void resendRefundRequested(@NonNull List<Long> orderIds) {
+                orderIds.forEach(this::enqueueRefundRequested);
+        }
+
+        /**
+         * Gives up on orders that never heard back about their payment. The payment may still have
+         * gone through, so they are cancelled as a paid order would be: stock is released and a refund
+         * is requested, which payment-service settles without moving money for an unpaid order.
+         */
+        @Transactional
+        public void expireAwaitingPayment(@NonNull List<Long> orderIds) {
+                transition(orderIds, AWAITING_PAYMENT, "REFUND_PENDING").forEach(applied -> {
+                        enqueueOrderCancelled(applied.orderId());
+                        enqueueRefundRequested(applied.orderId());
+                });
+        }
+
+        /**
+         * Gives up on refunds that never completed, leaving the orders in {@code REFUND_FAILED} for support.
+         */
+        @Transactional
+        public void expireRefund(@NonNull List<Long> orderIds) {
+                transition(orderIds, REFUND_IN_PROGRESS, "REFUND_FAILED");
+        }
+
         private OrderResponse mapToResponse(Order order) {
                 return new OrderResponse(
                                 order.getId(),
@@ -267,7 +419,102 @@ public class OrderService {
                                                 .map(i -> new com.ecommerce.order.dto.OrderItemResponse(
                                                                 i.getProductId(), i.getQuantity(), i.getPrice()))
                                                 .collect(Collectors.toList()),
-                                order.getCreatedAt());
+                                order.getCreatedAt(),
+                                null,
+                                null,
+                                null,
+                                null);
+        }
+
+        private static boolean isOlderThan(ProductCatalogClient.ProductInfo cached, Long seenVersion) {
+                return cached != null && cached.version() != null && seenVersion != null
+                                && cached.version() < seenVersion;
+        }
+
+        private static boolean isOlderThan(Long seenVersion, ProductCatalogClient.ProductInfo current) {
+                return seenVersion != null && current.version() != null && seenVersion < current.version();
+        }
+
+        // One conditional UPDATE for all the orders; statuses are only read back to log ignored events.
+        private List<OrderStatusTransitions.AppliedTransition> transition(
+                        List<Long> orderIds, List<String> fromStatuses, String toStatus) {
+                return transition(orderIds, fromStatuses, toStatus, Set.of());
+        }
+
+        private List<OrderStatusTransitions.AppliedTransition> transition(
+                        List<Long> orderIds, List<String> fromStatuses, String toStatus, Set<Long> voidedOrderIds) {
+                List<OrderStatusTransitions.AppliedTransition> applied =
+                                orderRepository.transitionStatuses(orderIds, fromStatuses, toStatus);
+                for (OrderStatusTransitions.AppliedTransition transition : applied) {
+                        enqueueStatusChanged(transition.orderId(), transition.status(), transition.version(), transition.updatedAt());
+                        if (voidedOrderIds.contains(transition.orderId())) {
+                                salesRollupRecorder.statusChangedWithoutRefund(transition.previousStatus(),
+                                                transition.status(), transition.totalAmount(), transition.updatedAt());
+                        } else {
+                                salesRollupRecorder.statusChanged(transition.previousStatus(), transition.status(),
+                                                transition.totalAmount(), transition.updatedAt());
+                        }
+                }
+                if (applied.size() == orderIds.size()) {
+                        return applied;
+                }
+                Set<Long> appliedIds = applied.stream()
+                                .map(OrderStatusTransitions.AppliedTransition::orderId)
+                                .collect(Collectors.toSet());
+                List<Long> ignored = orderIds.stream().filter(id -> !appliedIds.contains(id)).toList();
+                Map<Long, String> currentStatuses = orderRepository.findStatusesByIds(ignored);
+                for (Long orderId : ignored) {
+                        String currentStatus = currentStatuses.get(orderId);
+                        if (currentStatus == null) {
+                                throw new RuntimeException("Order not found");
+                        }
+                        logIgnoredTransition(orderId, currentStatus, toStatus);
+                }
+                return applied;
+        }
+
+        private void enqueueOrderCreated(Order order) {
+                List<OrderItemEvent> itemEvents = order.getItems().stream()
+                                .map(i -> new OrderItemEvent(i.getProductId(), i.getQuantity(), i.getPrice()))
+                                .collect(Collectors.toList());
+
+                OrderCreatedEvent event = new OrderCreatedEvent(
+                                order.getId(), order.getUserId(), order.getTotalAmount(), itemEvents, order.getCreatedAt());
+                outboxService.enqueue(
+                                TOPIC_ORDER_CREATED,
+                                Objects.requireNonNull(order.getId().toString()),
+                                TOPIC_ORDER_CREATED,
+                                event);
+        }
+
+        private void enqueueOrderCancelled(Long orderId) {
+                outboxService.enqueue(
+                                TOPIC_ORDER_CANCELLED,
+                                Objects.requireNonNull(String.valueOf(orderId)),
+                                TOPIC_ORDER_CANCELLED,
+                                new OrderCancelledEvent(orderId));
+        }
+
+        private void enqueueRefundRequested(Long orderId) {
+                outboxService.enqueue(
+                                TOPIC_REFUND_REQUESTED,
+                                Objects.requireNonNull(String.valueOf(orderId)),
+                                TOPIC_REFUND_REQUESTED,
+                                new RefundRequestedEvent(orderId));
+        }
+
+        private void enqueueStatusChanged(Order order) {
+                enqueueStatusChanged(order.getId(), order.getStatus(), order.getVersion(), order.getUpdatedAt());
+        }
+
+        private void enqueueStatusChanged(Long orderId, String status, Long version, LocalDateTime changedAt) {
+                OrderStatusChangedEvent event = new OrderStatusChangedEvent(orderId, status, version, changedAt);
+                outboxService.enqueue(
+                                TOPIC_ORDER_STATUS_CHANGED,
+                                Objects.requireNonNull(String.valueOf(orderId)),
+                                TOPIC_ORDER_STATUS_CHANGED,
+                                event);
+                orderStatusHub.publishAfterCommit(event);
         }
 
         private void logIgnoredTransition(Long orderId, String fromStatus, String toStatus) {
@@ -0,0 +1,193 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderViewRebuildResponse;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains the {@code order_view} read model. Every write is an upsert that can be applied more
+ * than once and in any order: timeline stamps keep their first value and status only moves to a
+ * higher order version, so redelivered or reordered events converge on the same row.
+ */
+@Service
+public class OrderViewProjector {
+    private static final Logger logger = LoggerFactory.getLogger(OrderViewProjector.class);
+
+    private static final String PROJECT_CREATED = """
+            INSERT INTO order_view (order_id, user_id, status, status_version, total_amount, items, created_at, projected_at)
+            VALUES (?, ?, 'CREATED', 0, ?, ?, ?, now())
+            ON CONFLICT (order_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                status = COALESCE(order_view.status, EXCLUDED.status),
+                status_version = COALESCE(order_view.status_version, EXCLUDED.status_version),
+                total_amount = EXCLUDED.total_amount,
+                items = EXCLUDED.items,
+                created_at = EXCLUDED.created_at,
+                projected_at = now()
+            """;
+
+    private static final String PROJECT_STATUS = """
+            INSERT INTO order_view (order_id, status, status_version, cancelled_at, projected_at)
+            VALUES (?, ?, ?, ?, now())
+            ON CONFLICT (order_id) DO UPDATE SET
+                status = EXCLUDED.status,
+                status_version = EXCLUDED.status_version,
+                cancelled_at = COALESCE(order_view.cancelled_at, EXCLUDED.cancelled_at),
+                projected_at = now()
+            WHERE order_view.status_version IS NULL OR order_view.status_version < EXCLUDED.status_version
+            """;
+
+    private static final String STAMP_TIMELINE = """
+            INSERT INTO order_view (order_id, %1$s, projected_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (order_id) DO UPDATE SET
+                %1$s = COALESCE(order_view.%1$s, EXCLUDED.%1$s),
+                projected_at = now()
+            """;
+
+    private static final String RECORD_FAILURE = """
+            INSERT INTO order_view (order_id, failure_reason, projected_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (order_id) DO UPDATE SET
+                failure_reason = COALESCE(order_view.failure_reason, EXCLUDED.failure_reason),
+                projected_at = now()
+            """;
+
+    // Timeline stamps cannot be recovered from the write model, so rows that already have them keep them.
+    private static final String REBUILD = """
+            INSERT INTO order_view (order_id, user_id, status, status_version, total_amount, items, created_at, cancelled_at, projected_at)
+            SELECT o.id,
+                   o.user_id,
+                   o.status,
+                   o.version,
+                   o.total_amount,
+                   COALESCE((
+                       SELECT json_agg(json_build_object('productId', i.product_id, 'quantity', i.quantity, 'price', i.price) ORDER BY i.id)
+                       FROM order_items i
+                       WHERE i.order_id = o.id
+                   )::text, '[]'),
+                   o.created_at,
+                   CASE WHEN o.status = 'CANCELLED' THEN o.updated_at END,
+                   now()
+            FROM orders o
+            ON CONFLICT (order_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                status = CASE WHEN order_view.status_version > EXCLUDED.status_version
+                              THEN order_view.status ELSE EXCLUDED.status END,
+                status_version = GREATEST(order_view.status_version, EXCLUDED.status_version),
+                total_amount = EXCLUDED.total_amount,
+                items = EXCLUDED.items,
+                created_at = EXCLUDED.created_at,
+                cancelled_at = COALESCE(order_view.cancelled_at, EXCLUDED.cancelled_at),
+                projected_at = now()
+            """;
+
+    private static final String REMOVE_ORPHANS = """
+            DELETE FROM order_view v
+            WHERE NOT EXISTS (SELECT 1 FROM orders o WHERE o.id = v.order_id)
+            """;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Timer projectionLag;
+
+    public OrderViewProjector(MeterRegistry meterRegistry) {
+        this.projectionLag = Timer.builder("orders.view.projection.lag")
+                .description("Time between an event being produced and its projection into order_view")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    public void projectCreated(OrderCreatedEvent event, LocalDateTime producedAt) {
+        List<OrderItemResponse> items = event.items().stream()
+                .map(item -> new OrderItemResponse(item.productId(), item.quantity(), item.price()))
+                .toList();
+        LocalDateTime createdAt = event.createdAt() != null ? event.createdAt() : producedAt;
+        jdbcTemplate.update(PROJECT_CREATED,
+                event.orderId(),
+                event.userId(),
+                event.totalAmount(),
+                toJson(items),
+                Timestamp.valueOf(createdAt));
+    }
+
+    public void projectStatusChange(OrderStatusChangedEvent event, LocalDateTime producedAt) {
+        if (event.version() == null) {
+            logger.warn("Ignoring order-status-changed without version for order {}", event.orderId());
+            return;
+        }
+        LocalDateTime changedAt = event.changedAt() != null ? event.changedAt() : producedAt;
+        jdbcTemplate.update(PROJECT_STATUS,
+                event.orderId(),
+                event.status(),
+                event.version(),
+                "CANCELLED".equals(event.status()) ? Timestamp.valueOf(changedAt) : null);
+    }
+
+    public void stampReserved(Long orderId, LocalDateTime at) {
+        stamp("reserved_at", orderId, at);
+    }
+
+    public void stampPaid(Long orderId, LocalDateTime at) {
+        stamp("paid_at", orderId, at);
+    }
+
+    public void stampRefunded(Long orderId, LocalDateTime at) {
+        stamp("refunded_at", orderId, at);
+    }
+
+    public void recordFailure(Long orderId, String reason) {
+        String truncated = reason != null && reason.length() > 255 ? reason.substring(0, 255) : reason;
+        jdbcTemplate.update(RECORD_FAILURE, orderId, truncated);
+    }
+
+    public void observeLag(LocalDateTime producedAt) {
+        long lagMillis = Duration.between(producedAt, LocalDateTime.now()).toMillis();
+        projectionLag.record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Re-derives every row from the orders tables, for first deployment or after the projection
+     * fell behind Kafka retention. Runs in one transaction so readers never see a half-built view.
+     */
+    @Transactional
+    public OrderViewRebuildResponse rebuild() {
+        int projected = jdbcTemplate.update(REBUILD);
+        int removed = jdbcTemplate.update(REMOVE_ORPHANS);
+        logger.info("Order view rebuilt. projected={}, removed={}", projected, removed);
+        return new OrderViewRebuildResponse(projected, removed);
+    }
+
+    private void stamp(String column, Long orderId, LocalDateTime at) {
+        jdbcTemplate.update(STAMP_TIMELINE.formatted(column), orderId, Timestamp.valueOf(at));
+    }
+
+    private String toJson(List<OrderItemResponse> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize order items", ex);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.dto.OrderStatusTotalResponse;
+import com.ecommerce.order.dto.SalesBucketResponse;
+import com.ecommerce.order.dto.SalesStatsQuery;
+import com.ecommerce.order.rollup.SalesRollupRecorder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Dashboard figures read from the rollups {@link SalesRollupRecorder} maintains: a query reads the
+ * slots of the buckets it asks for, never the orders, so its cost does not grow with order volume.
+ */
+@Service
+@SuppressWarnings("null")
+public class SalesStatsService {
+
+    static final int MAX_BUCKETS = 1000;
+
+    private static final String SALES = """
+            SELECT bucket_start,
+                   SUM(orders_created) AS orders_created, SUM(created_amount) AS created_amount,
+                   SUM(orders_paid) AS orders_paid, SUM(paid_amount) AS paid_amount,
+                   SUM(orders_cancelled) AS orders_cancelled, SUM(cancelled_amount) AS cancelled_amount,
+                   SUM(orders_refunded) AS orders_refunded, SUM(refunded_amount) AS refunded_amount
+            FROM order_sales_rollups
+            WHERE period = :period AND bucket_start >= :from AND bucket_start < :to
+            GROUP BY bucket_start
+            """;
+
+    private static final String STATUS_TOTALS = """
+            SELECT status, SUM(order_count) AS order_count, SUM(total_amount) AS total_amount
+            FROM order_status_totals
+            GROUP BY status
+            ORDER BY status
+            """;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * One entry per hour or day from {@code from} (rounded down) until {@code to} (rounded up),
+     * including buckets nothing happened in. Defaults to the last 24 hours, or the last 30 days.
+     */
+    @Transactional(readOnly = true)
+    public List<SalesBucketResponse> sales(SalesStatsQuery query) {
+        String period = query.granularity() == null || query.granularity().isBlank()
+                ? SalesRollupRecorder.HOUR
+                : query.granularity().toUpperCase(Locale.ROOT);
+        if (!SalesRollupRecorder.HOUR.equals(period) && !SalesRollupRecorder.DAY.equals(period)) {
+            throw new BadRequestException("granularity must be HOUR or DAY");
+        }
+        ChronoUnit unit = SalesRollupRecorder.HOUR.equals(period) ? ChronoUnit.HOURS : ChronoUnit.DAYS;
+
+        LocalDateTime to = query.to() != null ? query.to() : LocalDateTime.now();
+        LocalDateTime end = to.truncatedTo(unit);
+        if (end.isBefore(to)) {
+            end = end.plus(1, unit);
+        }
+        LocalDateTime start = query.from() != null
+                ? query.from().truncatedTo(unit)
+                : end.minus(SalesRollupRecorder.HOUR.equals(period) ? 24 : 30, unit);
+        if (!start.isBefore(end)) {
+            throw new BadRequestException("from must be before to");
+        }
+        if (unit.between(start, end) > MAX_BUCKETS) {
+            throw new BadRequestException("At most " + MAX_BUCKETS + " buckets can be requested at once");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("period", period)
+                .addValue("from", Timestamp.valueOf(start))
+                .addValue("to", Timestamp.valueOf(end));
+        Map<LocalDateTime, SalesBucketResponse> found = new HashMap<>();
+        namedParameterJdbcTemplate.query(SALES, params, rs -> {
+            LocalDateTime bucketStart = rs.getTimestamp("bucket_start").toLocalDateTime();
+            found.put(bucketStart, new SalesBucketResponse(
+                    bucketStart,
+                    rs.getLong("orders_created"),
+                    rs.getBigDecimal("created_amount"),
+                    rs.getLong("orders_paid"),
+                    rs.getBigDecimal("paid_amount"),
+                    rs.getLong("orders_cancelled"),
+                    rs.getBigDecimal("cancelled_amount"),
+                    rs.getLong("orders_refunded"),
+                    rs.getBigDecimal("refunded_amount")));
+        });
+
+        List<SalesBucketResponse> buckets = new ArrayList<>();
+        for (LocalDateTime bucket = start; bucket.isBefore(end); bucket = bucket.plus(1, unit)) {
+            SalesBucketResponse sales = found.get(bucket);
+            buckets.add(sales != null ? sales : new SalesBucketResponse(bucket, 0, BigDecimal.ZERO, 0,
+                    BigDecimal.ZERO, 0, BigDecimal.ZERO, 0, BigDecimal.ZERO));
+        }
+        return buckets;
+    }
+
+    /**
+     * How many orders are in each status right now, and their total amount.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderStatusTotalResponse> statusTotals() {
+        return namedParameterJdbcTemplate.query(STATUS_TOTALS, new MapSqlParameterSource(), (rs, rowNum) ->
+                new OrderStatusTotalResponse(rs.getString("status"), rs.getLong("order_count"),
+                        rs.getBigDecimal("total_amount")));
+    }
+}
@@ -0,0 +1,251 @@
+package com.ecommerce.order.status;
+
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes order status changes to open {@code GET /orders/{id}/events} streams. Subscribers are held
+ * per order id, so a change is only fanned out to that order's streams, and an idle stream costs an
+ * emitter and a map entry, not a thread. Writes happen on a small fan-out pool so a slow client
+ * never holds up the transaction or Kafka thread that published the change.
+ *
+ * <p>Changes arrive both after commit on the instance that applied them and, for streams held by
+ * other instances, from the order-status-changed topic; each stream drops any event whose order
+ * version it has already sent.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderStatusHub {
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusHub.class);
+    private static final Set<String> FINAL_STATUSES = Set.of("CANCELLED", "REFUND_FAILED", "DELIVERED");
+
+    private final ConcurrentMap<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final Supplier<SseEmitter> emitterFactory;
+    private final int maxConnections;
+    private final Executor fanout;
+    private final Timer fanoutLatency;
+    private final Counter rejectedConnections;
+    private final Counter droppedSubscribers;
+
+    @Autowired
+    public OrderStatusHub(
+            MeterRegistry meterRegistry,
+            @Value("${orders.status-stream.timeout-ms:300000}") long timeoutMs,
+            @Value("${orders.status-stream.max-connections:50000}") int maxConnections,
+            @Value("${orders.status-stream.fanout-threads:2}") int fanoutThreads,
+            @Value("${orders.status-stream.fanout-queue-capacity:10000}") int fanoutQueueCapacity) {
+        this(meterRegistry, () -> new SseEmitter(timeoutMs), maxConnections,
+                fanoutExecutor(fanoutThreads, fanoutQueueCapacity));
+    }
+
+    OrderStatusHub(MeterRegistry meterRegistry, Supplier<SseEmitter> emitterFactory, int maxConnections, Executor fanout) {
+        this.emitterFactory = emitterFactory;
+        this.maxConnections = maxConnections;
+        this.fanout = fanout;
+        Gauge.builder("orders.status.stream.connections", connections, AtomicInteger::get)
+                .description("Open order status event streams")
+                .register(meterRegistry);
+        this.fanoutLatency = Timer.builder("orders.status.stream.fanout.latency")
+                .description("Time from a status change being published to the hub to it being written to a stream")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.rejectedConnections = Counter.builder("orders.status.stream.rejected")
+                .description("Order status streams refused because max-connections was reached")
+                .register(meterRegistry);
+        this.droppedSubscribers = Counter.builder("orders.status.stream.dropped")
+                .description("Order status streams closed because the fan-out queue was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for {@code orderId} whose first event is {@code current}. The subscription is
+     * registered before {@code current} is read, so no change committed in between is missed;
+     * whatever {@code current} throws (not found, access denied) closes the subscription and propagates.
+     */
+    public SseEmitter subscribe(Long orderId, Supplier<OrderStatusChangedEvent> current) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejectedConnections.increment();
+            throw new ResourceConflictException("Too many open order status streams, please poll instead");
+        }
+        Subscriber subscriber = new Subscriber(orderId, emitterFactory.get());
+        subscribers.compute(orderId, (id, streams) -> {
+            Set<Subscriber> updated = streams != null ? streams : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(subscriber.emitter::complete);
+        subscriber.emitter.onError(ex -> remove(subscriber));
+
+        try {
+            send(subscriber, current.get());
+        } catch (RuntimeException ex) {
+            remove(subscriber);
+            throw ex;
+        }
+        return subscriber.emitter;
+    }
+
+    /**
+     * Publishes {@code event} once the current transaction commits, or right away outside one.
+     */
+    public void publishAfterCommit(OrderStatusChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(event);
+            }
+        });
+    }
+
+    public void publish(OrderStatusChangedEvent event) {
+        Set<Subscriber> streams = subscribers.get(event.orderId());
+        if (streams == null) {
+            return;
+        }
+        long publishedAt = System.nanoTime();
+        for (Subscriber subscriber : streams) {
+            try {
+                fanout.execute(() -> {
+                    send(subscriber, event);
+                    fanoutLatency.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+                });
+            } catch (RejectedExecutionException ex) {
+                // The client's EventSource reconnects and starts again from the current status.
+                droppedSubscribers.increment();
+                close(subscriber);
+            }
+        }
+    }
+
+    // Comments keep idle streams open through proxies and reveal clients that have gone away.
+    @Scheduled(fixedDelayString = "${orders.status-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (connections.get() == 0) {
+            return;
+        }
+        try {
+            fanout.execute(() -> subscribers.values().forEach(streams -> streams.forEach(this::ping)));
+        } catch (RejectedExecutionException ex) {
+            logger.warn("Skipped order status stream heartbeat, fan-out queue is full");
+        }
+    }
+
+    int connectionCount() {
+        return connections.get();
+    }
+
+    private void send(Subscriber subscriber, OrderStatusChangedEvent event) {
+        synchronized (subscriber) {
+            if (subscriber.closed.get() || !subscriber.advanceTo(event.version())) {
+                return;
+            }
+            try {
+                subscriber.emitter.send(SseEmitter.event()
+                        .name("status")
+                        .id(String.valueOf(event.version()))
+                        .data(event, MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException ex) {
+                remove(subscriber);
+                return;
+            }
+            if (FINAL_STATUSES.contains(event.status())) {
+                close(subscriber);
+            }
+        }
+    }
+
+    private void ping(Subscriber subscriber) {
+        synchronized (subscriber) {
+            if (subscriber.closed.get()) {
+                return;
+            }
+            try {
+                subscriber.emitter.send(SseEmitter.event().comment("keep-alive"));
+            } catch (IOException | IllegalStateException ex) {
+                remove(subscriber);
+            }
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        remove(subscriber);
+        subscriber.emitter.complete();
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        connections.decrementAndGet();
+        subscribers.computeIfPresent(subscriber.orderId, (id, streams) -> {
+            streams.remove(subscriber);
+            return streams.isEmpty() ? null : streams;
+        });
+    }
+
+    private static Executor fanoutExecutor(int threads, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-status-fanout-");
+        threadFactory.setDaemon(true);
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    private static final class Subscriber {
+        private final Long orderId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private long lastVersion = -1;
+
+        private Subscriber(Long orderId, SseEmitter emitter) {
+            this.orderId = orderId;
+            this.emitter = emitter;
+        }
+
+        // Guarded by the subscriber's monitor.
+        private boolean advanceTo(Long version) {
+            if (version == null) {
+                return true;
+            }
+            if (version <= lastVersion) {
+                return false;
+            }
+            lastVersion = version;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.order.submission;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "order_submissions")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSubmission {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_submissions_id_seq")
+    @SequenceGenerator(name = "order_submissions_id_seq", sequenceName = "order_submissions_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "ticket", nullable = false, updatable = false)
+    private String ticket;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "request", nullable = false, columnDefinition = "TEXT")
+    private String request;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderSubmissionStatus status;
+
+    @Column(name = "attempt_count", nullable = false)
+    private Integer attemptCount;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+        if (attemptCount == null) {
+            attemptCount = 0;
+        }
+        if (status == null) {
+            status = OrderSubmissionStatus.PENDING;
+        }
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ecommerce.order.submission;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OrderSubmissionRepository extends JpaRepository<OrderSubmission, Long> {
+
+    Optional<OrderSubmission> findByTicket(String ticket);
+
+    /**
+     * Due submissions, plus those whose worker has held them past {@code staleBefore}, oldest first.
+     * Rows locked by another worker are skipped rather than waited on.
+     */
+    @Query(value = """
+            SELECT *
+            FROM order_submissions
+            WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+               OR (status = 'IN_PROGRESS' AND next_attempt_at < :staleBefore)
+            ORDER BY next_attempt_at
+            LIMIT :batchSize
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OrderSubmission> lockNextBatch(
+            @Param("now") LocalDateTime now,
+            @Param("staleBefore") LocalDateTime staleBefore,
+            @Param("batchSize") int batchSize);
+
+    // Each outcome only applies to the claim it was computed under; a reclaimed row is left alone.
+    @Modifying
+    @Query("""
+            UPDATE OrderSubmission s
+            SET s.status = com.ecommerce.order.submission.OrderSubmissionStatus.COMPLETED,
+                s.orderId = :orderId, s.lastError = null, s.completedAt = :now, s.updatedAt = :now
+            WHERE s.id = :id AND s.attemptCount = :attempt
+              AND s.status = com.ecommerce.order.submission.OrderSubmissionStatus.IN_PROGRESS
+            """)
+    int complete(@Param("id") Long id, @Param("attempt") int attempt,
+                 @Param("orderId") Long orderId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE OrderSubmission s
+            SET s.status = com.ecommerce.order.submission.OrderSubmissionStatus.REJECTED,
+                s.lastError = :error, s.completedAt = :now, s.updatedAt = :now
+            WHERE s.id = :id AND s.attemptCount = :attempt
+              AND s.status = com.ecommerce.order.submission.OrderSubmissionStatus.IN_PROGRESS
+            """)
+    int reject(@Param("id") Long id, @Param("attempt") int attempt,
+               @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("""
+            UPDATE OrderSubmission s
+            SET s.status = com.ecommerce.order.submission.OrderSubmissionStatus.PENDING,
+                s.lastError = :error, s.nextAttemptAt = :retryAt, s.updatedAt = :now
+            WHERE s.id = :id AND s.attemptCount = :attempt
+              AND s.status = com.ecommerce.order.submission.OrderSubmissionStatus.IN_PROGRESS
+            """)
+    int retryLater(@Param("id") Long id, @Param("attempt") int attempt, @Param("error") String error,
+                   @Param("retryAt") LocalDateTime retryAt, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM OrderSubmission s WHERE s.completedAt < :before")
+    int deleteCompletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,162 @@
+package com.ecommerce.order.submission;
+
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.OrderSubmissionResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable intake for {@code POST /orders/submissions}. Accepting a submission is one insert, so
+ * intake keeps up however slow the catalog is; the submission workers claim rows from here, and
+ * the ticket returned to the client is how it reads the outcome back.
+ */
+@Service
+@SuppressWarnings("null")
+public class OrderSubmissionService {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSubmissionService.class);
+
+    @Autowired
+    private OrderSubmissionRepository repository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${orders.submission.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orders.submission.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${orders.submission.claim-timeout-ms:60000}")
+    private long claimTimeoutMs;
+
+    @Value("${orders.submission.retention-ms:604800000}")
+    private long retentionMs;
+
+    @Transactional
+    public OrderSubmissionResponse submit(Long userId, OrderRequest request) {
+        OrderSubmission submission = repository.save(OrderSubmission.builder()
+                .ticket(UUID.randomUUID().toString())
+                .userId(userId)
+                .request(serialize(request))
+                .build());
+        return toResponse(submission);
+    }
+
+    /**
+     * The submission behind {@code ticket}; {@code userId} is null for an admin, who may read any.
+     */
+    @Transactional(readOnly = true)
+    public OrderSubmissionResponse getSubmission(String ticket, Long userId) {
+        return repository.findByTicket(ticket)
+                .filter(submission -> userId == null || userId.equals(submission.getUserId()))
+                .map(this::toResponse)
+                .orElseThrow(() -> new ResourceNotFoundException("Order submission not found: " + ticket));
+    }
+
+    /**
+     * Marks up to {@code batchSize} due submissions IN_PROGRESS for the caller and returns them. The
+     * claim is committed before the caller does any work, so it holds no lock while pricing.
+     * Submissions whose claims kept timing out until {@code max-attempts} was used up are rejected
+     * here instead of being handed out again.
+     */
+    @Transactional
+    public List<OrderSubmission> claimBatch(int batchSize) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime staleBefore = now.minusNanos(claimTimeoutMs * 1_000_000);
+        List<OrderSubmission> claimed = new ArrayList<>();
+        for (OrderSubmission submission : repository.lockNextBatch(now, staleBefore, batchSize)) {
+            if (submission.getAttemptCount() >= maxAttempts) {
+                logger.warn("Rejecting order submission {} after {} attempts", submission.getTicket(), submission.getAttemptCount());
+                submission.setStatus(OrderSubmissionStatus.REJECTED);
+                submission.setLastError("Order could not be processed after " + submission.getAttemptCount() + " attempts");
+                submission.setCompletedAt(now);
+                continue;
+            }
+            submission.setStatus(OrderSubmissionStatus.IN_PROGRESS);
+            submission.setAttemptCount(submission.getAttemptCount() + 1);
+            submission.setNextAttemptAt(now);
+            claimed.add(submission);
+        }
+        return claimed;
+    }
+
+    public OrderRequest readRequest(OrderSubmission submission) throws JsonProcessingException {
+        return objectMapper.readValue(submission.getRequest(), OrderRequest.class);
+    }
+
+    /**
+     * Records the order created for a claimed submission. Must run in the order's transaction: if the
+     * claim has been taken over by another worker meanwhile, this throws and the order rolls back.
+     */
+    public void complete(OrderSubmission submission, Long orderId) {
+        if (repository.complete(submission.getId(), submission.getAttemptCount(), orderId, LocalDateTime.now()) == 0) {
+            throw new IllegalStateException("Order submission " + submission.getTicket() + " is no longer claimed");
+        }
+    }
+
+    public void reject(OrderSubmission submission, String error) {
+        repository.reject(submission.getId(), submission.getAttemptCount(), truncate(error), LocalDateTime.now());
+    }
+
+    /**
+     * Hands a claimed submission back for a later attempt after a transient failure, backing off
+     * with each attempt. Once {@code max-attempts} is used up the submission is rejected instead.
+     */
+    @Transactional
+    public void retryLater(OrderSubmission submission, String error) {
+        int attempt = submission.getAttemptCount();
+        if (attempt >= maxAttempts) {
+            reject(submission, "Order could not be processed: " + error);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        repository.retryLater(submission.getId(), attempt, truncate(error),
+                now.plusNanos(retryDelayMs * attempt * 1_000_000), now);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.submission.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeCompleted() {
+        int purged = repository.deleteCompletedBefore(LocalDateTime.now().minusNanos(retentionMs * 1_000_000));
+        if (purged > 0) {
+            logger.info("Purged {} finished order submissions", purged);
+        }
+    }
+
+    private OrderSubmissionResponse toResponse(OrderSubmission submission) {
+        return new OrderSubmissionResponse(
+                submission.getTicket(),
+                submission.getStatus().name(),
+                submission.getOrderId(),
+                submission.getLastError(),
+                submission.getCreatedAt(),
+                submission.getCompletedAt());
+    }
+
+    private String serialize(OrderRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize order request", ex);
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) return null;
+        return message.length() > 2000 ? message.substring(0, 2000) : message;
+    }
+}
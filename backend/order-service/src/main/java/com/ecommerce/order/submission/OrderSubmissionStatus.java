@@ -0,0 +1,8 @@
+package com.ecommerce.order.submission;
+
+public enum OrderSubmissionStatus {
+    PENDING,
+    IN_PROGRESS,
+    COMPLETED,
+    REJECTED
+}
@@ -0,0 +1,254 @@
+package com.ecommerce.order.submission;
+
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.common.exception.ResourceNotFoundException;
+import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.domain.OrderItem;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.service.OrderService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Turns accepted order submissions into orders. Each batch is priced against one catalog lookup
+ * and its orders are inserted in one transaction, together with the submissions' outcomes. Workers
+ * are added while batches come back full, up to {@code orders.submission.workers}; rows are claimed
+ * with SKIP LOCKED, so workers on other instances share the backlog without contention.
+ */
+@Component
+@SuppressWarnings("null")
+public class OrderSubmissionWorker {
+    private static final Logger logger = LoggerFactory.getLogger(OrderSubmissionWorker.class);
+
+    static final String UNAVAILABLE = "Service temporarily unavailable";
+    static final String FAILED = "Internal error";
+
+    @Autowired
+    private OrderSubmissionService submissionService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${orders.submission.batch-size:50}")
+    private int batchSize;
+
+    private final int maxWorkers;
+    private final Executor executor;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+    private final Counter completed;
+    private final Counter rejected;
+    private final Counter retried;
+    private final Timer queueTime;
+
+    @Autowired
+    public OrderSubmissionWorker(MeterRegistry meterRegistry, @Value("${orders.submission.workers:4}") int maxWorkers) {
+        this(meterRegistry, maxWorkers, workerExecutor(maxWorkers));
+    }
+
+    OrderSubmissionWorker(MeterRegistry meterRegistry, int maxWorkers, Executor executor) {
+        this.maxWorkers = maxWorkers;
+        this.executor = executor;
+        this.completed = outcome(meterRegistry, "completed");
+        this.rejected = outcome(meterRegistry, "rejected");
+        this.retried = outcome(meterRegistry, "retried");
+        this.queueTime = Timer.builder("orders.submission.queue.time")
+                .description("Time from an order submission being accepted to its outcome being committed")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${orders.submission.poll-interval-ms:250}")
+    public void poll() {
+        if (activeWorkers.get() == 0) {
+            startWorker();
+        }
+    }
+
+    private void startWorker() {
+        if (activeWorkers.incrementAndGet() > maxWorkers) {
+            activeWorkers.decrementAndGet();
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                while (processBatch() == batchSize) {
+                    // A full batch means a backlog: let another worker help drain it.
+                    startWorker();
+                }
+            } catch (RuntimeException ex) {
+                logger.error("Order submission worker stopped", ex);
+            } finally {
+                activeWorkers.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Claims and finishes one batch, returning how many submissions it claimed. Returns 0 when the
+     * catalog is unavailable so the worker backs off until the next poll.
+     */
+    int processBatch() {
+        List<OrderSubmission> claimed = submissionService.claimBatch(batchSize);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Submitted> readable = new ArrayList<>();
+        List<Outcome> outcomes = new ArrayList<>();
+        for (OrderSubmission submission : claimed) {
+            try {
+                readable.add(new Submitted(submission, submissionService.readRequest(submission)));
+            } catch (JsonProcessingException ex) {
+                outcomes.add(Outcome.rejected(submission, "Unreadable order request"));
+            }
+        }
+
+        Map<Long, ProductCatalogClient.ProductInfo> products;
+        try {
+            products = readable.isEmpty()
+                    ? Map.of()
+                    : orderService.resolveProducts(readable.stream().map(Submitted::request).toList(), false);
+        } catch (RuntimeException ex) {
+            // Whatever went wrong, the claims are handed back rather than left to time out.
+            logger.warn("Catalog lookup failed, deferring {} order submissions", readable.size(), ex);
+            readable.forEach(submitted -> retryLater(submitted.submission(), clientError(ex)));
+            persist(outcomes);
+            return 0;
+        }
+
+        for (Submitted submitted : readable) {
+            try {
+                outcomes.add(Outcome.priced(submitted.submission(), orderService.priceItems(submitted.request(), products)));
+            } catch (ResourceNotFoundException | ResourceConflictException ex) {
+                outcomes.add(Outcome.rejected(submitted.submission(), ex.getMessage()));
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to price order submission {}", submitted.submission().getTicket(), ex);
+                retryLater(submitted.submission(), clientError(ex));
+            }
+        }
+        persist(outcomes);
+        return claimed.size();
+    }
+
+    private void persist(List<Outcome> outcomes) {
+        if (outcomes.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> outcomes.forEach(this::apply));
+            outcomes.forEach(this::record);
+        } catch (RuntimeException ex) {
+            // One failing order must not hold back the rest of the batch.
+            logger.warn("Order submission batch failed, retrying {} submissions one by one", outcomes.size(), ex);
+            for (Outcome outcome : outcomes) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> apply(outcome));
+                    record(outcome);
+                } catch (RuntimeException single) {
+                    logger.warn("Failed to persist order submission {}", outcome.submission().getTicket(), single);
+                    retryLater(outcome.submission(), clientError(single));
+                }
+            }
+        }
+    }
+
+    private void apply(Outcome outcome) {
+        if (outcome.items() == null) {
+            submissionService.reject(outcome.submission(), outcome.error());
+            return;
+        }
+        // Fresh items each time: a rolled-back batch leaves ids on the ones it tried to insert.
+        List<OrderItem> items = outcome.items().stream()
+                .map(item -> OrderItem.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .price(item.getPrice())
+                        .build())
+                .collect(Collectors.toList());
+        OrderResponse order = orderService.persistNewOrder(outcome.submission().getUserId(), items, null);
+        submissionService.complete(outcome.submission(), order.id());
+    }
+
+    private void record(Outcome outcome) {
+        (outcome.items() == null ? rejected : completed).increment();
+        queueTime.record(Duration.between(outcome.submission().getCreatedAt(), LocalDateTime.now()));
+    }
+
+    private void retryLater(OrderSubmission submission, String error) {
+        try {
+            submissionService.retryLater(submission, error);
+            retried.increment();
+        } catch (RuntimeException ex) {
+            // The claim times out and the submission is picked up again.
+            logger.error("Failed to release order submission {}", submission.getTicket(), ex);
+        }
+    }
+
+    // Stored as the submission's error, which its owner can read: the cause is logged, never stored.
+    // Catalog failures already carry messages written for clients.
+    private String clientError(RuntimeException ex) {
+        if (ex instanceof ResourceConflictException) {
+            return ex.getMessage();
+        }
+        if (ex instanceof TransientDataAccessException
+                || ex instanceof DataAccessResourceFailureException
+                || ex instanceof CannotCreateTransactionException) {
+            return UNAVAILABLE;
+        }
+        return FAILED;
+    }
+
+    private static Counter outcome(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("orders.submission.processed")
+                .description("Order submissions finished or deferred by the submission workers")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Executor workerExecutor(int threads) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-submission-");
+        threadFactory.setDaemon(true);
+        return Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    private record Submitted(OrderSubmission submission, OrderRequest request) {
+    }
+
+    private record Outcome(OrderSubmission submission, List<OrderItem> items, String error) {
+
+        static Outcome priced(OrderSubmission submission, List<OrderItem> items) {
+            return new Outcome(submission, items, null);
+        }
+
+        static Outcome rejected(OrderSubmission submission, String error) {
+            return new Outcome(submission, null, error);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ecommerce.order;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderItemRequest;
 import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.repository.OrderRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,6 +18,8 @@ import org.springframework.kafka.core.KafkaTemplate;
 import com.ecommerce.common.security.CustomPrincipal;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import com.zaxxer.hikari.HikariDataSource;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
@@ -25,8 +28,12 @@ import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -64,6 +71,12 @@ public class OrderIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
     @MockBean
     private KafkaTemplate<String, Object> kafkaTemplate;
 
@@ -73,9 +86,9 @@ public class OrderIntegrationTest {
     @Test
     public void testCreateOrder() throws Exception {
         when(productCatalogClient.getProducts(anyList()))
-                .thenReturn(Map.of(1L, new ProductCatalogClient.ProductInfo(1L, new BigDecimal("50.00"), "ACTIVE")));
+                .thenReturn(Map.of(1L, new ProductCatalogClient.ProductInfo(1L, new BigDecimal("50.00"), "ACTIVE", 0L)));
 
-        OrderItemRequest item = new OrderItemRequest(1L, 2, new BigDecimal("50.00"));
+        OrderItemRequest item = new OrderItemRequest(1L, 2, new BigDecimal("50.00"), null);
         OrderRequest request = new OrderRequest(List.of(item));
         CustomPrincipal principal = new CustomPrincipal(
                 "test@example.com",
@@ -95,4 +108,63 @@ public class OrderIntegrationTest {
                 .andExpect(jsonPath("$.status").value("CREATED"))
                 .andExpect(jsonPath("$.totalAmount").value(100.00));
     }
+
+    @Test
+    public void createOrderHoldsNoConnectionDuringCatalogLookup() throws Exception {
+        AtomicInteger activeConnections = new AtomicInteger(-1);
+        AtomicBoolean transactionActive = new AtomicBoolean(true);
+        when(productCatalogClient.getProducts(anyList())).thenAnswer(invocation -> {
+            activeConnections.set(dataSource.getHikariPoolMXBean().getActiveConnections());
+            transactionActive.set(TransactionSynchronizationManager.isActualTransactionActive());
+            return Map.of(1L, new ProductCatalogClient.ProductInfo(1L, new BigDecimal("50.00"), "ACTIVE", 0L));
+        });
+
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(1L, 1, null, null)));
+        CustomPrincipal principal = new CustomPrincipal(
+                "test@example.com",
+                "",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")),
+                1L);
+
+        mockMvc.perform(post("/orders")
+                .with(authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities())))
+                .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(request))))
+                .andExpect(status().isOk());
+
+        assertEquals(0, activeConnections.get());
+        assertFalse(transactionActive.get());
+    }
+
+    @Test
+    public void repeatedIdempotencyKeyCreatesOneOrder() throws Exception {
+        when(productCatalogClient.getProducts(anyList()))
+                .thenReturn(Map.of(1L, new ProductCatalogClient.ProductInfo(1L, new BigDecimal("50.00"), "ACTIVE", 0L)));
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(1L, 1, null, null)));
+        CustomPrincipal principal = new CustomPrincipal(
+                "test@example.com",
+                "",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")),
+                2L);
+        UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(
+                principal, null, principal.getAuthorities());
+
+        String first = mockMvc.perform(post("/orders")
+                .with(authentication(auth))
+                .header("Idempotency-Key", "retry-after-timeout")
+                .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(request))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String second = mockMvc.perform(post("/orders")
+                .with(authentication(auth))
+                .header("Idempotency-Key", "retry-after-timeout")
+                .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                .content(Objects.requireNonNull(objectMapper.writeValueAsString(request))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(objectMapper.readTree(first).get("id"), objectMapper.readTree(second).get("id"));
+        assertEquals(1, orderRepository.findAll().stream().filter(order -> order.getUserId() == 2L).count());
+    }
 }
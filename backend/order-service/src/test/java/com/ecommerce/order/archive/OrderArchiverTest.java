@@ -0,0 +1,59 @@
+package com.ecommerce.order.archive;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class OrderArchiverTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderArchiver archiver = new OrderArchiver(meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(archiver, "namedParameterJdbcTemplate", namedParameterJdbcTemplate);
+        ReflectionTestUtils.setField(archiver, "archivedStatuses", Set.of("CANCELLED", "DELIVERED"));
+        ReflectionTestUtils.setField(archiver, "batchSize", 100);
+    }
+
+    @Test
+    void archivesInBatchesUntilOneComesBackShort() {
+        when(namedParameterJdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(100, 100, 42);
+
+        assertEquals(242, archiver.archive(LocalDateTime.of(2024, 1, 1, 0, 0)));
+
+        verify(namedParameterJdbcTemplate, times(3)).update(anyString(), any(SqlParameterSource.class));
+        assertEquals(242.0, meterRegistry.get("orders.archived").counter().count());
+    }
+
+    @Test
+    void onlyArchivedStatusesAndUnfilteredReadsReachTheArchive() {
+        assertTrue(archiver.mayBeArchived(null));
+        assertTrue(archiver.mayBeArchived(" "));
+        assertTrue(archiver.mayBeArchived("DELIVERED"));
+        assertFalse(archiver.mayBeArchived("PAID"));
+    }
+}
@@ -0,0 +1,141 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.common.exception.ResourceConflictException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogBatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> fetchedBatches = Collections.synchronizedList(new ArrayList<>());
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void callersInsideOneWindowShareOneBatchAndGetTheirOwnSlice() throws Exception {
+        ProductCatalogBatcher batcher = new ProductCatalogBatcher(this::catalog, meterRegistry, 200, 100);
+        CountDownLatch start = new CountDownLatch(1);
+
+        Future<Map<Long, ProductCatalogClient.ProductInfo>> first = callers.submit(() -> {
+            start.await();
+            return batcher.load(List.of(1L, 2L));
+        });
+        Future<Map<Long, ProductCatalogClient.ProductInfo>> second = callers.submit(() -> {
+            start.await();
+            return batcher.load(List.of(2L, 3L));
+        });
+        start.countDown();
+
+        assertEquals(List.of(1L, 2L), List.copyOf(first.get(5, TimeUnit.SECONDS).keySet()));
+        assertEquals(List.of(2L, 3L), List.copyOf(second.get(5, TimeUnit.SECONDS).keySet()));
+        assertEquals(1, fetchedBatches.size());
+        assertEquals(3, fetchedBatches.get(0).size());
+        assertEquals(4.0 / 3.0, meterRegistry.get("orders.catalog.coalesce.ratio").gauge().value(), 0.001);
+    }
+
+    @Test
+    void fullBatchIsFlushedWithoutWaitingForTheWindow() {
+        ProductCatalogBatcher batcher = new ProductCatalogBatcher(this::catalog, meterRegistry, 60_000, 2);
+
+        Map<Long, ProductCatalogClient.ProductInfo> products = batcher.load(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(5, products.size());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), fetchedBatches);
+        assertEquals(3, meterRegistry.get("orders.catalog.batch.size").summary().count());
+    }
+
+    @Test
+    void unknownIdsAreAbsentFromTheSlice() {
+        ProductCatalogBatcher batcher = new ProductCatalogBatcher(this::catalog, meterRegistry, 0, 100);
+
+        Map<Long, ProductCatalogClient.ProductInfo> products = batcher.load(List.of(1L, 404L));
+
+        assertEquals(List.of(1L), List.copyOf(products.keySet()));
+    }
+
+    @Test
+    void fetchFailureReachesEveryCallerInTheBatch() throws Exception {
+        CountDownLatch bothQueued = new CountDownLatch(1);
+        ProductCatalogBatcher batcher = new ProductCatalogBatcher(ids -> {
+            throw new ResourceConflictException("Product catalog temporarily unavailable");
+        }, meterRegistry, 200, 100);
+
+        Future<?> first = callers.submit(() -> {
+            bothQueued.await();
+            return batcher.load(List.of(1L));
+        });
+        Future<?> second = callers.submit(() -> {
+            bothQueued.await();
+            return batcher.load(List.of(2L));
+        });
+        bothQueued.countDown();
+
+        for (Future<?> caller : List.of(first, second)) {
+            ExecutionException ex = assertThrows(ExecutionException.class, () -> caller.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ResourceConflictException.class, ex.getCause());
+        }
+    }
+
+    @Test
+    void idAlreadyInFlightIsJoinedNotFetchedAgain() throws Exception {
+        CountDownLatch fetchStarted = new CountDownLatch(1);
+        CountDownLatch releaseFetch = new CountDownLatch(1);
+        ProductCatalogBatcher batcher = new ProductCatalogBatcher(ids -> {
+            fetchStarted.countDown();
+            await(releaseFetch);
+            return catalog(ids);
+        }, meterRegistry, 0, 100);
+
+        Future<Map<Long, ProductCatalogClient.ProductInfo>> first = callers.submit(() -> batcher.load(List.of(7L)));
+        assertTrue(fetchStarted.await(5, TimeUnit.SECONDS));
+        Future<Map<Long, ProductCatalogClient.ProductInfo>> second = callers.submit(() -> batcher.load(List.of(7L)));
+        TimeUnit.MILLISECONDS.sleep(50);
+        releaseFetch.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.get("orders.catalog.coalesce.fetched").counter().count());
+        assertEquals(2.0, meterRegistry.get("orders.catalog.coalesce.requested").counter().count());
+    }
+
+    private Map<Long, ProductCatalogClient.ProductInfo> catalog(List<Long> ids) {
+        fetchedBatches.add(ids);
+        Map<Long, ProductCatalogClient.ProductInfo> products = new LinkedHashMap<>();
+        for (Long id : ids) {
+            if (id != 404L) {
+                products.put(id, new ProductCatalogClient.ProductInfo(id, BigDecimal.TEN, "ACTIVE", 0L));
+            }
+        }
+        return products;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.ecommerce.order.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogCacheTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductCatalogCache cache = new ProductCatalogCache(meterRegistry, 30_000, 10_000, 2, clock::get);
+
+    @Test
+    void expiredEntriesAreReportedMissing() {
+        cache.putAll(List.of(product(1L, "10.00", 1L)));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        ProductCatalogCache.Lookup lookup = cache.lookup(List.of(1L), new HashMap<>());
+
+        assertEquals(List.of(1L), lookup.missing());
+        assertEquals(1.0, meterRegistry.get("orders.catalog.cache.lookups").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void refreshAheadIsHandedOutOnceUntilAbandoned() {
+        cache.putAll(List.of(product(1L, "10.00", 1L)));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(21));
+
+        assertEquals(List.of(1L), cache.lookup(List.of(1L), new HashMap<>()).dueForRefresh());
+        assertTrue(cache.lookup(List.of(1L), new HashMap<>()).dueForRefresh().isEmpty());
+
+        cache.refreshAbandoned(List.of(1L));
+        assertEquals(List.of(1L), cache.lookup(List.of(1L), new HashMap<>()).dueForRefresh());
+    }
+
+    @Test
+    void olderVersionNeverReplacesNewerOne() {
+        cache.putAll(List.of(product(1L, "12.00", 2L)));
+        cache.putAll(List.of(product(1L, "10.00", 1L)));
+
+        Map<Long, ProductCatalogClient.ProductInfo> target = new HashMap<>();
+        cache.lookup(List.of(1L), target);
+
+        assertEquals(2L, target.get(1L).version());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedAtCapacity() {
+        cache.putAll(List.of(product(1L, "1.00", 0L), product(2L, "2.00", 0L)));
+        cache.lookup(List.of(1L), new HashMap<>());
+        cache.putAll(List.of(product(3L, "3.00", 0L)));
+
+        assertEquals(List.of(2L), cache.lookup(List.of(1L, 2L, 3L), new HashMap<>()).missing());
+    }
+
+    private ProductCatalogClient.ProductInfo product(Long id, String price, Long version) {
+        return new ProductCatalogClient.ProductInfo(id, new BigDecimal(price), "ACTIVE", version);
+    }
+}
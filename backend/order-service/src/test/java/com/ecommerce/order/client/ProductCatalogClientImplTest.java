@@ -3,6 +3,9 @@ package com.ecommerce.order.client;
 import com.ecommerce.common.exception.ResourceConflictException;
 import com.ecommerce.common.exception.ResourceNotFoundException;
 import com.ecommerce.order.config.HttpClientConfig;
+import com.ecommerce.order.config.ProductCatalogResilienceConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpMethod;
@@ -12,6 +15,10 @@ import org.springframework.test.web.client.ExpectedCount;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
@@ -27,14 +34,25 @@ class ProductCatalogClientImplTest {
     private RestTemplate restTemplate;
     private MockRestServiceServer mockServer;
     private ProductCatalogClientImpl productCatalogClient;
+    private final AtomicLong clock = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
 
     @BeforeEach
     void setUp() {
         HttpClientConfig httpClientConfig = new HttpClientConfig();
-        restTemplate = httpClientConfig.restTemplate(new org.springframework.boot.web.client.RestTemplateBuilder(), 1000, 2000);
-        RetryTemplate retryTemplate = httpClientConfig.productCatalogRetryTemplate(3, 0);
+        restTemplate = httpClientConfig.restTemplate(new org.springframework.boot.web.client.RestTemplateBuilder(),
+                new org.springframework.http.client.HttpComponentsClientHttpRequestFactory());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductCatalogResilienceConfig resilienceConfig = new ProductCatalogResilienceConfig();
+        RetryBudget retryBudget = resilienceConfig.productCatalogRetryBudget(meterRegistry, 0.1, 10);
+        RetryTemplate retryTemplate = resilienceConfig.productCatalogRetryTemplate(retryBudget, 3, 0);
+        circuitBreaker = resilienceConfig.productCatalogCircuitBreaker(meterRegistry, 50, 1000, 80, 10, 4, 60_000, 1);
+        ProductCatalogGuard guard = new ProductCatalogGuard(retryTemplate, circuitBreaker,
+                resilienceConfig.productCatalogBulkhead(meterRegistry, 10, 0), retryBudget, meterRegistry, null, 50);
         mockServer = MockRestServiceServer.bindTo(restTemplate).build();
-        productCatalogClient = new ProductCatalogClientImpl(restTemplate, retryTemplate, BASE_URL);
+        ProductCatalogCache cache = new ProductCatalogCache(meterRegistry, 30_000, 10_000, 100, clock::get);
+        productCatalogClient = new ProductCatalogClientImpl(restTemplate, guard, cache, Runnable::run, BASE_URL,
+                meterRegistry, 0, 100);
     }
 
     @Test
@@ -86,4 +104,71 @@ class ProductCatalogClientImplTest {
         assertEquals("15.50", result.get(2L).price().toPlainString());
         mockServer.verify();
     }
+
+    @Test
+    void findProductsLeavesOutIdsUnknownToTheCatalog() {
+        mockServer.expect(requestTo(BASE_URL + "/products/batch?ids=1&ids=2"))
+                .andRespond(withSuccess("[{\"id\":1,\"price\":99.99,\"status\":\"ACTIVE\"}]",
+                        org.springframework.http.MediaType.APPLICATION_JSON));
+
+        var result = productCatalogClient.findProducts(java.util.List.of(1L, 2L));
+
+        assertEquals(java.util.Set.of(1L), result.keySet());
+        mockServer.verify();
+    }
+
+    @Test
+    void repeatedLookupsWithinTtlAreServedFromCache() {
+        mockServer.expect(ExpectedCount.once(), requestTo(BASE_URL + "/products/batch?ids=1"))
+                .andRespond(withSuccess("[{\"id\":1,\"price\":99.99,\"status\":\"ACTIVE\",\"version\":3}]",
+                        org.springframework.http.MediaType.APPLICATION_JSON));
+
+        productCatalogClient.getProduct(1L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(5));
+        ProductCatalogClient.ProductInfo cached = productCatalogClient.getProduct(1L);
+
+        assertEquals(3L, cached.version());
+        mockServer.verify();
+    }
+
+    @Test
+    void hitNearExpiryIsServedAndRefreshedAhead() {
+        mockServer.expect(requestTo(BASE_URL + "/products/batch?ids=1"))
+                .andRespond(withSuccess("[{\"id\":1,\"price\":10.00,\"status\":\"ACTIVE\",\"version\":1}]",
+                        org.springframework.http.MediaType.APPLICATION_JSON));
+        mockServer.expect(requestTo(BASE_URL + "/products/batch?ids=1"))
+                .andRespond(withSuccess("[{\"id\":1,\"price\":12.00,\"status\":\"ACTIVE\",\"version\":2}]",
+                        org.springframework.http.MediaType.APPLICATION_JSON));
+
+        productCatalogClient.getProduct(1L);
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(25));
+
+        assertEquals("10.00", productCatalogClient.getProduct(1L).price().toPlainString());
+        assertEquals("12.00", productCatalogClient.getProduct(1L).price().toPlainString());
+        mockServer.verify();
+    }
+
+    @Test
+    void refreshProductsBypassesCache() {
+        mockServer.expect(ExpectedCount.twice(), requestTo(BASE_URL + "/products/batch?ids=2"))
+                .andRespond(withSuccess("[{\"id\":2,\"price\":5.00,\"status\":\"ACTIVE\",\"version\":4}]",
+                        org.springframework.http.MediaType.APPLICATION_JSON));
+
+        productCatalogClient.getProducts(List.of(2L));
+        var refreshed = productCatalogClient.refreshProducts(List.of(2L));
+
+        assertEquals(4L, refreshed.get(2L).version());
+        mockServer.verify();
+    }
+
+    @Test
+    void openCircuitFailsFastWithoutCallingCatalog() {
+        circuitBreaker.transitionToOpenState();
+
+        ResourceConflictException ex = assertThrows(ResourceConflictException.class,
+                () -> productCatalogClient.getProduct(3L));
+
+        assertEquals("Product catalog temporarily unavailable", ex.getMessage());
+        mockServer.verify();
+    }
 }
@@ -0,0 +1,159 @@
+package com.ecommerce.order.client;
+
+import com.ecommerce.order.config.ProductCatalogResilienceConfig;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCatalogGuardTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ProductCatalogResilienceConfig config = new ProductCatalogResilienceConfig();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void circuitOpensAfterFailuresAndStopsCallingTheCatalog() {
+        RetryBudget budget = config.productCatalogRetryBudget(meterRegistry, 0.1, 0);
+        CircuitBreaker circuitBreaker = config.productCatalogCircuitBreaker(meterRegistry, 50, 1000, 80, 4, 4, 60_000, 1);
+        ProductCatalogGuard guard = guard(budget, circuitBreaker, config.productCatalogBulkhead(meterRegistry, 10, 0), null);
+        AtomicInteger calls = new AtomicInteger();
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(HttpServerErrorException.class, () -> guard.execute(() -> {
+                calls.incrementAndGet();
+                throw new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+            }));
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CallNotPermittedException.class, () -> guard.execute(calls::incrementAndGet));
+        assertEquals(4, calls.get());
+        assertEquals(1.0, meterRegistry.get("resilience4j.circuitbreaker.state")
+                .tags("name", "product-catalog", "state", "open").gauge().value());
+    }
+
+    @Test
+    void retriesStopWhenBudgetIsSpent() {
+        RetryBudget budget = config.productCatalogRetryBudget(meterRegistry, 0.1, 2);
+        ProductCatalogGuard guard = guard(budget, openableBreaker(), config.productCatalogBulkhead(meterRegistry, 10, 0), null);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.execute(() -> {
+                attempts.incrementAndGet();
+                throw new ResourceAccessException("timeout");
+            }));
+        }
+
+        // First call retries twice on the initial burst, later calls get a single attempt each.
+        assertEquals(5, attempts.get());
+        assertTrue(meterRegistry.get("orders.catalog.retry.budget.exhausted").counter().count() >= 2);
+    }
+
+    @Test
+    void fullBulkheadRejectsImmediately() throws Exception {
+        Bulkhead bulkhead = config.productCatalogBulkhead(meterRegistry, 1, 0);
+        ProductCatalogGuard guard = guard(config.productCatalogRetryBudget(meterRegistry, 0.1, 10), openableBreaker(), bulkhead, null);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> occupying = executor.submit(() -> guard.execute(() -> {
+            inside.countDown();
+            await(release);
+            return "ok";
+        }));
+        assertTrue(inside.await(5, TimeUnit.SECONDS));
+
+        assertThrows(BulkheadFullException.class, () -> guard.execute(() -> "second"));
+        release.countDown();
+        assertEquals("ok", occupying.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowPrimaryIsHedgedAndFasterResponseWins() {
+        ProductCatalogGuard guard = guard(config.productCatalogRetryBudget(meterRegistry, 0.1, 10), openableBreaker(),
+                config.productCatalogBulkhead(meterRegistry, 10, 0), executor);
+        AtomicInteger attempts = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        String result = guard.execute(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(release);
+                return "slow";
+            }
+            return "hedged";
+        });
+        release.countDown();
+
+        assertEquals("hedged", result);
+        assertEquals(1.0, meterRegistry.get("orders.catalog.hedge.sent").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.catalog.hedge.won").counter().count());
+    }
+
+    @Test
+    void noHedgeWithoutBudget() {
+        ProductCatalogGuard guard = guard(config.productCatalogRetryBudget(meterRegistry, 0.1, 0), openableBreaker(),
+                config.productCatalogBulkhead(meterRegistry, 10, 0), executor);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = guard.execute(() -> {
+            attempts.incrementAndGet();
+            sleep(100);
+            return "primary";
+        });
+
+        assertEquals("primary", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, meterRegistry.get("orders.catalog.hedge.sent").counter().count());
+    }
+
+    private ProductCatalogGuard guard(RetryBudget budget, CircuitBreaker circuitBreaker, Bulkhead bulkhead,
+                                      ExecutorService hedgeExecutor) {
+        RetryTemplate retryTemplate = config.productCatalogRetryTemplate(budget, 3, 0);
+        return new ProductCatalogGuard(retryTemplate, circuitBreaker, bulkhead, budget, meterRegistry, hedgeExecutor, 20);
+    }
+
+    private CircuitBreaker openableBreaker() {
+        return config.productCatalogCircuitBreaker(meterRegistry, 50, 1000, 80, 50, 20, 60_000, 1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
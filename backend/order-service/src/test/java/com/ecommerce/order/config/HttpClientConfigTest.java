@@ -0,0 +1,70 @@
+package com.ecommerce.order.config;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer server;
+    private HttpComponentsClientHttpRequestFactory requestFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/products/batch", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            byte[] body = "[]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        requestFactory = new HttpClientConfig().productCatalogRequestFactory(
+                meterRegistry, 1000, 2000, 500, 10, 5, 30_000, 15_000, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        requestFactory.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void sequentialCallsReuseOneKeptAliveConnection() {
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        String url = "http://localhost:" + server.getAddress().getPort() + "/products/batch?ids=1";
+
+        for (int i = 0; i < 5; i++) {
+            restTemplate.getForObject(url, String.class);
+        }
+
+        assertEquals(1, clientPorts.size());
+        assertEquals(1.0, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", "product-catalog", "state", "available").gauge().value());
+        assertEquals(5, meterRegistry.get("httpcomponents.httpclient.pool.acquire")
+                .tag("httpclient", "product-catalog").timer().count());
+    }
+
+    @Test
+    void poolLimitsArePublished() {
+        assertEquals(10.0, meterRegistry.get("httpcomponents.httpclient.pool.total.max").gauge().value());
+        assertEquals(5.0, meterRegistry.get("httpcomponents.httpclient.pool.route.max.default").gauge().value());
+        assertTrue(meterRegistry.find("httpcomponents.httpclient.pool.total.pending").gauge() != null);
+    }
+}
@@ -5,13 +5,32 @@ import com.ecommerce.common.exception.OrderNotFoundException;
 import com.ecommerce.common.security.CustomPrincipal;
 import com.ecommerce.order.dto.OrderItemRequest;
 import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderPageResponse;
 import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderSearchQuery;
+import com.ecommerce.order.dto.OrderStatusTotalResponse;
+import com.ecommerce.order.dto.OrderSubmissionResponse;
+import com.ecommerce.order.dto.OrderViewRebuildResponse;
+import com.ecommerce.order.dto.SalesBucketResponse;
+import com.ecommerce.order.dto.SalesStatsQuery;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import com.ecommerce.order.idempotency.OrderIdempotencyService;
+import com.ecommerce.order.service.BulkOrderService;
+import com.ecommerce.order.service.OrderExportService;
+import com.ecommerce.order.service.OrderQueryService;
+import com.ecommerce.order.service.OrderSearchService;
 import com.ecommerce.order.service.OrderService;
+import com.ecommerce.order.service.OrderViewProjector;
+import com.ecommerce.order.service.SalesStatsService;
+import com.ecommerce.order.status.OrderStatusHub;
+import com.ecommerce.order.submission.OrderSubmissionService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -20,20 +39,37 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Supplier;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -46,6 +82,33 @@ class OrderControllerTest {
     @Mock
     private OrderService orderService;
 
+    @Mock
+    private OrderQueryService orderQueryService;
+
+    @Mock
+    private OrderExportService orderExportService;
+
+    @Mock
+    private OrderSearchService orderSearchService;
+
+    @Mock
+    private SalesStatsService salesStatsService;
+
+    @Mock
+    private OrderViewProjector orderViewProjector;
+
+    @Mock
+    private OrderIdempotencyService orderIdempotencyService;
+
+    @Mock
+    private BulkOrderService bulkOrderService;
+
+    @Mock
+    private OrderSubmissionService orderSubmissionService;
+
+    @Mock
+    private OrderStatusHub orderStatusHub;
+
     @InjectMocks
     private OrderController orderController;
 
@@ -64,35 +127,95 @@ class OrderControllerTest {
                         .principal(customerAuth(10L))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(
-                                new OrderRequest(List.of(new OrderItemRequest(5L, 2, new BigDecimal("19.99")))))))
+                                new OrderRequest(List.of(new OrderItemRequest(5L, 2, new BigDecimal("19.99"), null))))))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1L))
                 .andExpect(jsonPath("$.status").value("CREATED"));
     }
 
+    @Test
+    void createOrderWithIdempotencyKeyGoesThroughIdempotencyService() throws Exception {
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(5L, 2, new BigDecimal("19.99"), null)));
+        when(orderIdempotencyService.execute(eq(10L), eq("checkout-1"), eq(request), any()))
+                .thenReturn(sampleOrderResponse(1L, 10L));
+
+        mockMvc.perform(post("/orders")
+                        .principal(customerAuth(10L))
+                        .header("Idempotency-Key", "checkout-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1L));
+
+        verify(orderService, never()).createOrder(anyLong(), any(OrderRequest.class));
+    }
+
+    @Test
+    void submitOrderIsAcceptedWithATicket() throws Exception {
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(5L, 2, null, null)));
+        when(orderSubmissionService.submit(10L, request))
+                .thenReturn(new OrderSubmissionResponse("t-1", "PENDING", null, null, null, null));
+
+        mockMvc.perform(post("/orders/submissions")
+                        .principal(customerAuth(10L))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.ticket").value("t-1"))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+
+        verify(orderService, never()).createOrder(anyLong(), any(OrderRequest.class));
+    }
+
+    @Test
+    void getSubmissionIsScopedToTheCaller() throws Exception {
+        when(orderSubmissionService.getSubmission("t-1", 10L))
+                .thenReturn(new OrderSubmissionResponse("t-1", "COMPLETED", 42L, null, null, null));
+
+        mockMvc.perform(get("/orders/submissions/t-1").principal(customerAuth(10L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.orderId").value(42L));
+    }
+
     @Test
     void createOrderInvalidPrincipalReturnsUnauthorized() throws Exception {
         mockMvc.perform(post("/orders")
                         .principal(new UsernamePasswordAuthenticationToken("plain-user", null, List.of()))
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(
-                                new OrderRequest(List.of(new OrderItemRequest(5L, 1, new BigDecimal("19.99")))))))
+                                new OrderRequest(List.of(new OrderItemRequest(5L, 1, new BigDecimal("19.99"), null))))))
                 .andExpect(status().isUnauthorized())
                 .andExpect(jsonPath("$.message").value("Invalid user principal"));
     }
 
     @Test
     void getOrderByIdAsOwnerSuccess() throws Exception {
-        when(orderService.getOrderByIdForUser(1L, 10L)).thenReturn(sampleOrderResponse(1L, 10L));
+        when(orderQueryService.getOrderETag(1L, 10L)).thenReturn("v42");
+        when(orderQueryService.getOrderByIdForUser(1L, 10L)).thenReturn(sampleOrderResponse(1L, 10L));
 
         mockMvc.perform(get("/orders/1").principal(customerAuth(10L)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v42\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getOrderByIdUnchangedReturnsNotModifiedWithoutLoadingIt() throws Exception {
+        when(orderQueryService.getOrderETag(1L, 10L)).thenReturn("v42");
+
+        mockMvc.perform(get("/orders/1").principal(customerAuth(10L)).header("If-None-Match", "\"v42\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v42\""))
+                .andExpect(content().string(""));
+
+        verify(orderQueryService, never()).getOrderByIdForUser(anyLong(), anyLong());
+    }
+
     @Test
     void getOrderByIdAsAdminSuccess() throws Exception {
-        when(orderService.getOrderById(1L)).thenReturn(sampleOrderResponse(1L, 99L));
+        when(orderQueryService.getOrderETag(eq(1L), isNull())).thenReturn("o3");
+        when(orderQueryService.getOrderById(1L)).thenReturn(sampleOrderResponse(1L, 99L));
 
         mockMvc.perform(get("/orders/1").principal(adminAuth(1L)))
                 .andExpect(status().isOk())
@@ -101,20 +224,54 @@ class OrderControllerTest {
 
     @Test
     void getOrderByIdNotFound() throws Exception {
-        when(orderService.getOrderByIdForUser(404L, 10L)).thenThrow(new OrderNotFoundException(404L));
+        when(orderQueryService.getOrderETag(404L, 10L)).thenThrow(new OrderNotFoundException(404L));
 
         mockMvc.perform(get("/orders/404").principal(customerAuth(10L)))
                 .andExpect(status().isNotFound())
                 .andExpect(jsonPath("$.error").value("ORDER_NOT_FOUND"));
     }
 
+    @Test
+    void orderEventsStreamIsOpenedForTheOwner() throws Exception {
+        OrderStatusChangedEvent current = new OrderStatusChangedEvent(1L, "CREATED", 0L, null);
+        when(orderService.getCurrentStatus(1L, 10L)).thenReturn(current);
+        when(orderStatusHub.subscribe(eq(1L), any())).thenAnswer(invocation -> {
+            // The hub reads the current status only once the stream is registered.
+            assertEquals(current, invocation.<Supplier<OrderStatusChangedEvent>>getArgument(1).get());
+            return new SseEmitter();
+        });
+
+        mockMvc.perform(get("/orders/1/events").principal(customerAuth(10L)))
+                .andExpect(request().asyncStarted());
+    }
+
     @Test
     void getAllOrdersAdminSuccess() throws Exception {
-        when(orderService.getAllOrders()).thenReturn(List.of(sampleOrderResponse(1L, 10L)));
+        when(orderQueryService.listOrders(isNull(), any(OrderListQuery.class)))
+                .thenReturn(new OrderPageResponse(List.of(sampleOrderResponse(1L, 10L)), "next"));
 
         mockMvc.perform(get("/orders").principal(adminAuth(1L)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L));
+                .andExpect(jsonPath("$.items[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void getAllOrdersBindsFiltersAndCursor() throws Exception {
+        ArgumentCaptor<OrderListQuery> query = ArgumentCaptor.forClass(OrderListQuery.class);
+        when(orderQueryService.listOrders(isNull(), query.capture())).thenReturn(new OrderPageResponse(List.of(), null));
+
+        mockMvc.perform(get("/orders").principal(adminAuth(1L))
+                        .param("status", "PAID")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("limit", "20"))
+                .andExpect(status().isOk());
+
+        assertEquals("PAID", query.getValue().status());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0), query.getValue().from());
+        assertEquals("abc", query.getValue().cursor());
+        assertEquals(20, query.getValue().limit());
     }
 
     @Test
@@ -124,22 +281,123 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.message").value("Admin access required"));
     }
 
+    @Test
+    void searchOrdersBindsEveryFilter() throws Exception {
+        ArgumentCaptor<OrderSearchQuery> query = ArgumentCaptor.forClass(OrderSearchQuery.class);
+        when(orderSearchService.search(query.capture()))
+                .thenReturn(new OrderPageResponse(List.of(sampleOrderResponse(1L, 10L)), null));
+
+        mockMvc.perform(get("/orders/search").principal(adminAuth(1L))
+                        .param("status", "REFUND_FAILED")
+                        .param("userId", "10")
+                        .param("productId", "5")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-08T00:00:00")
+                        .param("minTotal", "10.50")
+                        .param("maxTotal", "99.99"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1L));
+
+        assertEquals(new OrderSearchQuery(10L, "REFUND_FAILED", 5L, LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 8, 0, 0), new BigDecimal("10.50"), new BigDecimal("99.99"), null, null),
+                query.getValue());
+    }
+
+    @Test
+    void searchOrdersNonAdminForbidden() throws Exception {
+        mockMvc.perform(get("/orders/search").principal(customerAuth(10L)))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void salesStatsBindsGranularityAndRange() throws Exception {
+        ArgumentCaptor<SalesStatsQuery> query = ArgumentCaptor.forClass(SalesStatsQuery.class);
+        when(salesStatsService.sales(query.capture())).thenReturn(List.of(new SalesBucketResponse(
+                LocalDateTime.of(2024, 1, 1, 0, 0), 3, new BigDecimal("30.00"), 2, new BigDecimal("20.00"),
+                1, new BigDecimal("10.00"), 0, BigDecimal.ZERO)));
+
+        mockMvc.perform(get("/orders/stats/sales").principal(adminAuth(1L))
+                        .param("granularity", "DAY")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-01-02T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].ordersCreated").value(3))
+                .andExpect(jsonPath("$[0].paidAmount").value(20.00));
+
+        assertEquals(new SalesStatsQuery("DAY", LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 1, 2, 0, 0)),
+                query.getValue());
+    }
+
+    @Test
+    void statusTotalsAdminOnly() throws Exception {
+        when(salesStatsService.statusTotals())
+                .thenReturn(List.of(new OrderStatusTotalResponse("PAID", 4, new BigDecimal("40.00"))));
+
+        mockMvc.perform(get("/orders/stats/status").principal(adminAuth(1L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("PAID"))
+                .andExpect(jsonPath("$[0].orderCount").value(4));
+        mockMvc.perform(get("/orders/stats/status").principal(customerAuth(10L)))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void getMyOrdersSuccess() throws Exception {
-        when(orderService.getUserOrders(10L)).thenReturn(List.of(sampleOrderResponse(1L, 10L)));
+        when(orderQueryService.listOrders(eq(10L), any(OrderListQuery.class)))
+                .thenReturn(new OrderPageResponse(List.of(sampleOrderResponse(1L, 10L)), null));
 
         mockMvc.perform(get("/orders/my-orders").principal(customerAuth(10L)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].userId").value(10L));
+                .andExpect(jsonPath("$.items[0].userId").value(10L));
     }
 
     @Test
     void getUserOrdersAdminSuccess() throws Exception {
-        when(orderService.getUserOrders(10L)).thenReturn(List.of(sampleOrderResponse(1L, 10L)));
+        when(orderQueryService.listOrders(eq(10L), any(OrderListQuery.class)))
+                .thenReturn(new OrderPageResponse(List.of(sampleOrderResponse(1L, 10L)), null));
 
         mockMvc.perform(get("/orders/user/10").principal(adminAuth(1L)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1L));
+                .andExpect(jsonPath("$.items[0].id").value(1L));
+    }
+
+    @Test
+    void bulkOrdersStreamOneResultPerLineForThePartner() throws Exception {
+        List<BulkOrderService.PreparedOrder> prepared = List.of(
+                new BulkOrderService.PreparedOrder(1, "PO-1", null, List.of(), null));
+        when(bulkOrderService.prepare(any())).thenReturn(prepared);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write(
+                    "{\"line\":1,\"status\":\"CREATED\"}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(bulkOrderService).create(eq(10L), eq(prepared), any());
+
+        MvcResult started = mockMvc.perform(post("/orders/bulk")
+                        .principal(partnerAuth(10L))
+                        .contentType("application/x-ndjson")
+                        .content("{\"reference\":\"PO-1\",\"items\":[{\"productId\":1,\"quantity\":1}]}\n"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("{\"line\":1,\"status\":\"CREATED\"}\n"));
+    }
+
+    @Test
+    void bulkOrdersCustomerForbidden() throws Exception {
+        mockMvc.perform(post("/orders/bulk")
+                        .principal(customerAuth(10L))
+                        .contentType("application/x-ndjson")
+                        .content("{\"reference\":\"PO-1\",\"items\":[{\"productId\":1,\"quantity\":1}]}\n"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(bulkOrderService);
+    }
+
+    @Test
+    void exportOrdersNonAdminForbidden() throws Exception {
+        mockMvc.perform(get("/orders/export").principal(customerAuth(10L)))
+                .andExpect(status().isForbidden());
     }
 
     @Test
@@ -148,6 +406,22 @@ class OrderControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void rebuildOrderViewAdminSuccess() throws Exception {
+        when(orderViewProjector.rebuild()).thenReturn(new OrderViewRebuildResponse(12, 1));
+
+        mockMvc.perform(post("/orders/view/rebuild").principal(adminAuth(1L)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.projectedOrders").value(12))
+                .andExpect(jsonPath("$.removedOrders").value(1));
+    }
+
+    @Test
+    void rebuildOrderViewNonAdminForbidden() throws Exception {
+        mockMvc.perform(post("/orders/view/rebuild").principal(customerAuth(10L)))
+                .andExpect(status().isForbidden());
+    }
+
     @Test
     void cancelOrderSuccess() throws Exception {
         doNothing().when(orderService).cancelOrder(anyLong(), any(), anyBoolean());
@@ -174,6 +448,15 @@ class OrderControllerTest {
         return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
     }
 
+    private UsernamePasswordAuthenticationToken partnerAuth(Long userId) {
+        CustomPrincipal principal = new CustomPrincipal(
+                "partner@example.com",
+                "",
+                List.of(new SimpleGrantedAuthority("ROLE_PARTNER")),
+                userId);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
     private UsernamePasswordAuthenticationToken adminAuth(Long userId) {
         CustomPrincipal principal = new CustomPrincipal(
                 "admin@example.com",
@@ -190,6 +473,10 @@ class OrderControllerTest {
                 "CREATED",
                 new BigDecimal("39.98"),
                 List.of(new OrderItemResponse(5L, 2, new BigDecimal("19.99"))),
+                null,
+                null,
+                null,
+                null,
                 null);
     }
 }
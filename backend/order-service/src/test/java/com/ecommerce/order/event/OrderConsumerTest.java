@@ -0,0 +1,113 @@
+package com.ecommerce.order.event;
+
+import com.ecommerce.order.service.EventDeduplicationService;
+import com.ecommerce.order.service.OrderService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderConsumerTest {
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private EventDeduplicationService eventDeduplicationService;
+
+    @InjectMocks
+    private OrderConsumer orderConsumer;
+
+    @Test
+    void pollIsAppliedWithOneBulkClaimAndOneBatchUpdate() {
+        when(eventDeduplicationService.tryStartProcessing(anyCollection()))
+                .thenReturn(Set.of("payment-success:1", "payment-success:3"));
+
+        orderConsumer.handlePaymentSuccess(records("payment-success",
+                new PaymentSuccessEvent(1L, "t1"),
+                new PaymentSuccessEvent(2L, "t2"),
+                new PaymentSuccessEvent(1L, "t1"),
+                new PaymentSuccessEvent(3L, "t3")));
+
+        verify(eventDeduplicationService).tryStartProcessing(
+                Set.of("payment-success:1", "payment-success:2", "payment-success:3"));
+        verify(orderService).markPaid(List.of(1L, 3L));
+        verify(orderService, never()).markPaid(any(Long.class));
+        verify(eventDeduplicationService, never()).tryStartProcessing(anyString());
+    }
+
+    @Test
+    void voidedRefundsArePassedAlongWithTheBatch() {
+        when(eventDeduplicationService.tryStartProcessing(anyCollection()))
+                .thenReturn(Set.of("refund-success:1", "refund-success:2"));
+
+        orderConsumer.handleRefundSuccess(records("refund-success",
+                new RefundSuccessEvent(1L, "t1", "REFUNDED"),
+                new RefundSuccessEvent(2L, null, "VOIDED")));
+
+        verify(orderService).markRefundCompleted(List.of(1L, 2L), Set.of(2L));
+    }
+
+    @Test
+    void failedBatchFallsBackToSingleRecordsAndReportsTheFailingIndex() {
+        when(eventDeduplicationService.tryStartProcessing(anyCollection()))
+                .thenReturn(Set.of("refund-failed:5", "refund-failed:6"));
+        doThrow(new RuntimeException("Order not found")).when(orderService).markRefundFailed(anyList());
+        when(eventDeduplicationService.tryStartProcessing(anyString())).thenReturn(true);
+        lenient().doThrow(new RuntimeException("Order not found")).when(orderService).markRefundFailed(6L);
+
+        BatchListenerFailedException ex = assertThrows(BatchListenerFailedException.class, () ->
+                orderConsumer.handleRefundFailed(records("refund-failed",
+                        new RefundFailedEvent(5L, "r5"),
+                        new RefundFailedEvent(6L, "r6"))));
+
+        assertEquals(1, ex.getIndex());
+        verify(eventDeduplicationService).markFailed(Set.of("refund-failed:5", "refund-failed:6"));
+        verify(orderService).markRefundFailed(5L);
+        verify(eventDeduplicationService).markFailed("refund-failed:6");
+        verify(eventDeduplicationService, never()).markFailed("refund-failed:5");
+    }
+
+    @Test
+    void undeserializableRecordIsReportedAfterTheRestOfThePollIsApplied() {
+        when(eventDeduplicationService.tryStartProcessing(anyCollection())).thenReturn(Set.of("inventory-failed:8"));
+        List<ConsumerRecord<String, InventoryFailedEvent>> records = new ArrayList<>();
+        records.add(new ConsumerRecord<>("inventory-failed", 0, 0L, "7", null));
+        records.add(new ConsumerRecord<>("inventory-failed", 0, 1L, "8", new InventoryFailedEvent(8L, "no stock")));
+
+        BatchListenerFailedException ex = assertThrows(BatchListenerFailedException.class,
+                () -> orderConsumer.handleInventoryFailed(records));
+
+        assertEquals(0, ex.getIndex());
+        verify(orderService).cancelAfterInventoryFailure(List.of(8L));
+    }
+
+    @SafeVarargs
+    private static <T> List<ConsumerRecord<String, T>> records(String topic, T... events) {
+        List<ConsumerRecord<String, T>> records = new ArrayList<>();
+        for (int i = 0; i < events.length; i++) {
+            records.add(new ConsumerRecord<>(topic, 0, i, String.valueOf(i), events[i]));
+        }
+        return records;
+    }
+}
@@ -0,0 +1,193 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderItemResponse;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.dto.OrderResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderIdempotencyServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final OrderIdempotencyRepository repository = mock(OrderIdempotencyRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Clock clock = Clock.fixed(NOW.atZone(ZoneId.systemDefault()).toInstant(), ZoneId.systemDefault());
+    private final OrderIdempotencyService service =
+            new OrderIdempotencyService(repository, objectMapper, meterRegistry, 60_000, 100, 5_000, clock);
+    private final ExecutorService callers = Executors.newFixedThreadPool(2);
+    private final AtomicInteger created = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void repeatedKeyIsAnsweredFromMemoryWithoutCreatingAgain() {
+        OrderResponse first = service.execute(10L, "k1", request("19.99"), claim -> create(claim, 1L));
+        OrderResponse second = service.execute(10L, "k1", request("19.99"), claim -> create(claim, 2L));
+
+        assertEquals(first, second);
+        assertEquals(1, created.get());
+        assertEquals(1.0, meterRegistry.get("orders.idempotency.replays").tag("source", "memory").counter().count());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() {
+        service.execute(10L, "k1", request("19.99"), claim -> create(claim, 1L));
+
+        assertThrows(ResourceConflictException.class,
+                () -> service.execute(10L, "k1", request("29.99"), claim -> create(claim, 2L)));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        service.execute(10L, "k1", request("19.99"), claim -> create(claim, 1L));
+        OrderResponse other = service.execute(11L, "k1", request("19.99"), claim -> create(claim, 2L));
+
+        assertEquals(2L, other.id());
+        assertEquals(2, created.get());
+    }
+
+    @Test
+    void storedKeyIsReplayedWhenNotInMemory() throws Exception {
+        OrderResponse stored = response(7L);
+        String hash = service.fingerprint(request("19.99"));
+        when(repository.findByUserIdAndIdempotencyKey(10L, "k1"))
+                .thenReturn(Optional.of(row(hash, stored, NOW.plusMinutes(1))));
+
+        OrderResponse replayed = service.execute(10L, "k1", request("19.99"), claim -> create(claim, 8L));
+
+        assertEquals(stored, replayed);
+        assertEquals(0, created.get());
+    }
+
+    @Test
+    void expiredStoredKeyIsIgnored() throws Exception {
+        String hash = service.fingerprint(request("19.99"));
+        when(repository.findByUserIdAndIdempotencyKey(10L, "k1"))
+                .thenReturn(Optional.of(row(hash, response(7L), NOW.minusSeconds(1))));
+
+        OrderResponse response = service.execute(10L, "k1", request("19.99"), claim -> create(claim, 8L));
+
+        assertEquals(8L, response.id());
+    }
+
+    @Test
+    void losingTheInsertRaceAnswersWithTheWinnersResponse() throws Exception {
+        OrderResponse winner = response(7L);
+        String hash = service.fingerprint(request("19.99"));
+        when(repository.findByUserIdAndIdempotencyKey(10L, "k1"))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(row(hash, winner, NOW.plusMinutes(1))));
+
+        OrderResponse response = service.execute(10L, "k1", request("19.99"), claim -> {
+            throw new DataIntegrityViolationException("uq_order_idempotency_user_key");
+        });
+
+        assertEquals(winner, response);
+    }
+
+    @Test
+    void concurrentDuplicateWaitsForTheFirstRequest() throws Exception {
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        Future<OrderResponse> first = callers.submit(() -> service.execute(10L, "k1", request("19.99"), claim -> {
+            firstStarted.countDown();
+            await(releaseFirst);
+            return create(claim, 1L);
+        }));
+        firstStarted.await(5, TimeUnit.SECONDS);
+        Future<OrderResponse> duplicate = callers.submit(
+                () -> service.execute(10L, "k1", request("19.99"), claim -> create(claim, 2L)));
+        TimeUnit.MILLISECONDS.sleep(50);
+        releaseFirst.countDown();
+
+        assertEquals(first.get(5, TimeUnit.SECONDS), duplicate.get(5, TimeUnit.SECONDS));
+        assertEquals(1, created.get());
+    }
+
+    @Test
+    void recordStoresSerializedResponseWithExpiry() {
+        OrderIdempotencyService.Claim claim = new OrderIdempotencyService.Claim(
+                10L, "k1", service.fingerprint(request("19.99")), NOW.plusMinutes(1));
+
+        service.record(claim, 1L, response(1L));
+
+        verify(repository).deleteExpired(10L, "k1", NOW);
+        verify(repository).saveAndFlush(any(OrderIdempotency.class));
+    }
+
+    @Test
+    void oversizedKeyIsRejected() {
+        assertThrows(BadRequestException.class,
+                () -> service.execute(10L, "k".repeat(256), request("19.99"), claim -> create(claim, 1L)));
+        verify(repository, never()).findByUserIdAndIdempotencyKey(any(), any());
+    }
+
+    private OrderResponse create(OrderIdempotencyService.Claim claim, Long orderId) {
+        created.incrementAndGet();
+        return response(orderId);
+    }
+
+    private OrderIdempotency row(String hash, OrderResponse response, LocalDateTime expiresAt) throws Exception {
+        return OrderIdempotency.builder()
+                .userId(10L)
+                .idempotencyKey("k1")
+                .requestHash(hash)
+                .orderId(response.id())
+                .response(objectMapper.writeValueAsString(response))
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static OrderRequest request(String price) {
+        return new OrderRequest(List.of(new OrderItemRequest(5L, 2, new BigDecimal(price), 3L)));
+    }
+
+    private static OrderResponse response(Long orderId) {
+        return new OrderResponse(orderId, 10L, "CREATED", new BigDecimal("39.98"),
+                List.of(new OrderItemResponse(5L, 2, new BigDecimal("19.99"))),
+                LocalDateTime.ofInstant(Instant.EPOCH, ZoneId.systemDefault()), null, null, null, null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.ecommerce.order.rollup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class SalesRollupRecorderTest {
+
+    private static final LocalDateTime TEN_FIFTEEN = LocalDateTime.of(2024, 1, 1, 10, 15);
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    private final SalesRollupRecorder recorder = new SalesRollupRecorder();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(recorder, "namedParameterJdbcTemplate", namedParameterJdbcTemplate);
+        ReflectionTestUtils.setField(recorder, "slots", 4);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void changesAreAddedUpAndWrittenOnceBeforeCommit() {
+        recorder.orderCreated("CREATED", new BigDecimal("10"), TEN_FIFTEEN);
+        recorder.orderCreated("CREATED", new BigDecimal("20"), TEN_FIFTEEN.plusMinutes(30));
+        recorder.statusChanged("CREATED", "PAID", new BigDecimal("10"), TEN_FIFTEEN.plusMinutes(50));
+        verifyNoInteractions(namedParameterJdbcTemplate);
+
+        beforeCommit();
+
+        List<SqlParameterSource> sales = written("order_sales_rollups");
+        assertEquals(List.of("DAY", "HOUR", "HOUR"), sales.stream().map(row -> row.getValue("period")).toList());
+        assertEquals(Timestamp.valueOf(TEN_FIFTEEN.withHour(0).withMinute(0)), sales.get(0).getValue("bucketStart"));
+        assertEquals(2L, sales.get(0).getValue("ordersCreated"));
+        assertEquals(1L, sales.get(0).getValue("ordersPaid"));
+        assertEquals(new BigDecimal("30"), sales.get(1).getValue("createdAmount"));
+        assertEquals(0L, sales.get(1).getValue("ordersPaid"));
+        assertEquals(Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 11, 0)), sales.get(2).getValue("bucketStart"));
+        assertEquals(new BigDecimal("10"), sales.get(2).getValue("paidAmount"));
+
+        List<SqlParameterSource> statuses = written("order_status_totals");
+        assertEquals(List.of("CREATED", "PAID"), statuses.stream().map(row -> row.getValue("status")).toList());
+        assertEquals(1L, statuses.get(0).getValue("orderCount"));
+        assertEquals(new BigDecimal("20"), statuses.get(0).getValue("totalAmount"));
+        // One transaction writes all its rows to the same slot.
+        assertEquals(1, sales.stream().map(row -> row.getValue("slot")).distinct().count());
+        assertEquals(sales.get(0).getValue("slot"), statuses.get(0).getValue("slot"));
+    }
+
+    @Test
+    void completedRefundCountsAsCancellationAndRefund() {
+        recorder.statusChanged("REFUND_PENDING", "CANCELLED", new BigDecimal("15"), TEN_FIFTEEN);
+
+        beforeCommit();
+
+        SqlParameterSource hour = written("order_sales_rollups").get(1);
+        assertEquals(1L, hour.getValue("ordersCancelled"));
+        assertEquals(1L, hour.getValue("ordersRefunded"));
+        assertEquals(new BigDecimal("15"), hour.getValue("refundedAmount"));
+        List<SqlParameterSource> statuses = written("order_status_totals");
+        assertEquals(-1L, statuses.get(1).getValue("orderCount"));
+        assertEquals(new BigDecimal("-15"), statuses.get(1).getValue("totalAmount"));
+    }
+
+    @Test
+    void voidedRefundCountsAsCancellationOnly() {
+        recorder.statusChangedWithoutRefund("REFUND_PENDING", "CANCELLED", new BigDecimal("15"), TEN_FIFTEEN);
+
+        beforeCommit();
+
+        SqlParameterSource hour = written("order_sales_rollups").get(1);
+        assertEquals(1L, hour.getValue("ordersCancelled"));
+        assertEquals(0L, hour.getValue("ordersRefunded"));
+        assertEquals(BigDecimal.ZERO, hour.getValue("refundedAmount"));
+    }
+
+    @Test
+    void statusesThatNetOutAreNotWritten() {
+        recorder.orderCreated("CREATED", BigDecimal.TEN, TEN_FIFTEEN);
+        recorder.statusChanged("CREATED", "CANCELLED", BigDecimal.TEN, TEN_FIFTEEN);
+
+        beforeCommit();
+
+        List<SqlParameterSource> statuses = written("order_status_totals");
+        assertEquals(List.of("CANCELLED"), statuses.stream().map(row -> row.getValue("status")).toList());
+    }
+
+    @Test
+    void changesOutsideATransactionAreRejected() {
+        TransactionSynchronizationManager.clearSynchronization();
+        try {
+            assertThrows(IllegalStateException.class,
+                    () -> recorder.orderCreated("CREATED", BigDecimal.TEN, TEN_FIFTEEN));
+        } finally {
+            TransactionSynchronizationManager.initSynchronization();
+        }
+    }
+
+    private void beforeCommit() {
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+    }
+
+    private List<SqlParameterSource> written(String table) {
+        ArgumentCaptor<SqlParameterSource[]> rows = ArgumentCaptor.forClass(SqlParameterSource[].class);
+        verify(namedParameterJdbcTemplate).batchUpdate(contains("INSERT INTO " + table), rows.capture());
+        return Arrays.asList(rows.getValue());
+    }
+}
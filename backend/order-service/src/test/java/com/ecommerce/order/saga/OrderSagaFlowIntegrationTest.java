@@ -88,7 +88,7 @@ class OrderSagaFlowIntegrationTest {
             List<Long> productIds = invocation.getArgument(0, List.class);
             return productIds.stream().collect(Collectors.toMap(
                     id -> id,
-                    id -> new ProductCatalogClient.ProductInfo(id, new BigDecimal("99.99"), "ACTIVE")));
+                    id -> new ProductCatalogClient.ProductInfo(id, new BigDecimal("99.99"), "ACTIVE", 0L)));
         });
     }
 
@@ -133,7 +133,7 @@ class OrderSagaFlowIntegrationTest {
         assertEquals(1L, orderCancelledEvents);
         assertEquals(1L, refundRequestedEvents);
 
-        kafkaTemplate.send("refund-success", String.valueOf(orderId), new RefundSuccessEvent(orderId, "refund-1003"))
+        kafkaTemplate.send("refund-success", String.valueOf(orderId), new RefundSuccessEvent(orderId, "refund-1003", "REFUNDED"))
                 .get(10, TimeUnit.SECONDS);
 
         awaitOrderStatus(orderId, "CANCELLED", Duration.ofSeconds(10));
@@ -158,7 +158,7 @@ class OrderSagaFlowIntegrationTest {
 
     private Long createOrder(Long userId, int quantity) {
         OrderRequest request = new OrderRequest(List.of(
-                new OrderItemRequest(1L, quantity, BigDecimal.ZERO)
+                new OrderItemRequest(1L, quantity, BigDecimal.ZERO, null)
         ));
         return orderService.createOrder(userId, request).id();
     }
@@ -0,0 +1,91 @@
+package com.ecommerce.order.saga;
+
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings({"null", "unchecked"})
+class OrderSagaWatchdogTest {
+
+    @Mock
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Mock
+    private OrderService orderService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderSagaWatchdog watchdog = new OrderSagaWatchdog(meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(watchdog, "namedParameterJdbcTemplate", namedParameterJdbcTemplate);
+        ReflectionTestUtils.setField(watchdog, "orderService", orderService);
+        ReflectionTestUtils.setField(watchdog, "stuckAfterMinutes", 15L);
+        ReflectionTestUtils.setField(watchdog, "maxRetries", 3);
+        ReflectionTestUtils.setField(watchdog, "batchSize", 100);
+        ReflectionTestUtils.setField(watchdog, "ageBucketsMinutes", List.of(15L, 60L));
+    }
+
+    @Test
+    void stuckOrdersAreRetriedUntilTheirRetriesRunOut() {
+        when(namedParameterJdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(
+                        new OrderSagaWatchdog.StuckOrder(1L, "CREATED", 0),
+                        new OrderSagaWatchdog.StuckOrder(2L, "CREATED", 3),
+                        new OrderSagaWatchdog.StuckOrder(3L, "REFUND_PENDING", 2),
+                        new OrderSagaWatchdog.StuckOrder(4L, "REFUND_PENDING", 3)));
+
+        assertEquals(4, watchdog.handleBatch());
+
+        verify(orderService).resendOrderCreated(List.of(1L));
+        verify(orderService).expireAwaitingPayment(List.of(2L));
+        verify(orderService).resendRefundRequested(List.of(3L));
+        verify(orderService).expireRefund(List.of(4L));
+        ArgumentCaptor<MapSqlParameterSource> retried = ArgumentCaptor.forClass(MapSqlParameterSource.class);
+        verify(namedParameterJdbcTemplate).update(contains("saga_retries + 1"), retried.capture());
+        assertEquals(List.of(1L, 3L), retried.getValue().getValue("orderIds"));
+        assertEquals(1.0, meterRegistry.get("orders.saga.expired").tag("status", "REFUND_PENDING").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.saga.retried").tag("status", "CREATED").counter().count());
+    }
+
+    @Test
+    void stuckOrdersAreCountedPerStatusAndAge() {
+        when(namedParameterJdbcTemplate.queryForList(anyString(), any(SqlParameterSource.class)))
+                .thenReturn(List.of(Map.of("status", "CREATED", "older_than_15", 5L, "older_than_60", 2L)));
+
+        watchdog.recordStuckOrders();
+
+        assertEquals(5.0, stuck("CREATED", "15"));
+        assertEquals(2.0, stuck("CREATED", "60"));
+        assertEquals(0.0, stuck("REFUND_PENDING", "15"));
+    }
+
+    private double stuck(String status, String olderThanMinutes) {
+        return meterRegistry.get("orders.saga.stuck")
+                .tag("status", status)
+                .tag("older_than_minutes", olderThanMinutes)
+                .gauge()
+                .value();
+    }
+}
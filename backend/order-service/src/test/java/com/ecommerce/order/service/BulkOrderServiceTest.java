@@ -0,0 +1,198 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.domain.Order;
+import com.ecommerce.order.dto.BulkOrderResult;
+import com.ecommerce.order.outbox.OutboxService;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.rollup.SalesRollupRecorder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class BulkOrderServiceTest {
+
+    private static final String VALID = "{\"reference\":\"PO-%d\",\"items\":[{\"productId\":1,\"quantity\":2}]}";
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ProductCatalogClient productCatalogClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SalesRollupRecorder salesRollupRecorder;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final BulkOrderService bulkOrderService = new BulkOrderService();
+    private final AtomicLong nextOrderId = new AtomicLong(1);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bulkOrderService, "orderService", orderService);
+        ReflectionTestUtils.setField(bulkOrderService, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(bulkOrderService, "validator",
+                Validation.buildDefaultValidatorFactory().getValidator());
+        ReflectionTestUtils.setField(bulkOrderService, "chunkSize", 2);
+        ReflectionTestUtils.setField(bulkOrderService, "maxOrders", 10);
+    }
+
+    @Test
+    void fileIsPricedWithOneCatalogLookupAndAnsweredInInputOrder() throws Exception {
+        when(productCatalogClient.findProducts(List.of(1L, 9L))).thenReturn(Map.of(1L, active(1L, "5.00")));
+        runTransactionsInline();
+        savingAssignsIds();
+
+        List<BulkOrderResult> results = run(String.join("\n",
+                VALID.formatted(1),
+                "{not json",
+                "{\"reference\":\"PO-3\",\"items\":[{\"productId\":9,\"quantity\":1}]}",
+                "",
+                "{\"reference\":\"PO-5\",\"items\":[{\"productId\":1,\"quantity\":0}]}"));
+
+        assertEquals(4, results.size());
+        assertEquals(new BulkOrderResult(1, "PO-1", "CREATED", 1L, new BigDecimal("10.00"), null), results.get(0));
+        assertEquals(BulkOrderResult.rejected(2, null, "Malformed JSON"), results.get(1));
+        assertEquals(BulkOrderResult.rejected(3, "PO-3", "Product not found with id: 9"), results.get(2));
+        assertEquals(BulkOrderResult.rejected(5, "PO-5", "items[0].quantity: must be greater than 0"), results.get(3));
+        verify(productCatalogClient).findProducts(anyList());
+        verify(productCatalogClient, never()).getProducts(anyList());
+    }
+
+    @Test
+    void acceptedOrdersAreInsertedOneTransactionPerChunk() throws Exception {
+        when(productCatalogClient.findProducts(List.of(1L))).thenReturn(Map.of(1L, active(1L, "5.00")));
+        runTransactionsInline();
+        savingAssignsIds();
+
+        List<BulkOrderResult> results = run(lines(5));
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), results.stream().map(BulkOrderResult::orderId).toList());
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(outboxService, times(5)).enqueue(any(), any(), any(), any());
+    }
+
+    @Test
+    void failedChunkRejectsOnlyItsOwnOrders() throws Exception {
+        when(productCatalogClient.findProducts(List.of(1L))).thenReturn(Map.of(1L, active(1L, "5.00")));
+        AtomicInteger transactions = new AtomicInteger();
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            if (transactions.incrementAndGet() == 2) {
+                throw new DataAccessResourceFailureException("connection lost");
+            }
+            return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+        });
+        savingAssignsIds();
+
+        List<BulkOrderResult> results = run(lines(4));
+
+        assertEquals(List.of("CREATED", "CREATED", "REJECTED", "REJECTED"),
+                results.stream().map(BulkOrderResult::status).toList());
+        assertEquals(BulkOrderService.CHUNK_UNAVAILABLE, results.get(3).error());
+    }
+
+    @Test
+    void unexpectedChunkFailureDoesNotLeakItsCause() throws Exception {
+        when(productCatalogClient.findProducts(List.of(1L))).thenReturn(Map.of(1L, active(1L, "5.00")));
+        when(transactionTemplate.execute(any())).thenThrow(new DataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"orders_pkey\""));
+
+        List<BulkOrderResult> results = run(lines(1));
+
+        assertEquals(BulkOrderResult.rejected(1, "PO-1", BulkOrderService.CHUNK_FAILED), results.get(0));
+    }
+
+    @Test
+    void oversizedFileIsRejectedBeforeAnyLookup() {
+        ReflectionTestUtils.setField(bulkOrderService, "maxOrders", 3);
+
+        assertThrows(BadRequestException.class, () -> bulkOrderService.prepare(body(lines(4))));
+        verifyNoInteractions(productCatalogClient, transactionTemplate);
+    }
+
+    private List<BulkOrderResult> run(String file) throws Exception {
+        List<BulkOrderService.PreparedOrder> prepared = bulkOrderService.prepare(body(file));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        bulkOrderService.create(7L, prepared, out);
+        return Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, BulkOrderResult.class);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException(ex);
+                    }
+                })
+                .toList();
+    }
+
+    private static String lines(int count) {
+        StringBuilder file = new StringBuilder();
+        for (int i = 1; i <= count; i++) {
+            file.append(VALID.formatted(i)).append('\n');
+        }
+        return file.toString();
+    }
+
+    private static ByteArrayInputStream body(String file) {
+        return new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProductCatalogClient.ProductInfo active(Long id, String price) {
+        return new ProductCatalogClient.ProductInfo(id, new BigDecimal(price), "ACTIVE", 1L);
+    }
+
+    private void runTransactionsInline() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void savingAssignsIds() {
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(nextOrderId.getAndIncrement());
+            return saved;
+        });
+    }
+}
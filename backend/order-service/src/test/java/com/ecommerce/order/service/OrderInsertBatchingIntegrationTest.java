@@ -0,0 +1,171 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.domain.Order;
+import com.ecommerce.order.domain.OrderItem;
+import com.ecommerce.order.outbox.OutboxService;
+import com.ecommerce.order.repository.OrderRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a large order is written with batched inserts. Run with {@code -Dbenchmark=true} to
+ * also compare insert throughput against the row-at-a-time statements IDENTITY ids forced.
+ */
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class OrderInsertBatchingIntegrationTest {
+    private static final Logger logger = LoggerFactory.getLogger(OrderInsertBatchingIntegrationTest.class);
+    private static final int ITEMS_PER_ORDER = 40;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_insert_batching_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE order_items, orders, outbox_events CASCADE");
+    }
+
+    @Test
+    void largeOrderIsInsertedInBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Long orderId = insertOrder();
+
+        assertEquals(ITEMS_PER_ORDER + 2, statistics.getEntityInsertCount());
+        // At most two sequence calls per table plus one batched INSERT per table, not one per row.
+        assertTrue(statistics.getPrepareStatementCount() <= 9,
+                "prepared " + statistics.getPrepareStatementCount() + " statements");
+        assertEquals(ITEMS_PER_ORDER, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM order_items WHERE order_id = ?", Integer.class, orderId));
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkLargeOrderInserts() {
+        int orders = Integer.getInteger("benchmark.orders", 500);
+        for (int i = 0; i < 20; i++) {
+            insertOrder();
+            insertOrderRowByRow();
+        }
+
+        long batched = timeMillis(orders, this::insertOrder);
+        long rowByRow = timeMillis(orders, this::insertOrderRowByRow);
+
+        logger.info("{} orders x {} items: batched {} ms ({} orders/s), row-by-row {} ms ({} orders/s)",
+                orders, ITEMS_PER_ORDER, batched, perSecond(orders, batched), rowByRow, perSecond(orders, rowByRow));
+    }
+
+    private Long insertOrder() {
+        return transactionTemplate.execute(status -> {
+            Order order = Order.builder()
+                    .userId(7L)
+                    .status("CREATED")
+                    .totalAmount(new BigDecimal("400.00"))
+                    .build();
+            for (long productId = 1; productId <= ITEMS_PER_ORDER; productId++) {
+                order.getItems().add(OrderItem.builder()
+                        .order(order)
+                        .productId(productId)
+                        .quantity(1)
+                        .price(BigDecimal.TEN)
+                        .build());
+            }
+            Order saved = orderRepository.save(order);
+            outboxService.enqueue("order-created", saved.getId().toString(), "orderCreatedEvent",
+                    Map.of("orderId", saved.getId()));
+            return saved.getId();
+        });
+    }
+
+    // The statements the IDENTITY mapping issued: every row is its own INSERT ... RETURNING id round trip.
+    private Long insertOrderRowByRow() {
+        return transactionTemplate.execute(status -> {
+            Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+            Long orderId = jdbcTemplate.queryForObject(
+                    "INSERT INTO orders (user_id, status, total_amount, created_at, updated_at, version) "
+                            + "VALUES (7, 'CREATED', 400.00, ?, ?, 0) RETURNING id",
+                    Long.class, createdAt, createdAt);
+            for (long productId = 1; productId <= ITEMS_PER_ORDER; productId++) {
+                jdbcTemplate.queryForObject(
+                        "INSERT INTO order_items (order_id, order_created_at, product_id, quantity, price) "
+                                + "VALUES (?, ?, ?, 1, 10) RETURNING id",
+                        Long.class, orderId, createdAt, productId);
+            }
+            jdbcTemplate.queryForObject(
+                    "INSERT INTO outbox_events (event_key, topic, aggregate_key, event_type, payload, status, attempt_count) "
+                            + "VALUES (?, 'order-created', ?, 'orderCreatedEvent', '{}', 'PENDING', 0) RETURNING id",
+                    Long.class, "orderCreatedEvent:" + orderId + ":" + UUID.randomUUID(), orderId.toString());
+            return orderId;
+        });
+    }
+
+    private static long timeMillis(int times, Runnable action) {
+        long start = System.nanoTime();
+        for (int i = 0; i < times; i++) {
+            action.run();
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static long perSecond(int count, long millis) {
+        return millis == 0 ? count : count * 1000L / millis;
+    }
+}
@@ -0,0 +1,146 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.archive.OrderArchiver;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class OrderListingIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_listing_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderExportService orderExportService;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE order_items, orders RESTART IDENTITY CASCADE");
+        // Orders 1-3 share a timestamp so the id tie-breaker is exercised.
+        for (int i = 1; i <= 5; i++) {
+            String createdAt = i <= 3 ? "2024-01-01 10:00:00" : "2024-01-0" + i + " 10:00:00";
+            jdbcTemplate.update(
+                    "INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at) VALUES (?, ?, ?, 10, ?::timestamp, now())",
+                    (long) i, i % 2 == 0 ? 7L : 8L, i == 5 ? "CANCELLED" : "PAID", createdAt);
+            jdbcTemplate.update(
+                    "INSERT INTO order_items (order_id, order_created_at, product_id, quantity, price) "
+                            + "VALUES (?, ?::timestamp, 1, 1, 10), (?, ?::timestamp, 2, 2, 0)",
+                    (long) i, createdAt, (long) i, createdAt);
+        }
+    }
+
+    @Test
+    void keysetPagesCoverEveryOrderExactlyOnceNewestFirst() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPageResponse page = orderService.listOrders(null, new OrderListQuery(null, null, null, cursor, 2));
+            page.items().stream().map(OrderResponse::id).forEach(seen::add);
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(5L, 4L, 3L, 2L, 1L), seen);
+    }
+
+    @Test
+    void listingLoadsItemsInBoundedQueries() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        OrderPageResponse page = orderService.listOrders(null, new OrderListQuery(null, null, null, null, 5));
+
+        assertEquals(5, page.items().size());
+        assertTrue(page.items().stream().allMatch(order -> order.items().size() == 2));
+        // One query for the page of orders and one batched query for all of their items.
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void filtersApplyToUserAndStatus() {
+        OrderPageResponse page = orderService.listOrders(8L, new OrderListQuery("PAID", null, null, null, 10));
+
+        assertEquals(List.of(3L, 1L), page.items().stream().map(OrderResponse::id).toList());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void exportWritesOneLinePerOrderWithItems() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderExportService.exportOrders(null, new OrderListQuery(null, null, null, null, null), out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).strip().split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":5,"));
+        assertTrue(lines[0].contains("\"items\":[{\"productId\":1"));
+    }
+
+    @Test
+    void archivedOrdersMoveWithTheirItemsAndStayReadable() {
+        orderArchiver.archive(LocalDateTime.of(2024, 1, 5, 0, 0).plusDays(1));
+
+        assertEquals(List.of(true, true), jdbcTemplate.queryForList(
+                "SELECT archived FROM order_items WHERE order_id = 5", Boolean.class));
+        assertEquals(List.of(1L, 2L, 3L, 4L), jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE NOT archived ORDER BY id", Long.class));
+        assertEquals(2, orderService.getOrderById(5L).items().size());
+        assertEquals(5, orderService.listOrders(null, new OrderListQuery(null, null, null, null, 10)).items().size());
+        assertEquals(List.of(3L, 1L), orderService.listOrders(8L, new OrderListQuery("PAID", null, null, null, 10))
+                .items().stream().map(OrderResponse::id).toList());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.OrderNotFoundException;
+import com.ecommerce.order.domain.OrderView;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderViewRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class OrderQueryServiceTest {
+
+    @Mock
+    private OrderViewRepository orderViewRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderService orderService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OrderQueryService orderQueryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(orderQueryService, "readModelEnabled", true);
+    }
+
+    @Test
+    void getOrderByIdReadsProjectedRowWithTimeline() {
+        LocalDateTime paidAt = LocalDateTime.of(2024, 1, 1, 10, 5);
+        when(orderViewRepository.findById(1L)).thenReturn(Optional.of(projected(1L, 10L, paidAt)));
+
+        OrderResponse response = orderQueryService.getOrderById(1L);
+
+        assertEquals("PAID", response.status());
+        assertEquals(paidAt, response.paidAt());
+        assertEquals(2, response.items().get(0).quantity());
+        verify(orderService, never()).getOrderById(1L);
+    }
+
+    @Test
+    void getOrderByIdFallsBackToWriteModelBeforeOrderCreatedIsProjected() {
+        OrderView placeholder = OrderView.builder().id(2L).paidAt(LocalDateTime.now()).build();
+        OrderResponse fromWriteModel = new OrderResponse(
+                2L, 10L, "CREATED", BigDecimal.TEN, List.of(), LocalDateTime.now(), null, null, null, null);
+        when(orderViewRepository.findById(2L)).thenReturn(Optional.of(placeholder));
+        when(orderService.getOrderById(2L)).thenReturn(fromWriteModel);
+
+        assertSame(fromWriteModel, orderQueryService.getOrderById(2L));
+    }
+
+    @Test
+    void getOrderByIdForUserHidesOtherUsersOrders() {
+        when(orderViewRepository.findById(3L)).thenReturn(Optional.of(projected(3L, 10L, null)));
+
+        assertThrows(OrderNotFoundException.class, () -> orderQueryService.getOrderByIdForUser(3L, 11L));
+    }
+
+    @Test
+    void disabledReadModelDelegatesToWriteModel() {
+        ReflectionTestUtils.setField(orderQueryService, "readModelEnabled", false);
+
+        orderQueryService.getOrderById(4L);
+
+        verify(orderService).getOrderById(4L);
+        verify(orderViewRepository, never()).findById(4L);
+    }
+
+    @Test
+    void orderETagFollowsTheProjectionAndFallsBackToTheOrderVersion() {
+        OrderViewRepository.ProjectionStamp projection = new OrderViewRepository.ProjectionStamp() {
+            @Override
+            public Long getUserId() {
+                return 10L;
+            }
+
+            @Override
+            public LocalDateTime getProjectedAt() {
+                return LocalDateTime.of(1970, 1, 1, 0, 0, 1, 500_000);
+            }
+        };
+        OrderRepository.VersionStamp version = new OrderRepository.VersionStamp() {
+            @Override
+            public Long getUserId() {
+                return 10L;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 3L;
+            }
+        };
+        when(orderViewRepository.findProjectionStampById(5L)).thenReturn(Optional.of(projection));
+        when(orderViewRepository.findProjectionStampById(6L)).thenReturn(Optional.empty());
+        when(orderRepository.findVersionStampById(6L)).thenReturn(Optional.of(version));
+
+        assertEquals("v1000500", orderQueryService.getOrderETag(5L, 10L));
+        assertEquals("o3", orderQueryService.getOrderETag(6L, null));
+        assertThrows(OrderNotFoundException.class, () -> orderQueryService.getOrderETag(5L, 11L));
+        assertThrows(OrderNotFoundException.class, () -> orderQueryService.getOrderETag(6L, 11L));
+        verify(orderRepository, never()).findVersionStampById(5L);
+    }
+
+    private OrderView projected(Long orderId, Long userId, LocalDateTime paidAt) {
+        return OrderView.builder()
+                .id(orderId)
+                .userId(userId)
+                .status("PAID")
+                .statusVersion(1L)
+                .totalAmount(new BigDecimal("20.00"))
+                .items("[{\"productId\":5,\"quantity\":2,\"price\":10.00}]")
+                .createdAt(LocalDateTime.of(2024, 1, 1, 10, 0))
+                .paidAt(paidAt)
+                .build();
+    }
+}
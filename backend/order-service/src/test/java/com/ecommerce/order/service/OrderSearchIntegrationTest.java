@@ -0,0 +1,155 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.dto.OrderPageResponse;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderSearchQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class OrderSearchIntegrationTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_search_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private OrderSearchService orderSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE order_items, orders RESTART IDENTITY CASCADE");
+        // Order i is created on day i, by user 7 or 8, for 10 * i; orders 3 and 6 failed to refund,
+        // and every third order includes product 42.
+        for (int i = 1; i <= 8; i++) {
+            LocalDateTime createdAt = START.plusDays(i);
+            jdbcTemplate.update(
+                    "INSERT INTO orders (id, user_id, status, total_amount, created_at, updated_at) VALUES (?, ?, ?, ?, ?, now())",
+                    (long) i, i % 2 == 0 ? 7L : 8L, i % 3 == 0 ? "REFUND_FAILED" : "PAID",
+                    BigDecimal.valueOf(10L * i), createdAt);
+            jdbcTemplate.update(
+                    "INSERT INTO order_items (order_id, order_created_at, product_id, quantity, price) VALUES (?, ?, ?, 1, ?)",
+                    (long) i, createdAt, i % 3 == 0 ? 42L : 1L, BigDecimal.valueOf(10L * i));
+        }
+    }
+
+    @Test
+    void filtersCombineOnTheWriteModelWithItems() {
+        OrderPageResponse refundFailed = orderSearchService.search(
+                new OrderSearchQuery(null, "REFUND_FAILED", null, START, START.plusDays(7), null, null, null, null));
+        assertEquals(List.of(6L, 3L), ids(refundFailed));
+        assertEquals(42L, refundFailed.items().get(0).items().get(0).productId());
+
+        assertEquals(List.of(6L), ids(orderSearchService.search(new OrderSearchQuery(
+                7L, null, 42L, null, null, new BigDecimal("50"), new BigDecimal("60"), null, null))));
+        assertEquals(List.of(8L, 7L), ids(orderSearchService.search(new OrderSearchQuery(
+                null, null, null, null, null, new BigDecimal("70"), null, null, null))));
+    }
+
+    @Test
+    void keysetPagesCoverEveryMatchExactlyOnce() {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            OrderPageResponse page = orderSearchService.search(
+                    new OrderSearchQuery(8L, "PAID", null, null, null, null, null, cursor, 1));
+            seen.addAll(ids(page));
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertEquals(List.of(7L, 5L, 1L), seen);
+    }
+
+    @Test
+    void invertedAmountRangeIsRejected() {
+        assertThrows(BadRequestException.class, () -> orderSearchService.search(new OrderSearchQuery(
+                null, null, null, null, null, new BigDecimal("10"), new BigDecimal("5"), null, null)));
+    }
+
+    @Test
+    void everyFilterCombinationIsIndexBacked() {
+        // Disabling sequential scans makes the planner fall back to them only where no index applies.
+        for (int filters = 0; filters < 1 << 6; filters++) {
+            OrderSearchQuery query = new OrderSearchQuery(
+                    (filters & 1) != 0 ? 7L : null,
+                    (filters & 2) != 0 ? "PAID" : null,
+                    (filters & 4) != 0 ? 42L : null,
+                    (filters & 8) != 0 ? START : null,
+                    (filters & 8) != 0 ? START.plusDays(7) : null,
+                    (filters & 16) != 0 ? new BigDecimal("20") : null,
+                    (filters & 16) != 0 ? new BigDecimal("60") : null,
+                    null,
+                    null);
+            OrderCursor cursor = (filters & 32) != 0 ? new OrderCursor(START.plusDays(5), 5L) : null;
+            MapSqlParameterSource params = new MapSqlParameterSource("limit", 51);
+            String sql = orderSearchService.buildSql(query, cursor, params);
+
+            String plan = transactionTemplate.execute(status -> {
+                jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+                return String.join("\n", namedParameterJdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class));
+            });
+
+            assertFalse(plan.contains("Seq Scan"), () -> query + " is not index-backed:\n" + plan);
+        }
+    }
+
+    @Test
+    void pageWithoutMoreMatchesHasNoCursor() {
+        assertNull(orderSearchService.search(
+                new OrderSearchQuery(null, null, null, null, null, null, null, null, 50)).nextCursor());
+    }
+
+    private static List<Long> ids(OrderPageResponse page) {
+        return page.items().stream().map(OrderResponse::id).toList();
+    }
+}
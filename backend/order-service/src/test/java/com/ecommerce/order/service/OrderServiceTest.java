@@ -1,21 +1,45 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.common.exception.OrderNotFoundException;
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.client.ProductCatalogClient;
 import com.ecommerce.order.domain.Order;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderRequest;
 import com.ecommerce.order.event.OrderCancelledEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
 import com.ecommerce.order.event.RefundRequestedEvent;
 import com.ecommerce.order.outbox.OutboxService;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.OrderStatusTransitions;
+import com.ecommerce.order.rollup.SalesRollupRecorder;
+import com.ecommerce.order.status.OrderStatusHub;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -30,6 +54,18 @@ class OrderServiceTest {
     @Mock
     private OutboxService outboxService;
 
+    @Mock
+    private ProductCatalogClient productCatalogClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OrderStatusHub orderStatusHub;
+
+    @Mock
+    private SalesRollupRecorder salesRollupRecorder;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -43,6 +79,7 @@ class OrderServiceTest {
         verify(orderRepository).save(order);
         verify(outboxService).enqueue(eq("order-cancelled"), eq("10"), eq("order-cancelled"), any(OrderCancelledEvent.class));
         verify(outboxService).enqueue(eq("refund-requested"), eq("10"), eq("refund-requested"), any(RefundRequestedEvent.class));
+        verify(salesRollupRecorder).statusChanged(eq("PAID"), eq("REFUND_PENDING"), eq(BigDecimal.TEN), any());
     }
 
     @Test
@@ -57,34 +94,196 @@ class OrderServiceTest {
         verify(outboxService, never()).enqueue(eq("refund-requested"), eq("11"), eq("refund-requested"), any(RefundRequestedEvent.class));
     }
 
+    @Test
+    void cancelOrderConcurrentUpdateRaisesConflictWithoutEvents() {
+        Order order = sampleOrder(15L, 25L, "CREATED");
+        when(orderRepository.findById(15L)).thenReturn(Optional.of(order));
+        doThrow(new ObjectOptimisticLockingFailureException(Order.class, 15L)).when(orderRepository).flush();
+
+        assertThrows(ResourceConflictException.class, () -> orderService.cancelOrder(15L, 25L, false));
+
+        verify(outboxService, never()).enqueue(any(), any(), any(), any());
+        verify(salesRollupRecorder, never()).statusChanged(any(), any(), any(), any());
+    }
+
     @Test
     void markPaidIgnoresStaleTransitionFromCancelled() {
-        Order order = sampleOrder(12L, 22L, "CANCELLED");
-        when(orderRepository.findById(12L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatuses(List.of(12L), List.of("CREATED", "PLACED", "PAYMENT_PENDING"), "PAID"))
+                .thenReturn(List.of());
+        when(orderRepository.findStatusesByIds(List.of(12L))).thenReturn(Map.of(12L, "CANCELLED"));
 
         orderService.markPaid(12L);
 
-        verify(orderRepository, never()).save(order);
+        verify(orderRepository, never()).findById(any());
+        verify(outboxService, never()).enqueue(any(), any(), any(), any());
     }
 
     @Test
     void markRefundCompletedUpdatesOnlyRefundPending() {
-        Order order = sampleOrder(13L, 23L, "REFUND_PENDING");
-        when(orderRepository.findById(13L)).thenReturn(Optional.of(order));
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderRepository.transitionStatuses(List.of(13L), List.of("REFUND_PENDING"), "CANCELLED"))
+                .thenReturn(List.of(new OrderStatusTransitions.AppliedTransition(
+                        13L, "REFUND_PENDING", "CANCELLED", BigDecimal.TEN, 4L, updatedAt)));
 
         orderService.markRefundCompleted(13L);
 
-        verify(orderRepository).save(order);
+        verify(orderRepository, never()).findById(any());
+        verify(orderRepository, never()).findStatusesByIds(any());
+        verify(outboxService).enqueue(eq("order-status-changed"), eq("13"), eq("order-status-changed"),
+                eq(new OrderStatusChangedEvent(13L, "CANCELLED", 4L, updatedAt)));
+    }
+
+    @Test
+    void voidedRefundIsNotCountedAsARefund() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderRepository.transitionStatuses(List.of(13L, 14L), List.of("REFUND_PENDING"), "CANCELLED"))
+                .thenReturn(List.of(
+                        new OrderStatusTransitions.AppliedTransition(
+                                13L, "REFUND_PENDING", "CANCELLED", BigDecimal.TEN, 4L, updatedAt),
+                        new OrderStatusTransitions.AppliedTransition(
+                                14L, "REFUND_PENDING", "CANCELLED", BigDecimal.ONE, 3L, updatedAt)));
+
+        orderService.markRefundCompleted(List.of(13L, 14L), Set.of(14L));
+
+        verify(salesRollupRecorder).statusChanged("REFUND_PENDING", "CANCELLED", BigDecimal.TEN, updatedAt);
+        verify(salesRollupRecorder).statusChangedWithoutRefund("REFUND_PENDING", "CANCELLED", BigDecimal.ONE, updatedAt);
     }
 
     @Test
     void markRefundFailedIgnoresNonRefundPending() {
-        Order order = sampleOrder(14L, 24L, "CANCELLED");
-        when(orderRepository.findById(14L)).thenReturn(Optional.of(order));
+        when(orderRepository.transitionStatuses(List.of(14L), List.of("REFUND_PENDING"), "REFUND_FAILED"))
+                .thenReturn(List.of());
+        when(orderRepository.findStatusesByIds(List.of(14L))).thenReturn(Map.of(14L, "CANCELLED"));
 
         orderService.markRefundFailed(14L);
 
-        verify(orderRepository, never()).save(order);
+        verify(outboxService, never()).enqueue(any(), any(), any(), any());
+    }
+
+    @Test
+    void sagaTransitionOnUnknownOrderFails() {
+        when(orderRepository.transitionStatuses(eq(List.of(15L)), any(), eq("CANCELLED"))).thenReturn(List.of());
+        when(orderRepository.findStatusesByIds(List.of(15L))).thenReturn(Map.of());
+
+        assertThrows(RuntimeException.class, () -> orderService.cancelAfterInventoryFailure(15L));
+    }
+
+    @Test
+    void markPaidBatchEmitsOnlyForAppliedOrders() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderRepository.transitionStatuses(List.of(16L, 17L), List.of("CREATED", "PLACED", "PAYMENT_PENDING"), "PAID"))
+                .thenReturn(List.of(new OrderStatusTransitions.AppliedTransition(
+                        17L, "CREATED", "PAID", BigDecimal.TEN, 2L, updatedAt)));
+        when(orderRepository.findStatusesByIds(List.of(16L))).thenReturn(Map.of(16L, "CANCELLED"));
+
+        orderService.markPaid(List.of(16L, 17L));
+
+        verify(outboxService).enqueue(eq("order-status-changed"), eq("17"), eq("order-status-changed"),
+                eq(new OrderStatusChangedEvent(17L, "PAID", 2L, updatedAt)));
+        verify(outboxService, never()).enqueue(any(), eq("16"), any(), any());
+        verify(orderStatusHub).publishAfterCommit(new OrderStatusChangedEvent(17L, "PAID", 2L, updatedAt));
+        verify(orderStatusHub, never()).publishAfterCommit(argThat(event -> event.orderId() == 16L));
+        verify(salesRollupRecorder).statusChanged("CREATED", "PAID", BigDecimal.TEN, updatedAt);
+        verify(salesRollupRecorder, never()).statusChanged(eq("CANCELLED"), any(), any(), any());
+    }
+
+    @Test
+    void expiringAnOrderAwaitingPaymentReleasesItsStockAndRequestsARefund() {
+        LocalDateTime updatedAt = LocalDateTime.of(2024, 1, 1, 12, 0);
+        when(orderRepository.transitionStatuses(List.of(18L), List.of("CREATED", "PLACED", "PAYMENT_PENDING"), "REFUND_PENDING"))
+                .thenReturn(List.of(new OrderStatusTransitions.AppliedTransition(
+                        18L, "CREATED", "REFUND_PENDING", BigDecimal.TEN, 3L, updatedAt)));
+
+        orderService.expireAwaitingPayment(List.of(18L));
+
+        // The payment may have gone through unseen, so the order is not simply cancelled.
+        verify(outboxService).enqueue(eq("order-status-changed"), eq("18"), eq("order-status-changed"),
+                eq(new OrderStatusChangedEvent(18L, "REFUND_PENDING", 3L, updatedAt)));
+        verify(outboxService).enqueue(eq("order-cancelled"), eq("18"), eq("order-cancelled"), any(OrderCancelledEvent.class));
+        verify(outboxService).enqueue(eq("refund-requested"), eq("18"), eq("refund-requested"), any(RefundRequestedEvent.class));
+        verify(salesRollupRecorder).statusChanged("CREATED", "REFUND_PENDING", BigDecimal.TEN, updatedAt);
+    }
+
+    @Test
+    void orderLookupReachesTheArchiveOnlyWhenTheLiveTierMisses() {
+        when(orderRepository.findByIdAndUserIdAndArchived(20L, 7L, false)).thenReturn(Optional.of(sampleOrder(20L, 7L, "PAID")));
+        when(orderRepository.findByIdAndUserIdAndArchived(21L, 7L, false)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdAndUserIdAndArchived(21L, 7L, true)).thenReturn(Optional.of(sampleOrder(21L, 7L, "DELIVERED")));
+        when(orderRepository.findByIdAndArchived(22L, false)).thenReturn(Optional.empty());
+        when(orderRepository.findByIdAndArchived(22L, true)).thenReturn(Optional.empty());
+
+        assertEquals("PAID", orderService.getOrderByIdForUser(20L, 7L).status());
+        assertEquals("DELIVERED", orderService.getOrderByIdForUser(21L, 7L).status());
+        assertThrows(OrderNotFoundException.class, () -> orderService.getOrderById(22L));
+        verify(orderRepository, never()).findByIdAndUserIdAndArchived(20L, 7L, true);
+    }
+
+    @Test
+    void listOrdersRejectsMalformedCursor() {
+        OrderListQuery query = new OrderListQuery(null, null, null, "not-a-cursor", null);
+
+        assertThrows(BadRequestException.class, () -> orderService.listOrders(null, query));
+    }
+
+    @Test
+    void listOrdersRejectsOversizedPage() {
+        OrderListQuery query = new OrderListQuery(null, null, null, null, 1000);
+
+        assertThrows(BadRequestException.class, () -> orderService.listOrders(null, query));
+    }
+
+    @Test
+    void createOrderRejectsPriceChangedSinceClientSawProduct() {
+        when(productCatalogClient.getProducts(List.of(7L))).thenReturn(Map.of(7L,
+                new ProductCatalogClient.ProductInfo(7L, new BigDecimal("12.00"), "ACTIVE", 3L)));
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(7L, 1, new BigDecimal("10.00"), 2L)));
+
+        assertThrows(ResourceConflictException.class, () -> orderService.createOrder(30L, request));
+
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void createOrderRefreshesCachedProductOlderThanClientVersion() {
+        when(productCatalogClient.getProducts(List.of(7L))).thenReturn(Map.of(7L,
+                new ProductCatalogClient.ProductInfo(7L, new BigDecimal("10.00"), "ACTIVE", 2L)));
+        when(productCatalogClient.refreshProducts(List.of(7L))).thenReturn(Map.of(7L,
+                new ProductCatalogClient.ProductInfo(7L, new BigDecimal("12.00"), "ACTIVE", 3L)));
+        runTransactionCallbacks();
+        assignIdOnSave(31L);
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(7L, 2, new BigDecimal("12.00"), 3L)));
+
+        assertEquals(new BigDecimal("24.00"), orderService.createOrder(30L, request).totalAmount());
+        verify(salesRollupRecorder).orderCreated(eq("CREATED"), eq(new BigDecimal("24.00")), any());
+    }
+
+    @Test
+    void createOrderPricesItemsBeforeOpeningTransaction() {
+        when(productCatalogClient.getProducts(List.of(7L))).thenReturn(Map.of(7L,
+                new ProductCatalogClient.ProductInfo(7L, new BigDecimal("10.00"), "ACTIVE", 2L)));
+        runTransactionCallbacks();
+        assignIdOnSave(32L);
+
+        orderService.createOrder(30L, new OrderRequest(List.of(new OrderItemRequest(7L, 1, null, null))));
+
+        InOrder inOrder = inOrder(productCatalogClient, transactionTemplate, orderRepository, outboxService);
+        inOrder.verify(productCatalogClient).getProducts(List.of(7L));
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(orderRepository).save(any(Order.class));
+        inOrder.verify(outboxService).enqueue(eq("order-created"), eq("32"), eq("order-created"), any());
+    }
+
+    private void runTransactionCallbacks() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    private void assignIdOnSave(Long orderId) {
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(orderId);
+            return saved;
+        });
     }
 
     private Order sampleOrder(Long orderId, Long userId, String status) {
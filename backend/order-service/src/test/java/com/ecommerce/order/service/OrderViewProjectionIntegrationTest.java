@@ -0,0 +1,125 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.dto.OrderListQuery;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderViewRebuildResponse;
+import com.ecommerce.order.event.OrderCreatedEvent;
+import com.ecommerce.order.event.OrderItemEvent;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class OrderViewProjectionIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_view_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private OrderViewProjector projector;
+
+    @Autowired
+    private OrderQueryService orderQueryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE order_view, order_items, orders RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void outOfOrderAndRedeliveredEventsConvergeOnTheSameRow() {
+        projector.stampPaid(1L, CREATED_AT.plusMinutes(2));
+        projector.projectStatusChange(new OrderStatusChangedEvent(1L, "PAID", 1L, CREATED_AT.plusMinutes(2)), CREATED_AT);
+        projector.projectCreated(createdEvent(1L, 7L), CREATED_AT);
+        projector.stampReserved(1L, CREATED_AT.plusMinutes(1));
+        // Redelivery of an older status and a later duplicate stamp must not move anything back.
+        projector.projectStatusChange(new OrderStatusChangedEvent(1L, "CREATED", 0L, CREATED_AT), CREATED_AT);
+        projector.stampPaid(1L, CREATED_AT.plusMinutes(9));
+
+        OrderResponse order = orderQueryService.getOrderById(1L);
+
+        assertEquals("PAID", order.status());
+        assertEquals(7L, order.userId());
+        assertEquals(CREATED_AT, order.createdAt());
+        assertEquals(CREATED_AT.plusMinutes(1), order.reservedAt());
+        assertEquals(CREATED_AT.plusMinutes(2), order.paidAt());
+        assertEquals(1, order.items().size());
+        assertEquals(0, new BigDecimal("12.50").compareTo(order.items().get(0).price()));
+    }
+
+    @Test
+    void listingSkipsRowsWhoseOrderCreatedHasNotArrived() {
+        projector.projectCreated(createdEvent(1L, 7L), CREATED_AT);
+        projector.stampReserved(2L, CREATED_AT);
+
+        List<OrderResponse> page = orderQueryService.listOrders(null, new OrderListQuery(null, null, null, null, 10)).items();
+
+        assertEquals(List.of(1L), page.stream().map(OrderResponse::id).toList());
+    }
+
+    @Test
+    void rebuildReprojectsWriteModelAndKeepsTimeline() {
+        jdbcTemplate.update(
+                "INSERT INTO orders (user_id, status, total_amount, created_at, updated_at, version) VALUES (7, 'CANCELLED', 25, ?, ?, 2)",
+                CREATED_AT, CREATED_AT.plusMinutes(5));
+        jdbcTemplate.update(
+                "INSERT INTO order_items (order_id, order_created_at, product_id, quantity, price) VALUES (1, ?, 3, 2, 12.50)",
+                CREATED_AT);
+        projector.stampPaid(1L, CREATED_AT.plusMinutes(2));
+        projector.stampReserved(99L, CREATED_AT);
+
+        OrderViewRebuildResponse result = projector.rebuild();
+
+        assertEquals(1, result.projectedOrders());
+        assertEquals(1, result.removedOrders());
+        OrderResponse order = orderQueryService.getOrderById(1L);
+        assertEquals("CANCELLED", order.status());
+        assertEquals(CREATED_AT.plusMinutes(2), order.paidAt());
+        assertEquals(CREATED_AT.plusMinutes(5), order.cancelledAt());
+        assertNull(order.refundedAt());
+        assertEquals(3L, order.items().get(0).productId());
+    }
+
+    private OrderCreatedEvent createdEvent(Long orderId, Long userId) {
+        return new OrderCreatedEvent(orderId, userId, new BigDecimal("25.00"),
+                List.of(new OrderItemEvent(3L, 2, new BigDecimal("12.50"))), CREATED_AT);
+    }
+}
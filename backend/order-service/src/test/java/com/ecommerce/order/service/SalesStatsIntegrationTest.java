@@ -0,0 +1,138 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.common.exception.BadRequestException;
+import com.ecommerce.order.domain.OrderItem;
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.OrderStatusTotalResponse;
+import com.ecommerce.order.dto.SalesBucketResponse;
+import com.ecommerce.order.dto.SalesStatsQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false"
+})
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class SalesStatsIntegrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_sales_stats_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private SalesStatsService salesStatsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.execute("TRUNCATE TABLE order_items, orders, order_sales_rollups, order_status_totals, outbox_events RESTART IDENTITY CASCADE");
+    }
+
+    @Test
+    void rollupsFollowOrdersThroughTheSaga() {
+        List<Long> ids = createOrders(new BigDecimal("10.00"), new BigDecimal("20.00"), new BigDecimal("30.00"));
+        orderService.markPaid(List.of(ids.get(0), ids.get(1)));
+        orderService.cancelOrder(ids.get(1), null, true);
+        orderService.markRefundCompleted(ids.get(1));
+        orderService.cancelAfterInventoryFailure(ids.get(2));
+
+        Map<String, OrderStatusTotalResponse> totals = salesStatsService.statusTotals().stream()
+                .collect(Collectors.toMap(OrderStatusTotalResponse::status, total -> total));
+        assertEquals(0, totals.get("CREATED").orderCount());
+        assertEquals(0, totals.get("REFUND_PENDING").orderCount());
+        assertEquals(1, totals.get("PAID").orderCount());
+        assertEquals(0, new BigDecimal("10.00").compareTo(totals.get("PAID").totalAmount()));
+        assertEquals(2, totals.get("CANCELLED").orderCount());
+
+        // The default daily range ends with today.
+        SalesBucketResponse today = salesStatsService.sales(new SalesStatsQuery("DAY", null, null)).get(29);
+        assertEquals(3, today.ordersCreated());
+        assertEquals(0, new BigDecimal("60.00").compareTo(today.createdAmount()));
+        assertEquals(2, today.ordersPaid());
+        assertEquals(2, today.ordersCancelled());
+        assertEquals(1, today.ordersRefunded());
+        assertEquals(0, new BigDecimal("20.00").compareTo(today.refundedAmount()));
+    }
+
+    @Test
+    void rolledBackOrdersAreNotCounted() {
+        assertThrows(IllegalStateException.class, () -> transactionTemplate.executeWithoutResult(status -> {
+            orderService.persistNewOrder(7L, items(BigDecimal.TEN), null);
+            throw new IllegalStateException("rolled back");
+        }));
+
+        assertEquals(List.of(), salesStatsService.statusTotals());
+    }
+
+    @Test
+    void hourlySalesCoverEveryBucketInTheRange() {
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        List<SalesBucketResponse> buckets = salesStatsService.sales(new SalesStatsQuery("hour", from, from.plusHours(6)));
+
+        assertEquals(6, buckets.size());
+        assertEquals(from.plusHours(5), buckets.get(5).bucketStart());
+        assertThrows(BadRequestException.class,
+                () -> salesStatsService.sales(new SalesStatsQuery("HOUR", from, from.plusYears(1))));
+        assertThrows(BadRequestException.class,
+                () -> salesStatsService.sales(new SalesStatsQuery("WEEK", null, null)));
+    }
+
+    private List<Long> createOrders(BigDecimal... prices) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            for (BigDecimal price : prices) {
+                OrderResponse order = orderService.persistNewOrder(7L, items(price), null);
+                ids.add(order.id());
+            }
+            return ids;
+        });
+    }
+
+    private static List<OrderItem> items(BigDecimal price) {
+        List<OrderItem> items = new ArrayList<>();
+        items.add(OrderItem.builder().productId(1L).quantity(1).price(price).build());
+        return items;
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.order.status;
+
+import com.ecommerce.common.exception.OrderNotFoundException;
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.event.OrderStatusChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusHubTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+    private final OrderStatusHub hub = new OrderStatusHub(meterRegistry, () -> {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        return emitter;
+    }, 2, Runnable::run);
+
+    @Test
+    void streamStartsWithCurrentStatusAndSkipsChangesItHasSeen() {
+        hub.subscribe(1L, () -> status(1L, "CREATED", 2L));
+        RecordingEmitter stream = emitters.get(0);
+
+        hub.publish(status(1L, "CREATED", 2L));
+        hub.publish(status(1L, "PLACED", 1L));
+        hub.publish(status(2L, "PAID", 5L));
+        hub.publish(status(1L, "PAID", 3L));
+
+        assertEquals(List.of(status(1L, "CREATED", 2L), status(1L, "PAID", 3L)), stream.events);
+        assertEquals(1.0, meterRegistry.get("orders.status.stream.connections").gauge().value());
+    }
+
+    @Test
+    void finalStatusClosesTheStream() {
+        hub.subscribe(1L, () -> status(1L, "PAID", 3L));
+
+        hub.publish(status(1L, "CANCELLED", 4L));
+        hub.publish(status(1L, "CANCELLED", 5L));
+
+        assertTrue(emitters.get(0).completed);
+        assertEquals(2, emitters.get(0).events.size());
+        assertEquals(0, hub.connectionCount());
+    }
+
+    @Test
+    void failedStatusLookupClosesTheSubscription() {
+        assertThrows(OrderNotFoundException.class, () -> hub.subscribe(1L, () -> {
+            throw new OrderNotFoundException(1L);
+        }));
+
+        hub.publish(status(1L, "PAID", 3L));
+        assertEquals(0, hub.connectionCount());
+        assertTrue(emitters.get(0).events.isEmpty());
+    }
+
+    @Test
+    void streamsBeyondMaxConnectionsAreRefused() {
+        hub.subscribe(1L, () -> status(1L, "CREATED", 1L));
+        hub.subscribe(1L, () -> status(1L, "CREATED", 1L));
+
+        assertThrows(ResourceConflictException.class, () -> hub.subscribe(2L, () -> status(2L, "CREATED", 1L)));
+        assertEquals(2, hub.connectionCount());
+        assertEquals(1.0, meterRegistry.get("orders.status.stream.rejected").counter().count());
+    }
+
+    @Test
+    void heartbeatDropsStreamsWhoseClientHasGone() {
+        hub.subscribe(1L, () -> status(1L, "CREATED", 1L));
+        hub.subscribe(1L, () -> status(1L, "CREATED", 1L));
+        emitters.get(0).broken = true;
+
+        hub.heartbeat();
+
+        assertEquals(1, hub.connectionCount());
+        assertEquals(1, emitters.get(1).comments);
+    }
+
+    @Test
+    void changesMadeInATransactionArePublishedAfterCommit() {
+        hub.subscribe(1L, () -> status(1L, "CREATED", 1L));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.publishAfterCommit(status(1L, "PAID", 2L));
+            assertEquals(1, emitters.get(0).events.size());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(status(1L, "PAID", 2L), emitters.get(0).events.get(1));
+    }
+
+    private static OrderStatusChangedEvent status(Long orderId, String status, Long version) {
+        return new OrderStatusChangedEvent(orderId, status, version, AT);
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<Object> events = new ArrayList<>();
+        private int comments;
+        private boolean completed;
+        private boolean broken;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (broken) {
+                throw new IOException("Broken pipe");
+            }
+            List<Object> data = builder.build().stream()
+                    .map(part -> part.getData())
+                    .filter(OrderStatusChangedEvent.class::isInstance)
+                    .toList();
+            if (data.isEmpty()) {
+                comments++;
+            }
+            events.addAll(data);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.order.status;
+
+import com.ecommerce.common.security.CustomPrincipal;
+import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.task.scheduling.enabled=false",
+        "spring.kafka.listener.auto-startup=false",
+        "spring.datasource.hikari.maximum-pool-size=" + OrderStatusStreamIntegrationTest.POOL_SIZE,
+        "spring.datasource.hikari.connection-timeout=1000"
+})
+@AutoConfigureMockMvc
+@Testcontainers(disabledWithoutDocker = true)
+@SuppressWarnings("null")
+class OrderStatusStreamIntegrationTest {
+
+    static final int POOL_SIZE = 2;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine")
+            .withDatabaseName("order_status_stream_test_db")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void registerProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+        registry.add("spring.flyway.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.flyway.user", POSTGRES::getUsername);
+        registry.add("spring.flyway.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HikariDataSource dataSource;
+
+    @MockBean
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @MockBean
+    private ProductCatalogClient productCatalogClient;
+
+    @Test
+    void openStreamsHoldNoDatabaseConnections() throws Exception {
+        when(productCatalogClient.getProducts(anyList()))
+                .thenReturn(Map.of(1L, new ProductCatalogClient.ProductInfo(1L, new BigDecimal("50.00"), "ACTIVE", 0L)));
+        UsernamePasswordAuthenticationToken auth = customer(1L);
+        Long orderId = createOrder(auth);
+
+        for (int i = 0; i < POOL_SIZE * 2; i++) {
+            mockMvc.perform(get("/orders/{id}/events", orderId).with(authentication(auth)))
+                    .andExpect(request().asyncStarted());
+        }
+
+        assertEquals(0, dataSource.getHikariPoolMXBean().getActiveConnections());
+        // Would time out waiting for a connection if the open streams still held theirs.
+        createOrder(auth);
+    }
+
+    private Long createOrder(UsernamePasswordAuthenticationToken auth) throws Exception {
+        OrderRequest request = new OrderRequest(List.of(new OrderItemRequest(1L, 1, null, null)));
+        String body = mockMvc.perform(post("/orders")
+                        .with(authentication(auth))
+                        .contentType(Objects.requireNonNull(MediaType.APPLICATION_JSON))
+                        .content(Objects.requireNonNull(objectMapper.writeValueAsString(request))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("id").asLong();
+    }
+
+    private static UsernamePasswordAuthenticationToken customer(Long userId) {
+        CustomPrincipal principal = new CustomPrincipal(
+                "test@example.com",
+                "",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")),
+                userId);
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+}
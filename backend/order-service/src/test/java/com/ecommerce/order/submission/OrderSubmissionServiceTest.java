@@ -0,0 +1,59 @@
+package com.ecommerce.order.submission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class OrderSubmissionServiceTest {
+
+    @Mock
+    private OrderSubmissionRepository repository;
+
+    @InjectMocks
+    private OrderSubmissionService submissionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(submissionService, "maxAttempts", 3);
+        ReflectionTestUtils.setField(submissionService, "claimTimeoutMs", 60000L);
+    }
+
+    @Test
+    void claimRejectsSubmissionsThatUsedUpTheirAttempts() {
+        OrderSubmission due = submission(1L, OrderSubmissionStatus.PENDING, 2);
+        OrderSubmission abandoned = submission(2L, OrderSubmissionStatus.IN_PROGRESS, 3);
+        when(repository.lockNextBatch(any(), any(), eq(50))).thenReturn(List.of(due, abandoned));
+
+        List<OrderSubmission> claimed = submissionService.claimBatch(50);
+
+        assertEquals(List.of(due), claimed);
+        assertEquals(OrderSubmissionStatus.IN_PROGRESS, due.getStatus());
+        assertEquals(3, due.getAttemptCount());
+        assertEquals(OrderSubmissionStatus.REJECTED, abandoned.getStatus());
+        assertEquals(3, abandoned.getAttemptCount());
+        assertEquals("Order could not be processed after 3 attempts", abandoned.getLastError());
+    }
+
+    private static OrderSubmission submission(Long id, OrderSubmissionStatus status, int attempts) {
+        return OrderSubmission.builder()
+                .id(id)
+                .ticket("ticket-" + id)
+                .userId(7L)
+                .status(status)
+                .attemptCount(attempts)
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.ecommerce.order.submission;
+
+import com.ecommerce.common.exception.ResourceConflictException;
+import com.ecommerce.order.client.ProductCatalogClient;
+import com.ecommerce.order.domain.Order;
+import com.ecommerce.order.dto.OrderItemRequest;
+import com.ecommerce.order.dto.OrderRequest;
+import com.ecommerce.order.outbox.OutboxService;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.rollup.SalesRollupRecorder;
+import com.ecommerce.order.service.OrderService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("null")
+class OrderSubmissionWorkerTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ProductCatalogClient productCatalogClient;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private SalesRollupRecorder salesRollupRecorder;
+
+    @Mock
+    private OrderSubmissionService submissionService;
+
+    @InjectMocks
+    private OrderService orderService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OrderSubmissionWorker worker = new OrderSubmissionWorker(meterRegistry, 1, Runnable::run);
+    private final AtomicLong nextOrderId = new AtomicLong(100);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(worker, "submissionService", submissionService);
+        ReflectionTestUtils.setField(worker, "orderService", orderService);
+        ReflectionTestUtils.setField(worker, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(worker, "batchSize", 50);
+    }
+
+    @Test
+    void batchIsPricedWithOneLookupAndCommittedInOneTransaction() throws Exception {
+        OrderSubmission first = claimed(1L, 7L, request(1L));
+        OrderSubmission unknownProduct = claimed(2L, 8L, request(9L));
+        when(submissionService.claimBatch(50)).thenReturn(List.of(first, unknownProduct));
+        when(productCatalogClient.findProducts(List.of(1L, 9L))).thenReturn(Map.of(1L, active(1L)));
+        AtomicInteger transactions = runTransactionsInline();
+        savingAssignsIds();
+
+        assertEquals(2, worker.processBatch());
+
+        assertEquals(1, transactions.get());
+        verify(productCatalogClient).findProducts(anyList());
+        verify(submissionService).complete(first, 100L);
+        verify(submissionService).reject(unknownProduct, "Product not found with id: 9");
+        verify(outboxService).enqueue(eq("order-created"), eq("100"), eq("order-created"), any());
+        assertEquals(1.0, meterRegistry.get("orders.submission.processed").tag("outcome", "completed").counter().count());
+        assertEquals(1.0, meterRegistry.get("orders.submission.processed").tag("outcome", "rejected").counter().count());
+    }
+
+    @Test
+    void catalogOutageDefersTheBatchWithoutWriting() throws Exception {
+        OrderSubmission submission = claimed(1L, 7L, request(1L));
+        when(submissionService.claimBatch(50)).thenReturn(List.of(submission));
+        when(productCatalogClient.findProducts(anyList()))
+                .thenThrow(new ResourceConflictException("Product catalog temporarily unavailable"));
+
+        assertEquals(0, worker.processBatch());
+
+        verify(submissionService).retryLater(submission, "Product catalog temporarily unavailable");
+        verify(transactionTemplate, never()).executeWithoutResult(any());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void unexpectedCatalogFailureDefersTheBatch() throws Exception {
+        OrderSubmission submission = claimed(1L, 7L, request(1L));
+        when(submissionService.claimBatch(50)).thenReturn(List.of(submission));
+        when(productCatalogClient.findProducts(anyList())).thenThrow(new IllegalStateException("pool shut down"));
+
+        assertEquals(0, worker.processBatch());
+
+        verify(submissionService).retryLater(submission, OrderSubmissionWorker.FAILED);
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void failedBatchIsRetriedOneSubmissionAtATime() throws Exception {
+        OrderSubmission first = claimed(1L, 7L, request(1L));
+        OrderSubmission second = claimed(2L, 8L, request(1L));
+        when(submissionService.claimBatch(50)).thenReturn(List.of(first, second));
+        when(productCatalogClient.findProducts(List.of(1L))).thenReturn(Map.of(1L, active(1L)));
+        runTransactionsInline();
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            if (order.getUserId() == 8L) {
+                throw new DataAccessResourceFailureException("connection lost");
+            }
+            order.setId(nextOrderId.getAndIncrement());
+            return order;
+        });
+
+        assertEquals(2, worker.processBatch());
+
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        // The first order was rolled back with the batch and inserted again on its own.
+        verify(submissionService).complete(first, 101L);
+        verify(submissionService).retryLater(second, OrderSubmissionWorker.UNAVAILABLE);
+    }
+
+    private AtomicInteger runTransactionsInline() {
+        AtomicInteger transactions = new AtomicInteger();
+        doAnswer(invocation -> {
+            transactions.incrementAndGet();
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        return transactions;
+    }
+
+    private void savingAssignsIds() {
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(nextOrderId.getAndIncrement());
+            return saved;
+        });
+    }
+
+    private OrderSubmission claimed(Long id, Long userId, OrderRequest request) throws Exception {
+        OrderSubmission submission = OrderSubmission.builder()
+                .id(id)
+                .ticket("ticket-" + id)
+                .userId(userId)
+                .attemptCount(1)
+                .createdAt(LocalDateTime.now())
+                .build();
+        when(submissionService.readRequest(submission)).thenReturn(request);
+        return submission;
+    }
+
+    private static OrderRequest request(Long productId) {
+        return new OrderRequest(List.of(new OrderItemRequest(productId, 2, null, null)));
+    }
+
+    private static ProductCatalogClient.ProductInfo active(Long id) {
+        return new ProductCatalogClient.ProductInfo(id, new BigDecimal("5.00"), "ACTIVE", 1L);
+    }
+}
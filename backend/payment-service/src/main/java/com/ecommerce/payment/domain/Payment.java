@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Payment {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_id_seq")
+    @SequenceGenerator(name = "payments_id_seq", sequenceName = "payments_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "order_id", nullable = false)
@@ -31,7 +32,7 @@ public class Payment {
     private BigDecimal amount;
 
     @Column(nullable = false)
-    private String status; // PENDING, COMPLETED, FAILED, REFUNDED
+    private String status; // PENDING, COMPLETED, FAILED, REFUNDED, VOIDED
 
     @Column(name = "payment_method")
     private String paymentMethod;
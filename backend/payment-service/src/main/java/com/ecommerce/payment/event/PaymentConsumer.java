@@ -27,6 +27,10 @@ public class PaymentConsumer {
     public void handleInventoryReserved(InventoryReservedEvent event) {
         String eventKey = "inventory-reserved:" + event.orderId();
         if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
+            // Re-sent while the order has not heard back: answer again with the payment already taken.
+            paymentService.findPayment(event.orderId())
+                    .filter(payment -> "COMPLETED".equals(payment.status()))
+                    .ifPresent(payment -> paymentProducer.publishPaymentSuccess(event.orderId(), payment.transactionId()));
             return;
         }
         logger.info("Payment service received inventory-reserved for order {}", event.orderId());
@@ -50,20 +54,27 @@ public class PaymentConsumer {
     public void handleRefundRequested(RefundRequestedEvent event) {
         String eventKey = "refund-requested:" + event.orderId();
         if (!eventDeduplicationService.tryStartProcessing(eventKey)) {
+            // Re-sent while the order has not heard back: answer again with the refund already settled.
+            paymentService.findPayment(event.orderId()).ifPresentOrElse(
+                    payment -> publishRefundOutcome(event.orderId(), payment),
+                    () -> paymentProducer.publishRefundFailed(event.orderId(), "Refund status: MISSING"));
             return;
         }
 
         try {
-            PaymentResponse response = paymentService.refundPayment(event.orderId());
-            if ("REFUNDED".equals(response.status())) {
-                paymentProducer.publishRefundSuccess(event.orderId(), response.transactionId());
-            } else {
-                paymentProducer.publishRefundFailed(event.orderId(), "Refund status: " + response.status());
-            }
+            publishRefundOutcome(event.orderId(), paymentService.refundPayment(event.orderId()));
         } catch (Exception e) {
             eventDeduplicationService.markFailed(eventKey);
             logger.error("Refund processing failed for order {}", event.orderId(), e);
             paymentProducer.publishRefundFailed(event.orderId(), e.getMessage());
         }
     }
+
+    private void publishRefundOutcome(Long orderId, PaymentResponse payment) {
+        if ("REFUNDED".equals(payment.status()) || "VOIDED".equals(payment.status())) {
+            paymentProducer.publishRefundSuccess(orderId, payment.transactionId(), payment.status());
+        } else {
+            paymentProducer.publishRefundFailed(orderId, "Refund status: " + payment.status());
+        }
+    }
 }
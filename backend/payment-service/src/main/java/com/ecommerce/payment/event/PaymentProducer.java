@@ -35,8 +35,8 @@ public class PaymentProducer {
                 event);
     }
 
-    public void publishRefundSuccess(Long orderId, String transactionId) {
-        RefundSuccessEvent event = new RefundSuccessEvent(orderId, transactionId);
+    public void publishRefundSuccess(Long orderId, String transactionId, String status) {
+        RefundSuccessEvent event = new RefundSuccessEvent(orderId, transactionId, status);
         outboxService.enqueue(
                 TOPIC_REFUND_SUCCESS,
                 Objects.requireNonNull(orderId.toString()),
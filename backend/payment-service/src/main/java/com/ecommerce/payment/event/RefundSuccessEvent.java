@@ -1,3 +1,6 @@
 package com.ecommerce.payment.event;
 
-public record RefundSuccessEvent(Long orderId, String transactionId) {}
+/**
+ * {@code status} is {@code REFUNDED} when money was returned, or {@code VOIDED} for a payment that was never taken.
+ */
+public record RefundSuccessEvent(Long orderId, String transactionId, String status) {}
@@ -8,7 +8,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -21,7 +23,8 @@ public class PaymentService {
     public PaymentResponse initiatePayment(PaymentRequest request) {
         Payment existingPayment = paymentRepository.findByOrderId(request.orderId()).orElse(null);
         if (existingPayment != null) {
-            if ("COMPLETED".equals(existingPayment.getStatus()) || "REFUNDED".equals(existingPayment.getStatus())) {
+            if ("COMPLETED".equals(existingPayment.getStatus()) || "REFUNDED".equals(existingPayment.getStatus())
+                    || "VOIDED".equals(existingPayment.getStatus())) {
                 return mapToResponse(existingPayment);
             }
 
@@ -42,20 +45,32 @@ public class PaymentService {
         return completePayment(paymentRepository.save(payment));
     }
 
+    @Transactional(readOnly = true)
+    public Optional<PaymentResponse> findPayment(Long orderId) {
+        return paymentRepository.findByOrderId(orderId).map(this::mapToResponse);
+    }
+
+    /**
+     * Refunds a completed payment. An order that was never paid has nothing to refund: its payment,
+     * or a placeholder if none was started, is voided so a payment request arriving later is not charged.
+     */
     @Transactional
     public PaymentResponse refundPayment(Long orderId) {
-        Payment payment = paymentRepository.findByOrderId(orderId)
-                .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
-
-        if ("REFUNDED".equals(payment.getStatus())) {
-            return mapToResponse(payment);
+        Payment payment = paymentRepository.findByOrderId(orderId).orElse(null);
+        if (payment == null) {
+            return mapToResponse(paymentRepository.save(Objects.requireNonNull(
+                    Payment.builder()
+                            .orderId(orderId)
+                            .amount(BigDecimal.ZERO)
+                            .status("VOIDED")
+                            .build())));
         }
 
-        if (!"COMPLETED".equals(payment.getStatus())) {
-            throw new RuntimeException("Payment is not refundable in status: " + payment.getStatus());
+        if ("REFUNDED".equals(payment.getStatus()) || "VOIDED".equals(payment.getStatus())) {
+            return mapToResponse(payment);
         }
 
-        payment.setStatus("REFUNDED");
+        payment.setStatus("COMPLETED".equals(payment.getStatus()) ? "REFUNDED" : "VOIDED");
         return mapToResponse(paymentRepository.save(payment));
     }
 
@@ -0,0 +1,72 @@
+package com.ecommerce.payment.event;
+
+import com.ecommerce.payment.dto.PaymentResponse;
+import com.ecommerce.payment.service.EventDeduplicationService;
+import com.ecommerce.payment.service.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentConsumerTest {
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PaymentProducer paymentProducer;
+
+    @Mock
+    private EventDeduplicationService eventDeduplicationService;
+
+    @InjectMocks
+    private PaymentConsumer paymentConsumer;
+
+    @Test
+    void handleRefundRequested_refundsAndAnswers() {
+        when(eventDeduplicationService.tryStartProcessing("refund-requested:42")).thenReturn(true);
+        when(paymentService.refundPayment(42L)).thenReturn(payment(42L, "REFUNDED"));
+
+        paymentConsumer.handleRefundRequested(new RefundRequestedEvent(42L));
+
+        verify(paymentProducer).publishRefundSuccess(42L, "tx-42", "REFUNDED");
+    }
+
+    @Test
+    void handleRefundRequested_resentForSettledRefund_answersAgain() {
+        when(eventDeduplicationService.tryStartProcessing("refund-requested:42")).thenReturn(false);
+        when(paymentService.findPayment(42L)).thenReturn(Optional.of(payment(42L, "VOIDED")));
+
+        paymentConsumer.handleRefundRequested(new RefundRequestedEvent(42L));
+
+        verify(paymentService, never()).refundPayment(anyLong());
+        verify(paymentProducer).publishRefundSuccess(42L, "tx-42", "VOIDED");
+    }
+
+    @Test
+    void handleRefundRequested_resentForUnsettledRefund_answersFailed() {
+        when(eventDeduplicationService.tryStartProcessing("refund-requested:43")).thenReturn(false);
+        when(paymentService.findPayment(43L)).thenReturn(Optional.empty());
+
+        paymentConsumer.handleRefundRequested(new RefundRequestedEvent(43L));
+
+        verify(paymentProducer, never()).publishRefundSuccess(anyLong(), any(), any());
+        verify(paymentProducer).publishRefundFailed(43L, "Refund status: MISSING");
+    }
+
+    private static PaymentResponse payment(Long orderId, String status) {
+        return new PaymentResponse(1L, orderId, "tx-" + orderId, BigDecimal.TEN, status, LocalDateTime.now());
+    }
+}
@@ -14,7 +14,6 @@ import java.math.BigDecimal;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -101,11 +100,29 @@ class PaymentServiceTest {
     }
 
     @Test
-    void refundPaymentNonCompletedThrows() {
+    void refundPaymentNonCompletedVoidsIt() {
         Payment payment = samplePayment(11L, "PENDING");
         when(paymentRepository.findByOrderId(11L)).thenReturn(Optional.of(payment));
+        when(paymentRepository.save(payment)).thenReturn(payment);
+
+        PaymentResponse response = paymentService.refundPayment(11L);
+
+        assertEquals("VOIDED", response.status());
+    }
+
+    @Test
+    void refundWithoutPaymentVoidsTheOrderSoItIsNeverCharged() {
+        when(paymentRepository.findByOrderId(12L)).thenReturn(Optional.empty());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertEquals("VOIDED", paymentService.refundPayment(12L).status());
+
+        Payment voided = samplePayment(12L, "VOIDED");
+        when(paymentRepository.findByOrderId(12L)).thenReturn(Optional.of(voided));
+        PaymentResponse response = paymentService.initiatePayment(new PaymentRequest(12L, BigDecimal.TEN, "CREDIT_CARD"));
 
-        assertThrows(RuntimeException.class, () -> paymentService.refundPayment(11L));
+        assertEquals("VOIDED", response.status());
+        verify(paymentRepository, times(1)).save(any(Payment.class));
     }
 
     private Payment samplePayment(Long orderId, String status) {
@@ -0,0 +1,2 @@
+-- Version stamp bumped on every product update; order-service uses it to spot stale cached prices.
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -14,5 +14,6 @@ public record ProductResponse(
     Long sellerId,
     String status,
     LocalDateTime createdAt,
-    List<String> imageUrls
+    List<String> imageUrls,
+    Long version
 ) {}
@@ -73,6 +73,18 @@ public class ProductService {
         return mapToResponse(product);
     }
 
+    /**
+     * Entity tag for {@link #getProductById}, read from the version column alone so a matching
+     * {@code If-None-Match} is answered without loading the product or its images. Categories
+     * cannot be renamed and image changes bump the version, so the version covers the whole body.
+     */
+    @Transactional(readOnly = true)
+    public String getProductETag(@NonNull Long id) {
+        return productRepository.findVersionById(id)
+                .map(version -> "v" + version)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
     @Transactional(readOnly = true)
     public List<ProductResponse> getProductsByIds(List<Long> ids) {
         List<Long> normalizedIds = ids == null
@@ -132,7 +144,8 @@ public class ProductService {
             product.setStatus(request.status());
         }
 
-        Product savedProduct = productRepository.save(product);
+        // Flush so the response carries the bumped version.
+        Product savedProduct = productRepository.saveAndFlush(product);
         logger.info("Product updated with id: {}", savedProduct.getId());
         return mapToResponse(savedProduct);
     }
@@ -148,7 +161,8 @@ public class ProductService {
                 product.getSellerId(),
                 product.getStatus(),
                 product.getCreatedAt(),
-                normalizeImageUrls(product.getImageUrls()));
+                normalizeImageUrls(product.getImageUrls()),
+                product.getVersion());
     }
 
     private List<String> normalizeImageUrls(List<String> imageUrls) {
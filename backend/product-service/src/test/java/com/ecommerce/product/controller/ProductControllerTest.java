@@ -13,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
@@ -23,11 +24,15 @@ import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +51,7 @@ class ProductControllerTest {
 
     @BeforeEach
     void setup() {
+        ReflectionTestUtils.setField(productController, "cacheMaxAgeSeconds", 30L);
         mockMvc = MockMvcBuilders.standaloneSetup(productController)
                 .setControllerAdvice(new GlobalExceptionHandler())
                 .build();
@@ -57,7 +63,7 @@ class ProductControllerTest {
                 List.of("https://cdn.example.com/phone-1.jpg", "https://cdn.example.com/phone-2.jpg"));
         ProductResponse resp = new ProductResponse(101L, "Phone", "Smartphone", new BigDecimal("499.99"),
                 1L, "Electronics", 10L, "ACTIVE", null,
-                List.of("https://cdn.example.com/phone-1.jpg", "https://cdn.example.com/phone-2.jpg"));
+                List.of("https://cdn.example.com/phone-1.jpg", "https://cdn.example.com/phone-2.jpg"), 0L);
 
         when(productService.createProduct(any(ProductRequest.class))).thenReturn(resp);
 
@@ -84,9 +90,9 @@ class ProductControllerTest {
     void getAllProductsSuccess() throws Exception {
         when(productService.getAllProducts()).thenReturn(List.of(
                 new ProductResponse(1L, "P1", "D1", new BigDecimal("10.00"), null, null, 1L, "ACTIVE", null,
-                        List.of()),
+                        List.of(), 0L),
                 new ProductResponse(2L, "P2", "D2", new BigDecimal("20.00"), null, null, 1L, "ACTIVE", null,
-                        List.of())
+                        List.of(), 0L)
         ));
 
         mockMvc.perform(get("/products"))
@@ -106,19 +112,35 @@ class ProductControllerTest {
 
     @Test
     void getProductByIdSuccess() throws Exception {
+        when(productService.getProductETag(1L)).thenReturn("v3");
         when(productService.getProductById(1L)).thenReturn(
                 new ProductResponse(1L, "P1", "D1", new BigDecimal("10.00"), 2L, "Cat", 1L, "ACTIVE", null,
-                        List.of())
+                        List.of(), 3L)
         );
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v3\""))
+                .andExpect(header().string("Cache-Control", "max-age=30, public"))
                 .andExpect(jsonPath("$.id").value(1L));
     }
 
+    @Test
+    void getProductByIdUnchangedReturnsNotModifiedWithoutLoadingIt() throws Exception {
+        when(productService.getProductETag(1L)).thenReturn("v3");
+
+        mockMvc.perform(get("/products/1").header("If-None-Match", "\"v2\", \"v3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v3\""))
+                .andExpect(header().string("Cache-Control", "max-age=30, public"))
+                .andExpect(content().string(""));
+
+        verify(productService, never()).getProductById(1L);
+    }
+
     @Test
     void getProductByIdNotFound() throws Exception {
-        when(productService.getProductById(1L)).thenThrow(new ResourceNotFoundException("Product not found"));
+        when(productService.getProductETag(1L)).thenThrow(new ResourceNotFoundException("Product not found"));
 
         mockMvc.perform(get("/products/1"))
                 .andExpect(status().isNotFound());
@@ -128,9 +150,9 @@ class ProductControllerTest {
     void getProductsByIdsSuccess() throws Exception {
         when(productService.getProductsByIds(anyList())).thenReturn(List.of(
                 new ProductResponse(1L, "P1", "D1", new BigDecimal("10.00"), null, null, 1L, "ACTIVE", null,
-                        List.of()),
+                        List.of(), 0L),
                 new ProductResponse(2L, "P2", "D2", new BigDecimal("20.00"), null, null, 1L, "ACTIVE", null,
-                        List.of())
+                        List.of(), 0L)
         ));
 
         mockMvc.perform(get("/products/batch").param("ids", "1", "2"))
@@ -146,14 +168,15 @@ class ProductControllerTest {
         when(productService.updateProduct(any(Long.class), any(ProductRequest.class))).thenReturn(
                 new ProductResponse(1L, "Phone Updated", "Updated", new BigDecimal("599.99"),
                         1L, "Electronics", 10L, "ACTIVE", null,
-                        List.of("https://cdn.example.com/updated-1.jpg"))
+                        List.of("https://cdn.example.com/updated-1.jpg"), 1L)
         );
 
         mockMvc.perform(put("/products/1")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(req)))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.name").value("Phone Updated"));
+                .andExpect(jsonPath("$.name").value("Phone Updated"))
+                .andExpect(jsonPath("$.version").value(1L));
     }
 
     @Test
@@ -0,0 +1,9 @@
+-- Hibernate now takes ids from these sequences 50 at a time (pooled optimizer) so inserts can be
+-- JDBC-batched. Each nextval is the top of a block, so every sequence is moved a full block past the
+-- ids already handed out. Column defaults stay in place for SQL inserts.
+
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+SELECT setval('users_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM users), (SELECT last_value FROM users_id_seq)) + 50, false);
+
+ALTER SEQUENCE refresh_tokens_id_seq INCREMENT BY 50;
+SELECT setval('refresh_tokens_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM refresh_tokens), (SELECT last_value FROM refresh_tokens_id_seq)) + 50, false);
@@ -2,8 +2,10 @@ package com.ecommerce.user.controller;
 
 import com.ecommerce.common.exception.ResourceNotFoundException;
 import com.ecommerce.user.domain.User;
+import com.ecommerce.user.dto.UpdateRoleRequest;
 import com.ecommerce.user.dto.UserResponse;
 import com.ecommerce.user.repository.UserRepository;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -11,6 +13,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -70,4 +73,25 @@ public class UserController {
 
         return ResponseEntity.ok(users);
     }
+
+    /**
+     * Grants or revokes partner access (admin only, like every {@code /users/**} route). The role is
+     * read from the database when tokens are issued, so it applies from the user's next login or
+     * token refresh. Admins are not created through this endpoint.
+     */
+    @PutMapping("/{id}/role")
+    public ResponseEntity<UserResponse> updateRole(@PathVariable Long id, @Valid @RequestBody UpdateRoleRequest request) {
+        User user = userRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+        user.setRole(request.role());
+        User saved = userRepository.save(user);
+
+        return ResponseEntity.ok(new UserResponse(
+                saved.getId(),
+                saved.getEmail(),
+                saved.getFirstName(),
+                saved.getLastName(),
+                saved.getRole()
+        ));
+    }
 }
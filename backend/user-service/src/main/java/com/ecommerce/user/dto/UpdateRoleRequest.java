@@ -0,0 +1,9 @@
+package com.ecommerce.user.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+
+public record UpdateRoleRequest(
+        @NotBlank @Pattern(regexp = "ROLE_CUSTOMER|ROLE_PARTNER", message = "must be ROLE_CUSTOMER or ROLE_PARTNER")
+        String role) {
+}
@@ -22,10 +22,14 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.util.Optional;
 import java.util.List;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -157,4 +161,34 @@ class UserControllerTest {
                 .andExpect(jsonPath("$[1].id").value(8L))
                 .andExpect(jsonPath("$[1].email").value("admin@example.com"));
     }
+
+    @Test
+    void updateRoleGrantsPartnerAccess() throws Exception {
+        com.ecommerce.user.domain.User user = com.ecommerce.user.domain.User.builder()
+                .id(7L)
+                .email("partner@example.com")
+                .firstName("Partner")
+                .lastName("One")
+                .role("ROLE_CUSTOMER")
+                .password("encoded")
+                .build();
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+        when(userRepository.save(user)).thenReturn(user);
+
+        mockMvc.perform(put("/users/7/role")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ROLE_PARTNER\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("ROLE_PARTNER"));
+    }
+
+    @Test
+    void updateRoleCannotGrantAdmin() throws Exception {
+        mockMvc.perform(put("/users/7/role")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"role\":\"ROLE_ADMIN\"}"))
+                .andExpect(status().isBadRequest());
+
+        verify(userRepository, never()).save(any());
+    }
 }
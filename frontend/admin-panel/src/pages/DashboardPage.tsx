@@ -6,18 +6,33 @@ import { DollarSign, ShoppingBag, AlertTriangle } from 'lucide-react';
 
 export const DashboardPage: React.FC = () => {
   const [orders, setOrders] = useState<any[]>([]);
+  const [sales, setSales] = useState<any[]>([]);
+  const [statusTotals, setStatusTotals] = useState<any[]>([]);
   // eslint-disable-next-line @typescript-eslint/no-unused-vars
   const [products, setProducts] = useState<any[]>([]);
 
   useEffect(() => {
     fetchOrders();
+    fetchStats();
     fetchProducts();
   }, []);
 
   const fetchOrders = async () => {
     try {
-      const res = await api.get('/orders');
-      setOrders(res.data);
+      const res = await api.get('/orders', { params: { limit: 5 } });
+      setOrders(Array.isArray(res.data?.items) ? res.data.items : []);
+    } catch(e) { console.error(e); }
+  };
+
+  // Server-side rollups: a few rows however many orders there are.
+  const fetchStats = async () => {
+    try {
+      const [salesRes, statusRes] = await Promise.all([
+        api.get('/orders/stats/sales', { params: { granularity: 'DAY' } }),
+        api.get('/orders/stats/status'),
+      ]);
+      setSales(Array.isArray(salesRes.data) ? salesRes.data : []);
+      setStatusTotals(Array.isArray(statusRes.data) ? statusRes.data : []);
     } catch(e) { console.error(e); }
   };
 
@@ -28,15 +43,17 @@ export const DashboardPage: React.FC = () => {
     } catch(e) { console.error(e); }
   };
 
-  const totalSales = orders.reduce((acc, o) => acc + o.totalAmount, 0);
-  const activeOrders = orders.filter(o => o.status !== 'DELIVERED' && o.status !== 'CANCELLED').length;
+  const totalSales = sales.reduce((acc, d) => acc + d.paidAmount - d.refundedAmount, 0);
+  const activeOrders = statusTotals
+    .filter(t => t.status !== 'DELIVERED' && t.status !== 'CANCELLED')
+    .reduce((acc, t) => acc + t.orderCount, 0);
   // This would need real inventory check to be accurate, but using 0 as placeholder or calculating from products
   const lowStock = 0;
 
   return (
     <div style={{ display: 'flex', flexDirection: 'column', gap: '1.5rem' }}>
       <div style={{ display: 'grid', gridTemplateColumns: 'repeat(auto-fit, minmax(240px, 1fr))', gap: '1.5rem' }}>
-        <StatCard title="Total Sales" value={`$${totalSales.toFixed(2)}`} icon={<DollarSign color="#16a34a" />} />
+        <StatCard title="Sales (30 days)" value={`$${totalSales.toFixed(2)}`} icon={<DollarSign color="#16a34a" />} />
         <StatCard title="Active Orders" value={activeOrders} icon={<ShoppingBag color="#2563eb" />} />
         <StatCard title="Low Stock Alerts" value={lowStock} icon={<AlertTriangle color="#dc2626" />} />
       </div>
@@ -21,6 +21,11 @@ interface Order {
   items: OrderItem[];
 }
 
+interface OrderPage {
+  items: Order[];
+  nextCursor?: string | null;
+}
+
 interface UserSummary {
   id: number;
   firstName?: string | null;
@@ -30,6 +35,7 @@ interface UserSummary {
 
 export const OrderPage: React.FC = () => {
   const [orders, setOrders] = useState<Order[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
   const [selectedOrder, setSelectedOrder] = useState<Order | null>(null);
   const [statusFilter, setStatusFilter] = useState<'ALL' | string>('ALL');
   const [customerFilter, setCustomerFilter] = useState('');
@@ -42,11 +48,14 @@ export const OrderPage: React.FC = () => {
     fetchOrders();
   }, []);
 
-  const fetchOrders = async () => {
+  const fetchOrders = async (cursor?: string) => {
     try {
-      const res = await api.get('/orders');
-      const fetchedOrders: Order[] = Array.isArray(res.data) ? res.data : [];
+      const res = await api.get('/orders', { params: { limit: 100, cursor } });
+      const page: OrderPage = res.data;
+      const pageOrders: Order[] = Array.isArray(page?.items) ? page.items : [];
+      const fetchedOrders = cursor ? [...orders, ...pageOrders] : pageOrders;
       setOrders(fetchedOrders);
+      setNextCursor(page?.nextCursor ?? null);
 
       const uniqueUserIds = Array.from(new Set(fetchedOrders.map((order) => order.userId).filter((id) => typeof id === 'number')));
       if (uniqueUserIds.length === 0) {
@@ -229,6 +238,11 @@ export const OrderPage: React.FC = () => {
           </tbody>
         </table>
       </Card>
+      {nextCursor && (
+        <div style={{ display: 'flex', justifyContent: 'center', marginTop: '1rem' }}>
+          <Button variant="ghost" onClick={() => fetchOrders(nextCursor)}>Load more</Button>
+        </div>
+      )}
 
       <Modal
         isOpen={!!selectedOrder}
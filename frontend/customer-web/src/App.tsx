@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import { StoreLayout } from './layouts/StoreLayout';
 import { HomePage } from './pages/HomePage';
 import { CartPage } from './pages/CartPage';
@@ -63,6 +63,12 @@ function App() {
   const [confirmPassword, setConfirmPassword] = useState('');
   const [isSubmittingAuth, setIsSubmittingAuth] = useState(false);
   const [isCheckingOut, setIsCheckingOut] = useState(false);
+  // One key per cart: a retried checkout of the same cart is answered with the original order.
+  const checkoutKeyRef = useRef<string | null>(null);
+
+  useEffect(() => {
+    checkoutKeyRef.current = null;
+  }, [cartItems]);
 
   // Initial Auth Check
   useEffect(() => {
@@ -167,10 +173,12 @@ function App() {
       const items = cartItems.map(item => ({
         productId: item.product.id,
         quantity: item.quantity,
-        price: item.product.price
+        price: item.product.price,
+        productVersion: item.product.version
       }));
 
-      await api.post('/orders', { items });
+      checkoutKeyRef.current ??= crypto.randomUUID();
+      await api.post('/orders', { items }, { headers: { 'Idempotency-Key': checkoutKeyRef.current } });
 
       addToast('Order placed successfully!', 'success');
       setCartItems([]);
@@ -14,6 +14,7 @@ interface Product {
   imageUrls?: string[];
   categoryId?: number | null;
   categoryName?: string | null;
+  version?: number;
 }
 
 interface Category {
@@ -31,8 +31,8 @@ export const OrderPage: React.FC<OrderPageProps> = ({ onRetry }) => {
   const { addToast } = useToast();
 
   const fetchOrders = () => {
-    api.get('/orders/my-orders')
-      .then((res: any) => setOrders(res.data))
+    api.get('/orders/my-orders', { params: { limit: 100 } })
+      .then((res: any) => setOrders(Array.isArray(res.data?.items) ? res.data.items : []))
       .catch((err: any) => console.error(err));
   };
 